@@ -0,0 +1,85 @@
+package benchmarks;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPosition;
+import chess.Fen;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Rule checks the server runs for every move and status query. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChessGameBenchmark {
+
+  private static final String MIDDLE_GAME =
+      "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+  private static final String FOOLS_MATE =
+      "rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3";
+
+  private ChessGame middleGame;
+  private ChessGame checkmate;
+  private List<ChessPosition> whitePieces;
+
+  @Setup
+  public void setUp() {
+    middleGame = Fen.toGame(MIDDLE_GAME);
+    checkmate = Fen.toGame(FOOLS_MATE);
+
+    whitePieces = new ArrayList<>();
+    ChessBoard board = middleGame.getBoard();
+    for (int row = 1; row <= 8; row++) {
+      for (int col = 1; col <= 8; col++) {
+        var position = new ChessPosition(row, col);
+        var piece = board.getPiece(position);
+        if (piece != null && piece.getTeamColor() == ChessGame.TeamColor.WHITE) {
+          whitePieces.add(position);
+        }
+      }
+    }
+  }
+
+  /** validMoves for every white piece in a busy middle game position */
+  @Benchmark
+  public void validMovesMiddleGame(Blackhole blackhole) {
+    for (ChessPosition position : whitePieces) {
+      blackhole.consume(middleGame.validMoves(position));
+    }
+  }
+
+  @Benchmark
+  public boolean isInCheckmateMated() {
+    return checkmate.isInCheckmate(ChessGame.TeamColor.WHITE);
+  }
+
+  @Benchmark
+  public boolean isInCheckmateNotMated() {
+    return middleGame.isInCheckmate(ChessGame.TeamColor.WHITE);
+  }
+
+  @Benchmark
+  public boolean isInStalemateMiddleGame() {
+    return middleGame.isInStalemate(ChessGame.TeamColor.WHITE);
+  }
+
+  @Benchmark
+  public ChessBoard copyBoard() {
+    return middleGame.getBoard().copyBoard();
+  }
+}
@@ -0,0 +1,68 @@
+package benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import server.websocket.Connection;
+import server.websocket.ConnectionManager;
+
+/**
+ * Fan-out cost of a websocket broadcast. Connections hand their messages to a Blackhole instead of
+ * a socket, and System.out is silenced while running so the per-message logging is still paid for
+ * without flooding the benchmark output.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConnectionManagerBenchmark {
+
+  @Param({"2", "10", "100"})
+  public int connections;
+
+  private final ConnectionManager connectionManager = new ConnectionManager();
+  private PrintStream originalOut;
+
+  @Setup
+  public void setUp(Blackhole blackhole) {
+    originalOut = System.out;
+    System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+    for (int i = 0; i < connections; i++) {
+      String username = "user" + i;
+      connectionManager.connections.put(
+          username,
+          new Connection(username, null) {
+            @Override
+            public void send(String msg) {
+              blackhole.consume(msg);
+            }
+          });
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    System.setOut(originalOut);
+  }
+
+  @Benchmark
+  public void broadcast() {
+    connectionManager.broadcast("user0", "user0 made a move");
+  }
+}
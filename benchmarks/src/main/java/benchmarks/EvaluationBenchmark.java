@@ -0,0 +1,69 @@
+package benchmarks;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Evaluation;
+import chess.Fen;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Static evaluation, which the search calls at every leaf. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EvaluationBenchmark {
+
+  @Param({
+    "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+    "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+    "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+  })
+  public String fen;
+
+  private ChessGame game;
+  private List<ChessMove> moves;
+
+  @Setup
+  public void setUp() {
+    game = Fen.toGame(fen);
+    moves = new ArrayList<>(game.legalMoves());
+  }
+
+  @Benchmark
+  public int evaluate() {
+    return Evaluation.evaluate(game);
+  }
+
+  /** Every legal move made, evaluated and taken back, as a search does one ply above the leaves */
+  @Benchmark
+  public void makeEvaluateUnmake(Blackhole blackhole) {
+    ChessBoard board = game.getBoard();
+    ChessGame.TeamColor enemy =
+        game.getTeamTurn() == ChessGame.TeamColor.WHITE
+            ? ChessGame.TeamColor.BLACK
+            : ChessGame.TeamColor.WHITE;
+
+    for (ChessMove move : moves) {
+      long undo = board.makeMove(move);
+      blackhole.consume(Evaluation.evaluate(board, enemy));
+      board.unmakeMove(undo);
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package benchmarks;
+
+import dataaccess.DataAccessException;
+import dataaccess.DatabaseManager;
+import dataaccess.database.DatabaseGameDataAccess;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import model.GameData;
+import model.GameSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Game queries against the in-memory H2 database configured in this module's db.properties. The
+ * numbers leave out network time to a real MySQL server but show the per-row cost of the queries
+ * and the (de)serialization done around them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameDataAccessBenchmark {
+
+  @Param({"10", "100", "1000"})
+  public int games;
+
+  private final DatabaseGameDataAccess gameDataAccess = new DatabaseGameDataAccess();
+  private int firstGameID;
+
+  @Setup(Level.Trial)
+  public void setUp() throws DataAccessException {
+    DatabaseManager.createTables();
+    gameDataAccess.clear();
+
+    List<String> gameNames = new ArrayList<>();
+    for (int i = 0; i < games; i++) {
+      gameNames.add("game" + i);
+    }
+    firstGameID = gameDataAccess.createNewGames(gameNames)[0];
+  }
+
+  @Benchmark
+  public ArrayList<GameData> listGames() throws DataAccessException {
+    return gameDataAccess.listGames();
+  }
+
+  @Benchmark
+  public ArrayList<GameSummary> listGameSummaries() throws DataAccessException {
+    return gameDataAccess.listGameSummaries();
+  }
+
+  @Benchmark
+  public GameData getGame() throws DataAccessException {
+    return gameDataAccess.getGame(firstGameID);
+  }
+}
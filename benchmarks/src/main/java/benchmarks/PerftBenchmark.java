@@ -0,0 +1,54 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.Fen;
+import chess.Perft;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Move generation speed. Each benchmark runs a fixed perft and declares its node count as the
+ * operations per invocation, so the reported throughput is nodes per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PerftBenchmark {
+
+  private static final long START_DEPTH_4_NODES = 197281;
+  private static final long POSITION_3_DEPTH_2_NODES = 191;
+
+  private ChessGame start;
+  private ChessGame position3;
+
+  @Setup
+  public void setUp() {
+    start = Fen.toGame(Perft.ReferencePosition.START.fen());
+    position3 = Fen.toGame(Perft.ReferencePosition.POSITION_3.fen());
+  }
+
+  @Benchmark
+  @OperationsPerInvocation((int) START_DEPTH_4_NODES)
+  public long startPositionDepth4() {
+    return Perft.perft(start, 4);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation((int) POSITION_3_DEPTH_2_NODES)
+  public long position3Depth2() {
+    return Perft.perft(position3, 2);
+  }
+}
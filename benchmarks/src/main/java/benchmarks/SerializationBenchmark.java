@@ -0,0 +1,79 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.ChessGameCodec;
+import chess.Fen;
+import com.google.gson.Gson;
+import java.util.concurrent.TimeUnit;
+import model.GameData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Gson round trips used by the HTTP API and the websocket messages, and the binary codec used by
+ * the games table.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+  private final Gson gson = new Gson();
+
+  private ChessGame game;
+  private GameData gameData;
+  private String gameJson;
+  private String gameDataJson;
+  private byte[] gameBytes;
+
+  @Setup
+  public void setUp() {
+    game =
+        Fen.toGame("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+    gameData = new GameData(1, "white", "black", "benchmark", game);
+    gameJson = gson.toJson(game);
+    gameDataJson = gson.toJson(gameData);
+    gameBytes = ChessGameCodec.encode(game);
+  }
+
+  @Benchmark
+  public String gameToJson() {
+    return gson.toJson(game);
+  }
+
+  @Benchmark
+  public ChessGame gameFromJson() {
+    return gson.fromJson(gameJson, ChessGame.class);
+  }
+
+  @Benchmark
+  public byte[] gameToBytes() {
+    return ChessGameCodec.encode(game);
+  }
+
+  @Benchmark
+  public ChessGame gameFromBytes() {
+    return ChessGameCodec.decode(gameBytes);
+  }
+
+  @Benchmark
+  public String gameDataToJson() {
+    return gson.toJson(gameData);
+  }
+
+  @Benchmark
+  public GameData gameDataFromJson() {
+    return gson.fromJson(gameDataJson, GameData.class);
+  }
+}
@@ -6,6 +6,7 @@ import java.io.*;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.*;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -13,6 +14,9 @@ import model.*;
 
 public class ServerFacade {
 
+  // the most games the server lists at once
+  private static final int LIST_PAGE_SIZE = 500;
+
   private final int port;
 
   public ServerFacade(int port) {
@@ -83,10 +87,25 @@ public class ServerFacade {
     this.makeRequest("PUT", path, header, new JoinGameRequest(null, playerColor, gameID), null);
   }
 
+  /**
+   * Lists every game, following the server's pages until there are no more
+   *
+   * @param authToken authToken
+   * @return all the games, oldest first
+   */
   public ListGamesResult listGames(String authToken) {
-    String path = "/game";
     HashMap<String, String> header = mapAuthToken(authToken);
-    return this.makeRequest("GET", path, header, null, ListGamesResult.class);
+    ArrayList<GameData> games = new ArrayList<>();
+    Integer after = null;
+
+    do {
+      String path = "/game?limit=" + LIST_PAGE_SIZE + (after == null ? "" : "&after=" + after);
+      ListGamesResult page = this.makeRequest("GET", path, header, null, ListGamesResult.class);
+      games.addAll(page.games());
+      after = page.next();
+    } while (after != null);
+
+    return new ListGamesResult(games, null);
   }
 
   public void logoutUser(String authToken) {
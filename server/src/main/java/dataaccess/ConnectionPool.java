@@ -0,0 +1,458 @@
+package dataaccess;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded pool of JDBC connections, so a request reuses an open connection instead of paying for
+ * a new TCP connection and login on every query.
+ *
+ * <p>Connections handed out are wrappers whose {@code close()} puts the real connection back, so
+ * callers keep using try-with-resources exactly as with {@code DriverManager}. Idle connections are
+ * reused most recently returned first, which leaves the rest idle long enough to be closed by a
+ * background task once they pass the idle timeout. The same task opens connections whenever fewer
+ * than {@code minIdle} are idle, starting as soon as the pool is made. A returned connection gets
+ * back the autocommit, read-only, transaction isolation and catalog it was opened with. A
+ * connection that has sat idle for a while is checked with {@link Connection#isValid(int)} before
+ * it is handed out, and one that is held for longer than the leak detection threshold is reported
+ * along with where it was borrowed.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+  // connections used this recently are handed out without checking them again
+  private static final long VALIDATION_BYPASS_MILLIS = 500;
+
+  private final ConnectionFactory factory;
+  private final Settings settings;
+  private final Semaphore permits;
+  private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+  private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+  private final ScheduledExecutorService housekeeper;
+
+  private final AtomicLong created = new AtomicLong();
+  private final AtomicLong destroyed = new AtomicLong();
+  private final AtomicLong timeouts = new AtomicLong();
+  private final AtomicLong leaks = new AtomicLong();
+
+  private volatile boolean closed;
+
+  /** Opens a new physical connection for the pool */
+  @FunctionalInterface
+  public interface ConnectionFactory {
+    Connection open() throws SQLException;
+  }
+
+  /**
+   * How the pool behaves, read from {@code db.pool.*} properties.
+   *
+   * @param maxSize most connections open at once, idle or borrowed
+   * @param minIdle idle connections kept open however long they go unused
+   * @param idleTimeoutMillis how long a connection beyond {@code minIdle} may sit unused
+   * @param connectionTimeoutMillis how long to wait for a connection when all are borrowed
+   * @param validationTimeoutSeconds how long to wait for an idle connection to answer a check
+   * @param leakDetectionMillis how long a connection may be held before it is reported, 0 for never
+   */
+  public record Settings(
+      int maxSize,
+      int minIdle,
+      long idleTimeoutMillis,
+      long connectionTimeoutMillis,
+      int validationTimeoutSeconds,
+      long leakDetectionMillis) {
+
+    public Settings {
+      if (maxSize < 1 || minIdle < 0 || minIdle > maxSize) {
+        throw new IllegalArgumentException("Pool needs 0 <= minIdle <= maxSize and maxSize >= 1");
+      }
+    }
+
+    /**
+     * @param props database properties, any missing {@code db.pool.*} setting gets a default
+     * @return the pool settings
+     */
+    public static Settings fromProperties(Properties props) {
+      return new Settings(
+          Integer.parseInt(props.getProperty("db.pool.maxSize", "10")),
+          Integer.parseInt(props.getProperty("db.pool.minIdle", "2")),
+          Long.parseLong(props.getProperty("db.pool.idleTimeoutMillis", "600000")),
+          Long.parseLong(props.getProperty("db.pool.connectionTimeoutMillis", "5000")),
+          Integer.parseInt(props.getProperty("db.pool.validationTimeoutSeconds", "2")),
+          Long.parseLong(props.getProperty("db.pool.leakDetectionMillis", "0")));
+    }
+  }
+
+  /**
+   * A snapshot of the pool's counters.
+   *
+   * @param open connections currently open, idle or borrowed
+   * @param idle connections waiting to be borrowed
+   * @param borrowed connections handed out and not yet returned
+   * @param waiting callers waiting for a connection, an estimate
+   * @param created physical connections ever opened
+   * @param destroyed physical connections ever closed
+   * @param timeouts requests that gave up waiting for a connection
+   * @param leaks connections reported as held too long
+   */
+  public record Stats(
+      int open,
+      int idle,
+      int borrowed,
+      int waiting,
+      long created,
+      long destroyed,
+      long timeouts,
+      long leaks) {}
+
+  public ConnectionPool(ConnectionFactory factory, Settings settings) {
+    this.factory = factory;
+    this.settings = settings;
+    this.permits = new Semaphore(settings.maxSize(), true);
+    this.housekeeper =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              var thread = new Thread(runnable, "connection-pool-housekeeper");
+              thread.setDaemon(true);
+              return thread;
+            });
+
+    // in the background, so a database that isn't up yet doesn't stop the pool being made
+    housekeeper.execute(this::fillIdle);
+
+    final long period = Math.max(1000, housekeepingPeriod(settings));
+    housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Borrows a connection, opening one if none is idle and the pool isn't full
+   *
+   * @return a connection to close when done with, which returns it to the pool
+   * @throws SQLException if no connection frees up in time or a new one can't be opened
+   */
+  public Connection getConnection() throws SQLException {
+    if (closed) {
+      throw new SQLException("Connection pool is closed");
+    }
+
+    try {
+      if (!permits.tryAcquire(settings.connectionTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+        timeouts.incrementAndGet();
+        throw new SQLException(
+            "Timed out after "
+                + settings.connectionTimeoutMillis()
+                + " ms waiting for one of "
+                + settings.maxSize()
+                + " database connections");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLException("Interrupted waiting for a database connection");
+    }
+
+    try {
+      final PooledConnection connection = takeIdleOrOpen();
+      final Connection handle = connection.borrow(settings.leakDetectionMillis() > 0);
+      borrowed.add(connection);
+      return handle;
+    } catch (SQLException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  /**
+   * @return the pool's current counters
+   */
+  public Stats stats() {
+    final int idleCount = idle.size();
+    final int borrowedCount = borrowed.size();
+    return new Stats(
+        idleCount + borrowedCount,
+        idleCount,
+        borrowedCount,
+        permits.getQueueLength(),
+        created.get(),
+        destroyed.get(),
+        timeouts.get(),
+        leaks.get());
+  }
+
+  /**
+   * Closes the idle connections and stops the housekeeping. Borrowed connections are closed as
+   * they are returned.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    housekeeper.shutdownNow();
+
+    PooledConnection connection;
+    while ((connection = idle.pollFirst()) != null) {
+      destroy(connection);
+    }
+  }
+
+  private PooledConnection takeIdleOrOpen() throws SQLException {
+    PooledConnection connection;
+    while ((connection = idle.pollFirst()) != null) {
+      if (connection.isUsable(settings.validationTimeoutSeconds())) {
+        return connection;
+      }
+      destroy(connection);
+    }
+
+    return open();
+  }
+
+  private PooledConnection open() throws SQLException {
+    final Connection physical = factory.open();
+    created.incrementAndGet();
+    try {
+      return new PooledConnection(physical);
+    } catch (SQLException | RuntimeException e) {
+      destroyed.incrementAndGet();
+      physical.close();
+      throw e;
+    }
+  }
+
+  /** Opens connections until {@code minIdle} are idle, never going over {@code maxSize} open */
+  private void fillIdle() {
+    // holding a permit while opening keeps borrowers from opening the last connections meanwhile
+    while (!closed && idle.size() < settings.minIdle() && permits.tryAcquire()) {
+      try {
+        if (idle.size() + borrowed.size() >= settings.maxSize()) {
+          return;
+        }
+        final PooledConnection connection = open();
+        idle.offerFirst(connection);
+        if (closed && idle.remove(connection)) {
+          destroy(connection);
+        }
+      } catch (SQLException e) {
+        // the database may be down, the next round of housekeeping tries again
+        return;
+      } finally {
+        permits.release();
+      }
+    }
+  }
+
+  /** Called when a borrowed connection's handle is closed */
+  private void giveBack(PooledConnection connection) {
+    borrowed.remove(connection);
+
+    try {
+      if (closed || !connection.reset()) {
+        destroy(connection);
+      } else {
+        idle.offerFirst(connection);
+
+        // close() may have emptied the idle list while this one was being reset
+        if (closed && idle.remove(connection)) {
+          destroy(connection);
+        }
+      }
+    } finally {
+      permits.release();
+    }
+  }
+
+  private void destroy(PooledConnection connection) {
+    destroyed.incrementAndGet();
+    try {
+      connection.physical.close();
+    } catch (SQLException e) {
+      // already broken, nothing more to do with it
+    }
+  }
+
+  /**
+   * Closes connections idle too long, opens new ones up to {@code minIdle}, and reports ones
+   * borrowed too long
+   */
+  private void housekeep() {
+    final long now = System.currentTimeMillis();
+
+    // the oldest idle connections are at the end
+    while (idle.size() > settings.minIdle()) {
+      final PooledConnection oldest = idle.peekLast();
+      if (oldest == null || now - oldest.lastUsed < settings.idleTimeoutMillis()) {
+        break;
+      }
+      if (idle.removeLastOccurrence(oldest)) {
+        destroy(oldest);
+      }
+    }
+
+    // a broken connection dropped on borrow or return leaves fewer than minIdle behind
+    fillIdle();
+
+    if (settings.leakDetectionMillis() > 0) {
+      for (PooledConnection connection : borrowed) {
+        if (!connection.reported && now - connection.borrowedAt >= settings.leakDetectionMillis()) {
+          connection.reported = true;
+          leaks.incrementAndGet();
+          System.out.println(
+              "Possible connection leak: a database connection has been held for over "
+                  + settings.leakDetectionMillis()
+                  + " ms");
+          if (connection.borrowedFrom != null) {
+            connection.borrowedFrom.printStackTrace(System.out);
+          }
+        }
+      }
+    }
+  }
+
+  private static long housekeepingPeriod(Settings settings) {
+    long period = settings.idleTimeoutMillis() / 2;
+    if (settings.leakDetectionMillis() > 0) {
+      period = Math.min(period, settings.leakDetectionMillis() / 2);
+    }
+    return period;
+  }
+
+  /** A physical connection and what the pool knows about it */
+  private final class PooledConnection {
+
+    private final Connection physical;
+
+    // as the connection was opened, for reset to put back
+    private final String catalog;
+    private final boolean readOnly;
+    private final int transactionIsolation;
+
+    private volatile long lastUsed = System.currentTimeMillis();
+    private volatile long borrowedAt;
+    private volatile Exception borrowedFrom;
+    private volatile boolean reported;
+
+    private PooledConnection(Connection physical) throws SQLException {
+      this.physical = physical;
+      this.catalog = physical.getCatalog();
+      this.readOnly = physical.isReadOnly();
+      this.transactionIsolation = physical.getTransactionIsolation();
+    }
+
+    /**
+     * @return a new handle for the borrower, so a handle kept after closing it can't reach the
+     *     connection once someone else has borrowed it
+     */
+    private Connection borrow(boolean recordCaller) {
+      borrowedAt = System.currentTimeMillis();
+      borrowedFrom = recordCaller ? new Exception("Connection borrowed here") : null;
+      reported = false;
+
+      return (Connection)
+          Proxy.newProxyInstance(
+              Connection.class.getClassLoader(),
+              new Class<?>[] {Connection.class},
+              new Handle(this));
+    }
+
+    private boolean isUsable(int validationTimeoutSeconds) {
+      if (System.currentTimeMillis() - lastUsed < VALIDATION_BYPASS_MILLIS) {
+        return true;
+      }
+      try {
+        return physical.isValid(validationTimeoutSeconds);
+      } catch (SQLException e) {
+        return false;
+      }
+    }
+
+    /**
+     * Undoes what a borrower may have changed, so the next one gets the connection as it was
+     * opened
+     *
+     * @return false if the connection is broken
+     */
+    private boolean reset() {
+      try {
+        if (physical.isClosed()) {
+          return false;
+        }
+        if (!physical.getAutoCommit()) {
+          physical.rollback();
+          physical.setAutoCommit(true);
+        }
+        // after the rollback, some drivers refuse these in the middle of a transaction
+        if (physical.isReadOnly() != readOnly) {
+          physical.setReadOnly(readOnly);
+        }
+        if (physical.getTransactionIsolation() != transactionIsolation) {
+          physical.setTransactionIsolation(transactionIsolation);
+        }
+        if (catalog != null && !catalog.equals(physical.getCatalog())) {
+          physical.setCatalog(catalog);
+        }
+        physical.clearWarnings();
+        lastUsed = System.currentTimeMillis();
+        return true;
+      } catch (SQLException e) {
+        return false;
+      }
+    }
+  }
+
+  /** What a borrower holds: passes calls through until closed, then returns the connection */
+  private final class Handle implements InvocationHandler {
+
+    private final PooledConnection connection;
+    private boolean returned;
+
+    private Handle(PooledConnection connection) {
+      this.connection = connection;
+    }
+
+    @Override
+    public synchronized Object invoke(Object proxy, Method method, Object[] args)
+        throws Throwable {
+      switch (method.getName()) {
+        case "close" -> {
+          if (!returned) {
+            returned = true;
+            giveBack(connection);
+          }
+          return null;
+        }
+        case "isClosed" -> {
+          return returned || connection.physical.isClosed();
+        }
+        case "equals" -> {
+          return proxy == args[0];
+        }
+        case "hashCode" -> {
+          return System.identityHashCode(proxy);
+        }
+        case "toString" -> {
+          return "Pooled " + connection.physical;
+        }
+        default -> {
+          if (returned) {
+            throw new SQLException("Connection has been returned to the pool");
+          }
+        }
+      }
+
+      try {
+        return method.invoke(connection.physical, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }
+  }
+}
@@ -1,17 +1,37 @@
 package dataaccess;
 
+import chess.ChessGameCodec;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Types;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
 public class DatabaseManager {
 
+  /**
+   * Indexes on games for the filters in {@link GameQuery}. InnoDB keeps the primary key in every
+   * index, so each is also in game ID order within a name and can serve a page on its own.
+   */
+  private static final Map<String, String> GAME_INDEXES =
+      Map.of(
+          "games_white_username", "white_username",
+          "games_black_username", "black_username",
+          "games_game_name", "game_name");
+
   private static String databaseName;
   private static String user;
   private static String password;
   private static String connectionUrl;
+  private static ConnectionPool.Settings poolSettings;
+  private static volatile ConnectionPool pool;
 
   /*
    * Load the database information for the db.properties file.
@@ -20,12 +40,29 @@ public class DatabaseManager {
     loadPropertiesFromResources();
   }
 
-  /** Loads the properties from a test or real source for the database. */
-  public static void loadProperties(Properties props) {
+  /**
+   * Loads the properties from a test or real source for the database. A full JDBC {@code db.url}
+   * takes the place of {@code db.host} and {@code db.port}, which lets benchmarks point the data
+   * access classes at an embedded database. Optional {@code db.pool.*} settings size the connection
+   * pool, see {@link ConnectionPool.Settings#fromProperties(Properties)}.
+   */
+  public static synchronized void loadProperties(Properties props) {
+    if (pool != null) {
+      pool.close();
+      pool = null;
+    }
+
+    poolSettings = ConnectionPool.Settings.fromProperties(props);
     databaseName = props.getProperty("db.name");
     user = props.getProperty("db.user");
     password = props.getProperty("db.password");
 
+    var url = props.getProperty("db.url");
+    if (url != null) {
+      connectionUrl = url;
+      return;
+    }
+
     var host = props.getProperty("db.host");
     var port = Integer.parseInt(props.getProperty("db.port"));
     connectionUrl = String.format("jdbc:mysql://%s:%d", host, port);
@@ -52,8 +89,8 @@ public class DatabaseManager {
   public static void createDatabase() throws DataAccessException {
     try {
       var statement = "CREATE DATABASE IF NOT EXISTS " + databaseName;
-      var conn = DriverManager.getConnection(connectionUrl, user, password);
-      try (var preparedStatement = conn.prepareStatement(statement)) {
+      try (var conn = DriverManager.getConnection(connectionUrl, user, password);
+          var preparedStatement = conn.prepareStatement(statement)) {
         preparedStatement.executeUpdate();
       }
     } catch (SQLException e) {
@@ -82,10 +119,12 @@ public class DatabaseManager {
           white_username VARCHAR(255),
           black_username VARCHAR(255),
           game_name VARCHAR(255) NOT NULL,
-          chess_game TEXT NOT NULL
+          chess_game BLOB NOT NULL
         );
         """;
       statement.executeUpdate(command);
+      migrateGames(conn);
+      createGameIndexes(conn);
 
       command =
           """
@@ -101,22 +140,154 @@ public class DatabaseManager {
   }
 
   /**
-   * Create a connection to the database and sets the catalog based upon the properties specified in
-   * db.properties. Connections to the database should be short-lived, and you must close the
-   * connection when you are done with it. The easiest way to do that is with a try-with-resource
-   * block. <code>
-   * try (var conn = DbInfo.getConnection(databaseName)) {
+   * Games used to be stored as Gson JSON in a TEXT column. If the column is still text, turns it
+   * into a BLOB (which keeps the JSON bytes) and re-encodes the rows with {@link ChessGameCodec} in
+   * one transaction. MySQL commits the column change on its own, so rows left as JSON by a failed
+   * migration are still read by {@link dataaccess.database.DatabaseGameDataAccess}.
+   */
+  private static void migrateGames(Connection conn) throws SQLException {
+    int columnType = Types.BLOB;
+    var metaData = conn.getMetaData();
+    try (var columns =
+        metaData.getColumns(
+            conn.getCatalog(),
+            null,
+            storedName(metaData, "games"),
+            storedName(metaData, "chess_game"))) {
+      if (columns.next()) {
+        columnType = columns.getInt("DATA_TYPE");
+      }
+    }
+
+    if (columnType != Types.LONGVARCHAR
+        && columnType != Types.VARCHAR
+        && columnType != Types.CLOB
+        && columnType != Types.LONGNVARCHAR
+        && columnType != Types.NVARCHAR
+        && columnType != Types.NCLOB) {
+      return;
+    }
+
+    conn.setAutoCommit(false);
+    try (var statement = conn.createStatement()) {
+      statement.executeUpdate("ALTER TABLE games MODIFY chess_game BLOB NOT NULL");
+
+      try (var select = conn.prepareStatement("SELECT game_id, chess_game FROM games");
+          var update = conn.prepareStatement("UPDATE games SET chess_game = ? WHERE game_id = ?");
+          var resultSet = select.executeQuery()) {
+        while (resultSet.next()) {
+          var json = new String(resultSet.getBytes("chess_game"), StandardCharsets.UTF_8);
+          var game = ChessGameCodec.decodeJson(json);
+
+          update.setBytes(1, ChessGameCodec.encode(game));
+          update.setInt(2, resultSet.getInt("game_id"));
+          update.addBatch();
+        }
+        update.executeBatch();
+      }
+      conn.commit();
+    } catch (SQLException e) {
+      conn.rollback();
+      throw e;
+    } finally {
+      conn.setAutoCommit(true);
+    }
+  }
+
+  /**
+   * Adds any of {@link #GAME_INDEXES} the games table doesn't have yet. MySQL has no CREATE INDEX
+   * IF NOT EXISTS, so the existing ones are looked up first, ignoring case since H2 keeps names
+   * upper case.
+   */
+  private static void createGameIndexes(Connection conn) throws SQLException {
+    Set<String> existing = new HashSet<>();
+    var metaData = conn.getMetaData();
+    try (var indexes =
+        metaData.getIndexInfo(
+            conn.getCatalog(), null, storedName(metaData, "games"), false, false)) {
+      while (indexes.next()) {
+        String name = indexes.getString("INDEX_NAME");
+        if (name != null) {
+          existing.add(name.toLowerCase(Locale.ROOT));
+        }
+      }
+    }
+
+    try (var statement = conn.createStatement()) {
+      for (var index : GAME_INDEXES.entrySet()) {
+        if (!existing.contains(index.getKey())) {
+          statement.executeUpdate(
+              "CREATE INDEX " + index.getKey() + " ON games (" + index.getValue() + ")");
+        }
+      }
+    }
+  }
+
+  /**
+   * Metadata lookups match names exactly, so an unquoted name has to be given in the case the
+   * database stored it in
+   *
+   * @param name an unquoted table or column name as written in the SQL here
+   * @return the name as the database keeps it
+   */
+  private static String storedName(DatabaseMetaData metaData, String name) throws SQLException {
+    if (metaData.storesUpperCaseIdentifiers()) {
+      return name.toUpperCase(Locale.ROOT);
+    }
+    if (metaData.storesLowerCaseIdentifiers()) {
+      return name.toLowerCase(Locale.ROOT);
+    }
+    return name;
+  }
+
+  /**
+   * Borrows a connection to the database from the pool, with the catalog set based upon the
+   * properties specified in db.properties. Connections to the database should be short-lived, and
+   * you must close the connection when you are done with it, which returns it to the pool. The
+   * easiest way to do that is with a try-with-resource block. <code>
+   * try (var conn = DatabaseManager.getConnection()) {
    * // execute SQL statements.
    * }
    * </code>
    */
   public static Connection getConnection() throws DataAccessException {
     try {
-      var conn = DriverManager.getConnection(connectionUrl, user, password);
-      conn.setCatalog(databaseName);
-      return conn;
+      return pool().getConnection();
     } catch (SQLException e) {
       throw new DataAccessException("ERROR: " + e.getMessage());
     }
   }
+
+  /**
+   * @return the connection pool's counters, all 0 before the first connection is borrowed
+   */
+  public static ConnectionPool.Stats poolStats() {
+    var current = pool;
+    return current == null ? new ConnectionPool.Stats(0, 0, 0, 0, 0, 0, 0, 0) : current.stats();
+  }
+
+  /** The pool is made on first use, once the database it connects to exists */
+  private static ConnectionPool pool() {
+    var current = pool;
+    return current != null ? current : createPool();
+  }
+
+  private static synchronized ConnectionPool createPool() {
+    if (pool == null) {
+      var url = connectionUrl;
+      var catalog = databaseName;
+      var poolUser = user;
+      var poolPassword = password;
+
+      pool =
+          new ConnectionPool(
+              () -> {
+                var conn = DriverManager.getConnection(url, poolUser, poolPassword);
+                conn.setCatalog(catalog);
+                return conn;
+              },
+              poolSettings);
+    }
+    return pool;
+  }
 }
@@ -1,16 +1,47 @@
 package dataaccess;
 
 import java.util.ArrayList;
+import java.util.List;
 import model.GameData;
+import model.GameSummary;
 
 public interface GameDataAccess {
   void clear() throws DataAccessException;
 
   int createNewGame(String gameName) throws DataAccessException;
 
+  /**
+   * Creates many games at once, e.g. every board of a tournament round
+   *
+   * @param gameNames the name of each game
+   * @return the ID of each game, in the same order as the names
+   */
+  int[] createNewGames(List<String> gameNames) throws DataAccessException;
+
   GameData getGame(int gameID) throws DataAccessException;
 
   void joinGame(String playerColor, int gameID, String playerUsername) throws DataAccessException;
 
   ArrayList<GameData> listGames() throws DataAccessException;
+
+  /**
+   * Lists every game without loading its board
+   *
+   * @return the id, name and players of each game
+   */
+  ArrayList<GameSummary> listGameSummaries() throws DataAccessException;
+
+  /**
+   * Lists a page of games with their boards
+   *
+   * @return up to {@code query.limit()} matching games, in game ID order
+   */
+  ArrayList<GameData> listGames(GameQuery query) throws DataAccessException;
+
+  /**
+   * Lists a page of games without loading their boards
+   *
+   * @return up to {@code query.limit()} matching games, in game ID order
+   */
+  ArrayList<GameSummary> listGameSummaries(GameQuery query) throws DataAccessException;
 }
@@ -0,0 +1,50 @@
+package dataaccess;
+
+import model.GameSummary;
+
+/**
+ * One page of games to list, in game ID order. The next page starts after the last game ID of this
+ * one, so a page costs the same however far into the games it is, and games created while paging
+ * don't shift later pages.
+ *
+ * @param afterGameID only games with a larger ID, 0 to start from the first game
+ * @param limit the most games to list
+ * @param openSeatsOnly only games with a seat nobody has taken
+ * @param player only games this user plays in, or null for anyone's
+ * @param namePrefix only games whose name starts with this, or null for any name
+ */
+public record GameQuery(
+    int afterGameID, int limit, boolean openSeatsOnly, String player, String namePrefix) {
+
+  /** How many games a page has when the client doesn't say */
+  public static final int DEFAULT_LIMIT = 100;
+
+  /** The most games a page can have */
+  public static final int MAX_LIMIT = 500;
+
+  /**
+   * @return the first page of every game, {@link #DEFAULT_LIMIT} long
+   */
+  public static GameQuery firstPage() {
+    return new GameQuery(0, DEFAULT_LIMIT, false, null, null);
+  }
+
+  /**
+   * @return the same query with a different page size
+   */
+  public GameQuery withLimit(int limit) {
+    return new GameQuery(afterGameID, limit, openSeatsOnly, player, namePrefix);
+  }
+
+  /**
+   * @return true if the game belongs on this page, ignoring the limit
+   */
+  public boolean matches(GameSummary game) {
+    return game.gameID() > afterGameID
+        && (!openSeatsOnly || game.whiteUsername() == null || game.blackUsername() == null)
+        && (player == null
+            || player.equals(game.whiteUsername())
+            || player.equals(game.blackUsername()))
+        && (namePrefix == null || game.gameName().startsWith(namePrefix));
+  }
+}
@@ -1,19 +1,31 @@
 package dataaccess.database;
 
 import chess.ChessGame;
-import com.google.gson.Gson;
+import chess.ChessGameCodec;
 import dataaccess.DataAccessException;
 import dataaccess.DatabaseManager;
 import dataaccess.GameDataAccess;
+import dataaccess.GameQuery;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 import model.GameData;
+import model.GameSummary;
 
 public class DatabaseGameDataAccess implements GameDataAccess {
 
-  Gson serializer = new Gson();
+  // rows per INSERT, keeping each statement well under MySQL's packet and placeholder limits
+  private static final int INSERT_BATCH_ROWS = 1000;
+
+  private static final String SUMMARY_COLUMNS =
+      "game_id, white_username, black_username, game_name";
 
   @Override
   public void clear() throws DataAccessException {
@@ -27,35 +39,70 @@ public class DatabaseGameDataAccess implements GameDataAccess {
 
   @Override
   public int createNewGame(String gameName) throws DataAccessException {
-    if (!gameName.matches("[^);(]+")) {
-      throw new DataAccessException("Game name does not match expected syntax");
+    return createNewGames(List.of(gameName))[0];
+  }
+
+  /**
+   * Inserts the games {@value #INSERT_BATCH_ROWS} rows to a statement, in one transaction so
+   * either every game is created or none is. The IDs come back with the insert instead of being
+   * looked up by name afterwards.
+   */
+  @Override
+  public int[] createNewGames(List<String> gameNames) throws DataAccessException {
+    for (String gameName : gameNames) {
+      if (!gameName.matches("[^);(]+")) {
+        throw new DataAccessException("Game name does not match expected syntax");
+      }
     }
-    try (var conn = DatabaseManager.getConnection();
-        var preparedStatement =
-            conn.prepareStatement(
-                "INSERT INTO games (white_username, black_username, game_name, chess_game) VALUES (?, ?, ?, ?)")) {
-      ChessGame newGame = new ChessGame();
-      String serializedGame = serializer.toJson(newGame);
-
-      preparedStatement.setString(1, null);
-      preparedStatement.setString(2, null);
-      preparedStatement.setString(3, gameName);
-      preparedStatement.setString(4, serializedGame);
+
+    // every new game is the same starting position
+    byte[] newGame = ChessGameCodec.encode(new ChessGame());
+    int[] gameIDs = new int[gameNames.size()];
+
+    try (var conn = DatabaseManager.getConnection()) {
+      conn.setAutoCommit(false);
+      try {
+        for (int first = 0; first < gameNames.size(); first += INSERT_BATCH_ROWS) {
+          List<String> batch =
+              gameNames.subList(first, Math.min(first + INSERT_BATCH_ROWS, gameNames.size()));
+          insertGames(conn, batch, newGame, gameIDs, first);
+        }
+        conn.commit();
+      } catch (SQLException | DataAccessException e) {
+        conn.rollback();
+        throw e;
+      }
+    } catch (SQLException e) {
+      throw new DataAccessException("ERROR creating game: " + e);
+    }
+    return gameIDs;
+  }
+
+  /** Inserts one multi-row statement's worth of games, writing their IDs from {@code offset} */
+  private static void insertGames(
+      Connection conn, List<String> gameNames, byte[] newGame, int[] gameIDs, int offset)
+      throws SQLException, DataAccessException {
+    String sql =
+        "INSERT INTO games (white_username, black_username, game_name, chess_game) VALUES "
+            + String.join(", ", Collections.nCopies(gameNames.size(), "(NULL, NULL, ?, ?)"));
+
+    try (var preparedStatement = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+      int index = 1;
+      for (String gameName : gameNames) {
+        preparedStatement.setString(index++, gameName);
+        preparedStatement.setBytes(index++, newGame);
+      }
       preparedStatement.executeUpdate();
 
-      try (var preparedStatement2 =
-          conn.prepareStatement("SELECT game_id FROM games WHERE game_name = ?")) {
-        preparedStatement2.setString(1, gameName);
-        try (ResultSet resultSet = preparedStatement2.executeQuery()) {
-          if (resultSet.next()) {
-            return resultSet.getInt("game_id");
+      try (ResultSet keys = preparedStatement.getGeneratedKeys()) {
+        for (int i = 0; i < gameNames.size(); i++) {
+          if (!keys.next()) {
+            throw new DataAccessException("ERROR creating game: no ID was generated");
           }
+          gameIDs[offset + i] = keys.getInt(1);
         }
       }
-    } catch (SQLException e) {
-      throw new DataAccessException("ERROR creating user: " + e);
     }
-    return 0;
   }
 
   @Override
@@ -68,9 +115,7 @@ public class DatabaseGameDataAccess implements GameDataAccess {
           String whiteUsername = result.getString("white_username");
           String blackUsername = result.getString("black_username");
           String gameName = result.getString("game_name");
-          String serializedGame = result.getString("chess_game");
-
-          ChessGame deserializedGame = serializer.fromJson(serializedGame, ChessGame.class);
+          ChessGame deserializedGame = readGame(result.getBytes("chess_game"));
 
           return new GameData(gameID, whiteUsername, blackUsername, gameName, deserializedGame);
         }
@@ -84,16 +129,6 @@ public class DatabaseGameDataAccess implements GameDataAccess {
   @Override
   public void joinGame(String playerColor, int gameID, String playerUsername)
       throws DataAccessException {
-    boolean validID = false;
-    for (GameData game : listGames()) {
-      if (game.gameID() == gameID) {
-        validID = true;
-        break;
-      }
-    }
-    if (!validID) {
-      throw new DataAccessException("Non-existent game!");
-    }
     String sqlString;
     if (Objects.equals(playerColor, "WHITE")) {
       sqlString = "UPDATE games SET white_username = ? WHERE game_id = ?";
@@ -107,7 +142,9 @@ public class DatabaseGameDataAccess implements GameDataAccess {
         var preparedStatement = conn.prepareStatement(sqlString)) {
       preparedStatement.setString(1, playerUsername);
       preparedStatement.setInt(2, gameID);
-      preparedStatement.executeUpdate();
+      if (preparedStatement.executeUpdate() == 0) {
+        throw new DataAccessException("Non-existent game!");
+      }
     } catch (SQLException e) {
       throw new DataAccessException("ERROR joining game " + gameID + ": " + e);
     }
@@ -124,9 +161,7 @@ public class DatabaseGameDataAccess implements GameDataAccess {
           var whiteUsername = resultSet.getString("white_username");
           var blackUsername = resultSet.getString("black_username");
           var gameName = resultSet.getString("game_name");
-          String serializedGame = resultSet.getString("chess_game");
-
-          ChessGame deserializedGame = serializer.fromJson(serializedGame, ChessGame.class);
+          ChessGame deserializedGame = readGame(resultSet.getBytes("chess_game"));
 
           gamesList.add(new GameData(id, whiteUsername, blackUsername, gameName, deserializedGame));
         }
@@ -136,4 +171,120 @@ public class DatabaseGameDataAccess implements GameDataAccess {
     }
     return gamesList;
   }
+
+  @Override
+  public ArrayList<GameSummary> listGameSummaries() throws DataAccessException {
+    ArrayList<GameSummary> summaries = new ArrayList<>();
+    try (var conn = DatabaseManager.getConnection();
+        var preparedStatement = conn.prepareStatement("SELECT " + SUMMARY_COLUMNS + " FROM games");
+        ResultSet resultSet = preparedStatement.executeQuery()) {
+      while (resultSet.next()) {
+        summaries.add(readSummary(resultSet));
+      }
+    } catch (SQLException e) {
+      throw new DataAccessException("ERROR listing games: " + e);
+    }
+    return summaries;
+  }
+
+  @Override
+  public ArrayList<GameData> listGames(GameQuery query) throws DataAccessException {
+    ArrayList<GameData> page = new ArrayList<>();
+    try (var conn = DatabaseManager.getConnection();
+        var preparedStatement = conn.prepareStatement(pageSql("*", query))) {
+      setPageParameters(preparedStatement, query);
+      try (ResultSet resultSet = preparedStatement.executeQuery()) {
+        while (resultSet.next()) {
+          GameSummary summary = readSummary(resultSet);
+          page.add(
+              new GameData(
+                  summary.gameID(),
+                  summary.whiteUsername(),
+                  summary.blackUsername(),
+                  summary.gameName(),
+                  readGame(resultSet.getBytes("chess_game"))));
+        }
+      }
+    } catch (SQLException e) {
+      throw new DataAccessException("ERROR listing games: " + e);
+    }
+    return page;
+  }
+
+  @Override
+  public ArrayList<GameSummary> listGameSummaries(GameQuery query) throws DataAccessException {
+    ArrayList<GameSummary> page = new ArrayList<>();
+    try (var conn = DatabaseManager.getConnection();
+        var preparedStatement = conn.prepareStatement(pageSql(SUMMARY_COLUMNS, query))) {
+      setPageParameters(preparedStatement, query);
+      try (ResultSet resultSet = preparedStatement.executeQuery()) {
+        while (resultSet.next()) {
+          page.add(readSummary(resultSet));
+        }
+      }
+    } catch (SQLException e) {
+      throw new DataAccessException("ERROR listing games: " + e);
+    }
+    return page;
+  }
+
+  /**
+   * Builds the query for a page. Each filter is a range or lookup on an index from
+   * {@link DatabaseManager#createTables()}, and starting after the last game ID instead of at an
+   * OFFSET means earlier pages are never read again.
+   */
+  private static String pageSql(String columns, GameQuery query) {
+    StringBuilder sql =
+        new StringBuilder("SELECT ").append(columns).append(" FROM games WHERE game_id > ?");
+    if (query.openSeatsOnly()) {
+      sql.append(" AND (white_username IS NULL OR black_username IS NULL)");
+    }
+    if (query.player() != null) {
+      sql.append(" AND (white_username = ? OR black_username = ?)");
+    }
+    if (query.namePrefix() != null) {
+      sql.append(" AND game_name LIKE ? ESCAPE '!'");
+    }
+    return sql.append(" ORDER BY game_id LIMIT ?").toString();
+  }
+
+  /** Fills in the parameters of {@link #pageSql(String, GameQuery)} in the same order */
+  private static void setPageParameters(PreparedStatement preparedStatement, GameQuery query)
+      throws SQLException {
+    int index = 1;
+    preparedStatement.setInt(index++, query.afterGameID());
+    if (query.player() != null) {
+      preparedStatement.setString(index++, query.player());
+      preparedStatement.setString(index++, query.player());
+    }
+    if (query.namePrefix() != null) {
+      String escaped = query.namePrefix().replaceAll("[!%_]", "!$0");
+      preparedStatement.setString(index++, escaped + "%");
+    }
+    preparedStatement.setInt(index, query.limit());
+  }
+
+  private static GameSummary readSummary(ResultSet resultSet) throws SQLException {
+    return new GameSummary(
+        resultSet.getInt("game_id"),
+        resultSet.getString("white_username"),
+        resultSet.getString("black_username"),
+        resultSet.getString("game_name"));
+  }
+
+  /**
+   * Decodes a stored game, falling back to JSON for rows written before games were stored with
+   * {@link ChessGameCodec}
+   */
+  private ChessGame readGame(byte[] storedGame) throws DataAccessException {
+    if (storedGame.length > 0 && storedGame[0] == '{') {
+      return ChessGameCodec.decodeJson(new String(storedGame, StandardCharsets.UTF_8));
+    }
+
+    try {
+      return ChessGameCodec.decode(storedGame);
+    } catch (IllegalArgumentException e) {
+      throw new DataAccessException("ERROR reading game: " + e.getMessage());
+    }
+  }
 }
@@ -3,13 +3,15 @@ package dataaccess.memory;
 import chess.ChessGame;
 import dataaccess.DataAccessException;
 import dataaccess.GameDataAccess;
+import dataaccess.GameQuery;
 import java.util.*;
 import model.GameData;
+import model.GameSummary;
 
 public class MemoryGameDataAccess implements GameDataAccess {
 
-  // id and GameData
-  Map<Integer, GameData> games = new HashMap<>();
+  // id and GameData, in id order
+  NavigableMap<Integer, GameData> games = new TreeMap<>();
   int currentId = 0;
 
   @Override
@@ -24,6 +26,15 @@ public class MemoryGameDataAccess implements GameDataAccess {
     return currentId;
   }
 
+  @Override
+  public int[] createNewGames(List<String> gameNames) {
+    int[] gameIDs = new int[gameNames.size()];
+    for (int i = 0; i < gameIDs.length; i++) {
+      gameIDs[i] = createNewGame(gameNames.get(i));
+    }
+    return gameIDs;
+  }
+
   @Override
   public GameData getGame(int gameID) {
     return games.get(gameID);
@@ -48,4 +59,41 @@ public class MemoryGameDataAccess implements GameDataAccess {
   public ArrayList<GameData> listGames() {
     return new ArrayList<>(games.values());
   }
+
+  @Override
+  public ArrayList<GameSummary> listGameSummaries() {
+    ArrayList<GameSummary> summaries = new ArrayList<>();
+    for (GameData game : games.values()) {
+      summaries.add(summarize(game));
+    }
+    return summaries;
+  }
+
+  @Override
+  public ArrayList<GameData> listGames(GameQuery query) {
+    ArrayList<GameData> page = new ArrayList<>();
+    for (GameData game : games.tailMap(query.afterGameID(), false).values()) {
+      if (page.size() == query.limit()) {
+        break;
+      }
+      if (query.matches(summarize(game))) {
+        page.add(game);
+      }
+    }
+    return page;
+  }
+
+  @Override
+  public ArrayList<GameSummary> listGameSummaries(GameQuery query) {
+    ArrayList<GameSummary> page = new ArrayList<>();
+    for (GameData game : listGames(query)) {
+      page.add(summarize(game));
+    }
+    return page;
+  }
+
+  private static GameSummary summarize(GameData game) {
+    return new GameSummary(
+        game.gameID(), game.whiteUsername(), game.blackUsername(), game.gameName());
+  }
 }
@@ -1,14 +1,38 @@
 package server;
 
+import chess.ChessGame;
+import chess.LegalMoveCache;
+import chess.Tablebase;
 import dataaccess.DatabaseManager;
 import io.javalin.Javalin;
 import io.javalin.json.JavalinGson;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import server.websocket.WebSocketHandler;
 
 public class Server {
+  // (position, square) entries shared by every game the server loads
+  private static final int MOVE_CACHE_ENTRIES = 65_536;
+
+  // tablebase files in ./tablebases, or wherever -Dchess.tablebases points
+  private static final Path TABLEBASE_DIRECTORY =
+      Path.of(System.getProperty("chess.tablebases", "tablebases"));
+  // 64 KB each
+  private static final int TABLEBASE_CACHED_BLOCKS = 256;
+
   private final Javalin javalin;
 
   public Server() {
+    ChessGame.setMoveCache(
+        new LegalMoveCache(MOVE_CACHE_ENTRIES, LegalMoveCache.EvictionPolicy.LEAST_RECENTLY_USED));
+
+    if (Files.isDirectory(TABLEBASE_DIRECTORY)) {
+      try {
+        ChessGame.setTablebase(Tablebase.open(TABLEBASE_DIRECTORY, TABLEBASE_CACHED_BLOCKS));
+      } catch (Exception e) {
+        System.out.println("Error opening tablebases: " + e);
+      }
+    }
 
     try {
       DatabaseManager.createDatabase();
@@ -26,8 +50,11 @@ public class Server {
             .post("/user", ServerHandler::registerUser)
             .post("/session", ServerHandler::loginUser)
             .post("/game", ServerHandler::createGame)
+            .post("/games", ServerHandler::createGames)
             .put("/game", ServerHandler::joinGame)
             .get("/game", ServerHandler::listGames)
+            .get("/game/{id}/analysis", ServerHandler::analyzeGame)
+            .get("/game/{id}/hint", ServerHandler::hintGame)
             .delete("/session", ServerHandler::logoutUser)
             .delete("/db", ServerHandler::clearDatabase)
             .ws("ws", ws -> {
@@ -1,18 +1,28 @@
 package server;
 
+import chess.OpeningBook;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import dataaccess.DataAccessException;
+import dataaccess.GameQuery;
 import dataaccess.database.DatabaseAuthDataAccess;
 import dataaccess.database.DatabaseGameDataAccess;
 import dataaccess.database.DatabaseUserDataAccess;
 import io.javalin.http.Context;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import model.*;
+import service.AnalysisService;
 import service.GameService;
+import service.HintService;
 import service.UserService;
 
 public class ServerHandler {
@@ -27,6 +37,42 @@ public class ServerHandler {
   private static final UserService USER_SERVICE =
       new UserService(USER_DATA_ACCESS, AUTH_DATA_ACCESS);
 
+  // half the cores search, the rest stay free for the game routes
+  private static final int ANALYSIS_ENGINES =
+      Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+  private static final int ANALYSIS_QUEUE = 16;
+  private static final int ANALYSIS_TABLE_MEGABYTES = 64;
+  private static final AnalysisService ANALYSIS_SERVICE =
+      new AnalysisService(
+          GAME_DATA_ACCESS,
+          AUTH_DATA_ACCESS,
+          ANALYSIS_ENGINES,
+          ANALYSIS_QUEUE,
+          ANALYSIS_TABLE_MEGABYTES);
+
+  // a book file next to the server, or wherever -Dchess.openingBook points
+  private static final Path OPENING_BOOK_PATH =
+      Path.of(System.getProperty("chess.openingBook", "book.bin"));
+  private static final HintService HINT_SERVICE =
+      new HintService(
+          GAME_DATA_ACCESS,
+          AUTH_DATA_ACCESS,
+          openOpeningBook(OPENING_BOOK_PATH),
+          ANALYSIS_SERVICE);
+
+  private static OpeningBook openOpeningBook(Path path) {
+    if (!Files.exists(path)) {
+      return OpeningBook.EMPTY;
+    }
+
+    try {
+      return OpeningBook.open(path);
+    } catch (IOException e) {
+      System.out.println("Error opening opening book: " + e);
+      return OpeningBook.EMPTY;
+    }
+  }
+
   private static void showErrors(Context ctx, Exception e) {
     if (e.getMessage().equals("unauthorized")) {
       ctx.status(401);
@@ -152,6 +198,42 @@ public class ServerHandler {
     }
   }
 
+  /**
+   * Creates a batch of games from {@code {"gameNames": [...]}}, e.g. every board of a tournament
+   * round
+   *
+   * @return the new games' IDs, in the same order as the names
+   */
+  public static void createGames(Context ctx) {
+    try {
+      ctx.contentType("application/json; charset=utf-8");
+      String authToken = ctx.header("Authorization");
+
+      List<String> gameNames = new ArrayList<>();
+      try {
+        JsonObject jsonObject = JsonParser.parseString(ctx.body()).getAsJsonObject();
+        for (JsonElement gameName : jsonObject.getAsJsonArray("gameNames")) {
+          gameNames.add(gameName.getAsString());
+        }
+      } catch (RuntimeException e) {
+        throw new DataAccessException("bad request");
+      }
+
+      int[] ids = GAME_SERVICE.createGames(new CreateGamesRequest(authToken, gameNames));
+      ctx.json(Map.of("gameIDs", ids));
+    } catch (DataAccessException e) {
+      if (e.getMessage().startsWith("ERROR")) {
+        ctx.status(500);
+      } else {
+        showErrors(ctx, e);
+      }
+      ctx.json(Map.of("message", "Error: " + e.getMessage()));
+    } catch (Exception e) {
+      ctx.status(500);
+      ctx.json(Map.of("message", "Error: " + e.getMessage()));
+    }
+  }
+
   public static void joinGame(Context ctx) {
     try {
       ctx.contentType("application/json");
@@ -189,20 +271,45 @@ public class ServerHandler {
     }
   }
 
+  /**
+   * Lists a page of games for the lobby, {@value GameQuery#DEFAULT_LIMIT} unless {@code ?limit=}
+   * says otherwise. {@code ?after=} continues from the {@code next} of the previous page, and
+   * {@code ?openSeats=true}, {@code ?player=} and {@code ?namePrefix=} narrow the list. Boards are
+   * left out unless asked for with {@code ?includeBoards=true}, so the response stays small
+   * however far the games have got.
+   */
   public static void listGames(Context ctx) {
     try {
       ctx.contentType("application/json");
       String authToken = ctx.header("Authorization");
 
-      ArrayList<GameData> games = GAME_SERVICE.listGames(authToken);
+      GameQuery query;
+      try {
+        String after = ctx.queryParam("after");
+        String limit = ctx.queryParam("limit");
+        query =
+            new GameQuery(
+                after == null ? 0 : Integer.parseInt(after),
+                limit == null ? GameQuery.DEFAULT_LIMIT : Integer.parseInt(limit),
+                Boolean.parseBoolean(ctx.queryParam("openSeats")),
+                ctx.queryParam("player"),
+                ctx.queryParam("namePrefix"));
+      } catch (NumberFormatException e) {
+        throw new DataAccessException("bad request");
+      }
+
+      GamePage<?> page =
+          Boolean.parseBoolean(ctx.queryParam("includeBoards"))
+              ? GAME_SERVICE.listGames(authToken, query)
+              : GAME_SERVICE.listGameSummaries(authToken, query);
 
       ctx.status(200);
-      ctx.json(Map.of("games", games));
+      ctx.json(page);
     } catch (DataAccessException e) {
       if (e.getMessage().startsWith("ERROR")) {
         ctx.status(500);
       } else {
-        ctx.status(401);
+        showErrors(ctx, e);
       }
       ctx.json(Map.of("message", "Error: " + e.getMessage()));
     } catch (Exception e) {
@@ -211,6 +318,99 @@ public class ServerHandler {
     }
   }
 
+  /**
+   * Searches a stored game's position on an engine thread, so the request thread is free while
+   * the search runs
+   *
+   * @return best move, score and principal variation, or an error (503 when the engines are busy)
+   */
+  public static void analyzeGame(Context ctx) {
+    try {
+      ctx.contentType("application/json");
+      String authToken = ctx.header("Authorization");
+
+      int gameID;
+      long millis;
+      try {
+        gameID = Integer.parseInt(ctx.pathParam("id"));
+        String millisParam = ctx.queryParam("millis");
+        millis =
+            millisParam == null ? AnalysisService.DEFAULT_MILLIS : Long.parseLong(millisParam);
+      } catch (NumberFormatException e) {
+        throw new DataAccessException("bad request");
+      }
+
+      CompletableFuture<AnalysisResult> analysis =
+          ANALYSIS_SERVICE.analyze(authToken, gameID, millis);
+
+      respondLater(ctx, analysis);
+    } catch (DataAccessException e) {
+      if (e.getMessage().startsWith("ERROR")) {
+        ctx.status(500);
+      } else if (e.getMessage().equals("server busy")) {
+        ctx.status(503);
+      } else {
+        showErrors(ctx, e);
+      }
+      ctx.json(Map.of("message", "Error: " + e.getMessage()));
+    } catch (Exception e) {
+      ctx.status(500);
+      ctx.json(Map.of("message", "Error: " + e.getMessage()));
+    }
+  }
+
+  /**
+   * Suggests a move, from the opening book when the position is in it and from a short engine
+   * search otherwise
+   *
+   * @return the move and where it came from, or an error (503 when the engines are busy)
+   */
+  public static void hintGame(Context ctx) {
+    try {
+      ctx.contentType("application/json");
+      String authToken = ctx.header("Authorization");
+
+      int gameID;
+      try {
+        gameID = Integer.parseInt(ctx.pathParam("id"));
+      } catch (NumberFormatException e) {
+        throw new DataAccessException("bad request");
+      }
+
+      respondLater(ctx, HINT_SERVICE.hint(authToken, gameID));
+    } catch (DataAccessException e) {
+      if (e.getMessage().startsWith("ERROR")) {
+        ctx.status(500);
+      } else if (e.getMessage().equals("server busy")) {
+        ctx.status(503);
+      } else {
+        showErrors(ctx, e);
+      }
+      ctx.json(Map.of("message", "Error: " + e.getMessage()));
+    } catch (Exception e) {
+      ctx.status(500);
+      ctx.json(Map.of("message", "Error: " + e.getMessage()));
+    }
+  }
+
+  /** Lets Javalin send the response once the engine is done, without holding the request thread */
+  private static void respondLater(Context ctx, CompletableFuture<?> response) {
+    ctx.future(
+        () ->
+            response
+                .thenAccept(
+                    result -> {
+                      ctx.status(200);
+                      ctx.json(result);
+                    })
+                .exceptionally(
+                    e -> {
+                      ctx.status(500);
+                      ctx.json(Map.of("message", "Error: " + e.getMessage()));
+                      return null;
+                    }));
+  }
+
   /**
    * Clears entire database
    *
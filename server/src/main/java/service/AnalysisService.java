@@ -0,0 +1,160 @@
+package service;
+
+import chess.ChessGame;
+import chess.Search;
+import chess.SearchLimits;
+import chess.SearchResult;
+import chess.TranspositionTable;
+import dataaccess.AuthDataAccess;
+import dataaccess.DataAccessException;
+import dataaccess.GameDataAccess;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import model.AnalysisResult;
+import model.AuthData;
+import model.GameData;
+
+/**
+ * Runs the engine on stored games.
+ *
+ * <p>Searches run on a fixed number of engine threads with a bounded queue in front of them, and a
+ * request that finds the queue full is turned away with "server busy" instead of waiting. Every
+ * search is also cut off after at most {@link #MAX_MILLIS}, so however many people ask for analysis
+ * the threads serving the other routes are never the ones doing the searching.
+ */
+public class AnalysisService implements AutoCloseable {
+
+  /** How long a search runs when the caller doesn't say */
+  public static final long DEFAULT_MILLIS = 1000;
+
+  /** The longest any one search may run */
+  public static final long MAX_MILLIS = 5000;
+
+  private static final AtomicInteger ENGINE_NUMBER = new AtomicInteger();
+
+  private final GameDataAccess gameDataAccess;
+  private final AuthDataAccess authDataAccess;
+  private final ThreadPoolExecutor engines;
+
+  // every engine thread keeps its own search, they all share one table
+  private final ThreadLocal<Search> searches;
+
+  /**
+   * @param engines how many searches may run at once
+   * @param queueCapacity how many requests may wait for an engine, 0 to turn away anything that
+   *     can't start straight away
+   * @param tableMegabytes memory for the transposition table the engines share
+   */
+  public AnalysisService(
+      GameDataAccess gameDataAccess,
+      AuthDataAccess authDataAccess,
+      int engines,
+      int queueCapacity,
+      int tableMegabytes) {
+    if (engines < 1 || queueCapacity < 0) {
+      throw new IllegalArgumentException("Analysis needs at least one engine");
+    }
+
+    this.gameDataAccess = gameDataAccess;
+    this.authDataAccess = authDataAccess;
+
+    final TranspositionTable table = TranspositionTable.ofMegabytes(tableMegabytes);
+    searches = ThreadLocal.withInitial(() -> new Search(table));
+
+    final BlockingQueue<Runnable> queue =
+        queueCapacity == 0 ? new SynchronousQueue<>() : new ArrayBlockingQueue<>(queueCapacity);
+
+    this.engines =
+        new ThreadPoolExecutor(
+            engines,
+            engines,
+            0,
+            TimeUnit.MILLISECONDS,
+            queue,
+            task -> {
+              final Thread engine =
+                  new Thread(task, "analysis-engine-" + ENGINE_NUMBER.incrementAndGet());
+              engine.setDaemon(true);
+              return engine;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  /**
+   * Checks the request and queues a search of the game's current position.
+   *
+   * @param millis how long to search, clamped to between 1 and {@link #MAX_MILLIS}
+   * @return the analysis, completed on an engine thread once the search stops
+   * @throws DataAccessException "unauthorized" for a bad token, "bad request" for a game that
+   *     doesn't exist and "server busy" when every engine and queue slot is taken
+   */
+  public CompletableFuture<AnalysisResult> analyze(String authToken, int gameID, long millis)
+      throws DataAccessException {
+    if (authToken == null || authToken.isEmpty()) {
+      throw new DataAccessException("unauthorized");
+    }
+
+    AuthData authData = authDataAccess.getAuthData(authToken);
+
+    if (authData == null) {
+      throw new DataAccessException("unauthorized");
+    }
+
+    GameData gameData = gameDataAccess.getGame(gameID);
+
+    if (gameData == null || gameData.game() == null) {
+      throw new DataAccessException("bad request");
+    }
+
+    return analyze(gameData.game(), millis);
+  }
+
+  /**
+   * Queues a search of a game that has already been looked up.
+   *
+   * @param game the position to search, which must not change until the search is done
+   * @param millis how long to search, clamped to between 1 and {@link #MAX_MILLIS}
+   * @return the analysis, completed on an engine thread once the search stops
+   * @throws DataAccessException "server busy" when every engine and queue slot is taken
+   */
+  public CompletableFuture<AnalysisResult> analyze(ChessGame game, long millis)
+      throws DataAccessException {
+    final SearchLimits limits = SearchLimits.millis(Math.clamp(millis, 1, MAX_MILLIS));
+
+    try {
+      return CompletableFuture.supplyAsync(() -> analyze(game, limits), engines);
+    } catch (RejectedExecutionException e) {
+      throw new DataAccessException("server busy");
+    }
+  }
+
+  /**
+   * @return how many requests are waiting for an engine
+   */
+  public int queued() {
+    return engines.getQueue().size();
+  }
+
+  @Override
+  public void close() {
+    engines.shutdownNow();
+  }
+
+  private AnalysisResult analyze(ChessGame game, SearchLimits limits) {
+    final SearchResult result = searches.get().search(game, limits);
+
+    return new AnalysisResult(
+        result.bestMove(),
+        result.score(),
+        result.isMate(),
+        result.depth(),
+        result.nodes(),
+        result.principalVariation());
+  }
+}
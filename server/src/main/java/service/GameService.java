@@ -3,15 +3,24 @@ package service;
 import dataaccess.AuthDataAccess;
 import dataaccess.DataAccessException;
 import dataaccess.GameDataAccess;
+import dataaccess.GameQuery;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.function.ToIntFunction;
 import model.AuthData;
 import model.CreateGameRequest;
+import model.CreateGamesRequest;
 import model.GameData;
+import model.GamePage;
+import model.GameSummary;
 import model.JoinGameRequest;
 
 public class GameService {
 
+  /** The most games {@link #createGames(CreateGamesRequest)} creates at once */
+  public static final int MAX_GAMES_PER_REQUEST = 10000;
+
   private final GameDataAccess gameDataAccess;
   private final AuthDataAccess authDataAccess;
 
@@ -40,6 +49,25 @@ public class GameService {
     return gameDataAccess.createNewGame(createGameRequest.gameName());
   }
 
+  /**
+   * Creates many games in one go, e.g. a tournament round
+   *
+   * @return the ID of each game, in the same order as the names
+   */
+  public int[] createGames(CreateGamesRequest createGamesRequest) throws DataAccessException {
+    if (createGamesRequest == null
+        || createGamesRequest.gameNames() == null
+        || createGamesRequest.gameNames().isEmpty()
+        || createGamesRequest.gameNames().size() > MAX_GAMES_PER_REQUEST
+        || createGamesRequest.gameNames().stream()
+            .anyMatch(name -> name == null || name.isEmpty())) {
+      throw new DataAccessException("bad request");
+    }
+
+    checkAuthorized(createGamesRequest.authToken());
+    return gameDataAccess.createNewGames(createGamesRequest.gameNames());
+  }
+
   public GameData getGame(int gameID) throws DataAccessException {
     return gameDataAccess.getGame(gameID);
   }
@@ -79,7 +107,73 @@ public class GameService {
         joinGameRequest.playerColor(), joinGameRequest.gameID(), playerUsername);
   }
 
+  /**
+   * Lists every game with its board. Prefer {@link #listGameSummaries(String)} unless the boards
+   * are needed, this costs a board's worth of reading per game.
+   */
   public ArrayList<GameData> listGames(String authToken) throws DataAccessException {
+    checkAuthorized(authToken);
+    return gameDataAccess.listGames();
+  }
+
+  /** Lists every game's id, name and players, without loading any boards */
+  public ArrayList<GameSummary> listGameSummaries(String authToken) throws DataAccessException {
+    checkAuthorized(authToken);
+    return gameDataAccess.listGameSummaries();
+  }
+
+  /**
+   * Lists one page of games with their boards
+   *
+   * @return the page, with where the next one starts if there are more
+   */
+  public GamePage<GameData> listGames(String authToken, GameQuery query)
+      throws DataAccessException {
+    checkAuthorized(authToken);
+    checkQuery(query);
+    return page(
+        gameDataAccess.listGames(query.withLimit(query.limit() + 1)), query, GameData::gameID);
+  }
+
+  /**
+   * Lists one page of games' ids, names and players, without loading any boards
+   *
+   * @return the page, with where the next one starts if there are more
+   */
+  public GamePage<GameSummary> listGameSummaries(String authToken, GameQuery query)
+      throws DataAccessException {
+    checkAuthorized(authToken);
+    checkQuery(query);
+    return page(
+        gameDataAccess.listGameSummaries(query.withLimit(query.limit() + 1)),
+        query,
+        GameSummary::gameID);
+  }
+
+  private void checkQuery(GameQuery query) throws DataAccessException {
+    if (query == null
+        || query.afterGameID() < 0
+        || query.limit() < 1
+        || query.limit() > GameQuery.MAX_LIMIT
+        || Objects.equals(query.player(), "")
+        || Objects.equals(query.namePrefix(), "")) {
+      throw new DataAccessException("bad request");
+    }
+  }
+
+  /**
+   * Trims games fetched one past the limit back to the limit. The extra game only shows there is
+   * another page, which then starts after the last game kept.
+   */
+  private static <T> GamePage<T> page(List<T> games, GameQuery query, ToIntFunction<T> gameID) {
+    if (games.size() <= query.limit()) {
+      return new GamePage<>(games, null);
+    }
+    List<T> kept = games.subList(0, query.limit());
+    return new GamePage<>(new ArrayList<>(kept), gameID.applyAsInt(kept.get(kept.size() - 1)));
+  }
+
+  private void checkAuthorized(String authToken) throws DataAccessException {
     if (authToken == null || authToken.isEmpty()) {
       throw new DataAccessException("unauthorized");
     }
@@ -89,7 +183,5 @@ public class GameService {
     if (authData == null) {
       throw new DataAccessException("unauthorized");
     }
-
-    return gameDataAccess.listGames();
   }
 }
@@ -0,0 +1,81 @@
+package service;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.OpeningBook;
+import chess.Tablebase;
+import dataaccess.AuthDataAccess;
+import dataaccess.DataAccessException;
+import dataaccess.GameDataAccess;
+import java.util.concurrent.CompletableFuture;
+import model.AuthData;
+import model.GameData;
+import model.Hint;
+
+/**
+ * Suggests a move for a stored game. Endgames the tablebase covers get its exact best move and
+ * opening positions are answered from the opening book, both on the calling thread; anything else
+ * is handed to the engine for a short search.
+ */
+public class HintService {
+
+  /** How long the engine searches when the book has nothing */
+  public static final long ENGINE_MILLIS = 250;
+
+  private final GameDataAccess gameDataAccess;
+  private final AuthDataAccess authDataAccess;
+  private final OpeningBook openingBook;
+  private final AnalysisService analysisService;
+
+  public HintService(
+      GameDataAccess gameDataAccess,
+      AuthDataAccess authDataAccess,
+      OpeningBook openingBook,
+      AnalysisService analysisService) {
+    this.gameDataAccess = gameDataAccess;
+    this.authDataAccess = authDataAccess;
+    this.openingBook = openingBook;
+    this.analysisService = analysisService;
+  }
+
+  /**
+   * @return the hint, already complete when it came from the book
+   * @throws DataAccessException "unauthorized" for a bad token, "bad request" for a game that
+   *     doesn't exist and "server busy" when the position needs the engine and it has no room
+   */
+  public CompletableFuture<Hint> hint(String authToken, int gameID) throws DataAccessException {
+    if (authToken == null || authToken.isEmpty()) {
+      throw new DataAccessException("unauthorized");
+    }
+
+    AuthData authData = authDataAccess.getAuthData(authToken);
+
+    if (authData == null) {
+      throw new DataAccessException("unauthorized");
+    }
+
+    GameData gameData = gameDataAccess.getGame(gameID);
+
+    if (gameData == null || gameData.game() == null) {
+      throw new DataAccessException("bad request");
+    }
+
+    ChessGame game = gameData.game();
+    Tablebase tablebase = ChessGame.getTablebase();
+    ChessMove tablebaseMove = tablebase == null ? null : tablebase.bestMove(game);
+
+    if (tablebaseMove != null) {
+      return CompletableFuture.completedFuture(new Hint(tablebaseMove, "tablebase"));
+    }
+
+    ChessMove bookMove = openingBook.bestMove(game);
+
+    if (bookMove != null) {
+      return CompletableFuture.completedFuture(new Hint(bookMove, "book"));
+    }
+
+    return analysisService
+        .analyze(game, ENGINE_MILLIS)
+        .thenApply(result -> new Hint(result.bestMove(), "engine"));
+  }
+}
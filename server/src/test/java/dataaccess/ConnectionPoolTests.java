@@ -0,0 +1,165 @@
+package dataaccess;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class ConnectionPoolTests {
+
+  // the housekeeper opens connections too
+  private final List<AtomicBoolean> opened = Collections.synchronizedList(new ArrayList<>());
+  private ConnectionPool pool;
+
+  /** A stand-in connection that only knows whether it has been closed and its session settings */
+  private Connection fakeConnection() {
+    AtomicBoolean closed = new AtomicBoolean();
+    opened.add(closed);
+    Object[] catalog = {"chess"};
+    boolean[] readOnly = {false};
+    int[] isolation = {Connection.TRANSACTION_REPEATABLE_READ};
+
+    return (Connection) Proxy.newProxyInstance(
+      Connection.class.getClassLoader(),
+      new Class<?>[] {Connection.class},
+      (proxy, method, args) -> switch (method.getName()) {
+        case "close" -> {
+          closed.set(true);
+          yield null;
+        }
+        case "isClosed" -> closed.get();
+        case "isValid", "getAutoCommit" -> !closed.get();
+        case "getCatalog" -> catalog[0];
+        case "setCatalog" -> catalog[0] = args[0];
+        case "isReadOnly" -> readOnly[0];
+        case "setReadOnly" -> readOnly[0] = (Boolean) args[0];
+        case "getTransactionIsolation" -> isolation[0];
+        case "setTransactionIsolation" -> isolation[0] = (Integer) args[0];
+        default -> null;
+      }
+    );
+  }
+
+  private ConnectionPool pool(int maxSize, long connectionTimeoutMillis) {
+    return pool(maxSize, 0, connectionTimeoutMillis);
+  }
+
+  private ConnectionPool pool(int maxSize, int minIdle, long connectionTimeoutMillis) {
+    pool = new ConnectionPool(
+      this::fakeConnection,
+      new ConnectionPool.Settings(maxSize, minIdle, 60_000, connectionTimeoutMillis, 1, 0)
+    );
+    return pool;
+  }
+
+  @AfterEach
+  void close() {
+    pool.close();
+  }
+
+  @Test
+  void reusesConnections() throws SQLException {
+    pool(2, 100);
+
+    for (int i = 0; i < 5; i++) {
+      try (Connection conn = pool.getConnection()) {
+        assertFalse(conn.isClosed());
+      }
+    }
+
+    assertEquals(1, opened.size());
+    assertEquals(1, pool.stats().idle());
+    assertEquals(0, pool.stats().borrowed());
+  }
+
+  @Test
+  void closedHandleCannotBeUsed() throws SQLException {
+    pool(1, 100);
+
+    Connection first = pool.getConnection();
+    first.close();
+    Connection second = pool.getConnection();
+
+    assertTrue(first.isClosed());
+    assertThrows(SQLException.class, first::createStatement);
+    assertFalse(second.isClosed());
+    second.close();
+  }
+
+  @Test
+  void waitsThenTimesOutWhenFull() throws SQLException {
+    pool(2, 50);
+
+    Connection first = pool.getConnection();
+    Connection second = pool.getConnection();
+
+    assertThrows(SQLException.class, pool::getConnection);
+    assertEquals(1, pool.stats().timeouts());
+    assertEquals(2, pool.stats().borrowed());
+
+    first.close();
+    try (Connection third = pool.getConnection()) {
+      assertFalse(third.isClosed());
+    }
+    second.close();
+    assertEquals(2, opened.size());
+  }
+
+  @Test
+  void closingPoolClosesIdleConnections() throws SQLException {
+    pool(2, 100);
+
+    Connection borrowed = pool.getConnection();
+    pool.getConnection().close();
+    pool.close();
+
+    assertTrue(opened.get(1).get());
+    assertFalse(opened.get(0).get());
+
+    borrowed.close();
+    assertTrue(opened.get(0).get());
+    assertThrows(SQLException.class, pool::getConnection);
+  }
+
+  @Test
+  void returnedConnectionGetsItsSettingsBack() throws SQLException {
+    pool(1, 100);
+
+    try (Connection conn = pool.getConnection()) {
+      conn.setCatalog("other");
+      conn.setReadOnly(true);
+      conn.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+    }
+
+    try (Connection conn = pool.getConnection()) {
+      assertEquals("chess", conn.getCatalog());
+      assertFalse(conn.isReadOnly());
+      assertEquals(Connection.TRANSACTION_REPEATABLE_READ, conn.getTransactionIsolation());
+    }
+    assertEquals(1, opened.size());
+  }
+
+  @Test
+  void opensMinIdleConnectionsUpFront() throws Exception {
+    pool(3, 2, 100);
+
+    for (int i = 0; i < 100 && pool.stats().idle() < 2; i++) {
+      Thread.sleep(10);
+    }
+
+    assertEquals(2, pool.stats().idle());
+    assertEquals(2, pool.stats().created());
+    try (Connection first = pool.getConnection(); Connection second = pool.getConnection()) {
+      assertFalse(first.isClosed());
+      assertFalse(second.isClosed());
+    }
+    assertEquals(2, opened.size());
+  }
+}
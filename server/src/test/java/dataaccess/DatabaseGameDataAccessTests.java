@@ -2,8 +2,15 @@ package dataaccess;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPosition;
+import com.google.gson.Gson;
 import dataaccess.database.DatabaseGameDataAccess;
 import dataaccess.database.DatabaseUserDataAccess;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
 import model.UserData;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -49,6 +56,29 @@ public class DatabaseGameDataAccessTests {
     assertEquals(2, databaseGameDataAccess.listGames().size());
   }
 
+  @Test
+  void createNewGames() throws DataAccessException {
+    int[] gameIDs = databaseGameDataAccess.createNewGames(
+      Collections.nCopies(2500, "gameOne")
+    );
+
+    assertEquals(2500, gameIDs.length);
+    assertNotEquals(gameID, gameIDs[0]);
+    for (int i = 1; i < gameIDs.length; i++) {
+      assertTrue(gameIDs[i] > gameIDs[i - 1]);
+    }
+    assertEquals("gameOne", databaseGameDataAccess.getGame(gameIDs[2499]).gameName());
+    assertEquals(2501, databaseGameDataAccess.listGameSummaries().size());
+  }
+
+  @Test
+  void createNewGamesFail() throws DataAccessException {
+    assertThrows(DataAccessException.class, () ->
+      databaseGameDataAccess.createNewGames(List.of("fine", "bad );"))
+    );
+    assertEquals(1, databaseGameDataAccess.listGameSummaries().size());
+  }
+
   @Test
   void createNewGameFail() {
     assertThrows(DataAccessException.class, () ->
@@ -96,4 +126,97 @@ public class DatabaseGameDataAccessTests {
       databaseGameDataAccess.listGames().getLast().gameName()
     );
   }
+
+  @Test
+  void listGameSummaries() throws DataAccessException {
+    databaseGameDataAccess.joinGame("BLACK", gameID, "Player2");
+
+    var summaries = databaseGameDataAccess.listGameSummaries();
+
+    assertEquals(1, summaries.size());
+    assertEquals("gameOne", summaries.getFirst().gameName());
+    assertEquals("Player2", summaries.getFirst().blackUsername());
+    assertNull(summaries.getFirst().whiteUsername());
+  }
+
+  @Test
+  void listGameSummariesFiltered() throws DataAccessException {
+    int secondID = databaseGameDataAccess.createNewGame("gameTwo");
+    int thirdID = databaseGameDataAccess.createNewGame("other_game");
+    databaseGameDataAccess.joinGame("WHITE", gameID, "Player1");
+    databaseGameDataAccess.joinGame("BLACK", gameID, "Player2");
+    databaseGameDataAccess.joinGame("BLACK", thirdID, "Player1");
+
+    var open = databaseGameDataAccess.listGameSummaries(
+      new GameQuery(0, 10, true, null, null)
+    );
+    assertEquals(2, open.size());
+    assertEquals(secondID, open.getFirst().gameID());
+
+    var byPlayer = databaseGameDataAccess.listGameSummaries(
+      new GameQuery(0, 10, false, "Player1", null)
+    );
+    assertEquals(2, byPlayer.size());
+    assertEquals(thirdID, byPlayer.getLast().gameID());
+
+    var byName = databaseGameDataAccess.listGameSummaries(
+      new GameQuery(0, 10, false, null, "game")
+    );
+    assertEquals(2, byName.size());
+    assertEquals(1, databaseGameDataAccess.listGameSummaries(
+      new GameQuery(0, 10, false, null, "other_")
+    ).size());
+    assertEquals(0, databaseGameDataAccess.listGameSummaries(
+      new GameQuery(0, 10, false, null, "other%")
+    ).size());
+
+    var afterFirst = databaseGameDataAccess.listGames(
+      new GameQuery(gameID, 1, false, null, null)
+    );
+    assertEquals(1, afterFirst.size());
+    assertEquals(secondID, afterFirst.getFirst().gameID());
+    assertNotNull(afterFirst.getFirst().game());
+  }
+
+  @Test
+  void migrateJsonGames() throws DataAccessException, SQLException {
+    // a game part way through, stored the way games were before they kept castling state
+    ChessBoard board = new ChessBoard();
+    board.resetBoard();
+    board.removePiece(new ChessPosition(1, 1));
+    ChessGame game = new ChessGame(ChessGame.TeamColor.BLACK, board);
+    String oldJson = "{\"turn\":\"BLACK\",\"board\":" + new Gson().toJson(board) + "}";
+
+    try (var conn = DatabaseManager.getConnection();
+        var statement = conn.createStatement()) {
+      statement.executeUpdate("DROP TABLE games");
+      statement.executeUpdate(
+        """
+        CREATE TABLE games (
+          game_id INT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+          white_username VARCHAR(255),
+          black_username VARCHAR(255),
+          game_name VARCHAR(255) NOT NULL,
+          chess_game TEXT NOT NULL
+        );
+        """
+      );
+
+      try (var insert = conn.prepareStatement(
+        "INSERT INTO games (game_name, chess_game) VALUES (?, ?)"
+      )) {
+        insert.setString(1, "oldGame");
+        insert.setString(2, oldJson);
+        insert.executeUpdate();
+      }
+    }
+
+    DatabaseManager.createTables();
+
+    var games = databaseGameDataAccess.listGames();
+    assertEquals(1, games.size());
+    assertEquals(game, games.getFirst().game());
+    assertEquals(game.positionKey(), games.getFirst().game().positionKey());
+    assertNotEquals(0, databaseGameDataAccess.createNewGame("newGame"));
+  }
 }
@@ -0,0 +1,88 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import dataaccess.AuthDataAccess;
+import dataaccess.DataAccessException;
+import dataaccess.GameDataAccess;
+import dataaccess.UserDataAccess;
+import dataaccess.database.DatabaseAuthDataAccess;
+import dataaccess.database.DatabaseGameDataAccess;
+import dataaccess.database.DatabaseUserDataAccess;
+import java.util.concurrent.CompletableFuture;
+import model.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class AnalysisServiceTests {
+
+  private GameDataAccess gameDataAccess;
+  private AuthDataAccess authDataAccess;
+  private AnalysisService analysisService;
+  private AuthData authData;
+  private int gameID;
+
+  @BeforeEach
+  void reset() throws DataAccessException {
+    authDataAccess = new DatabaseAuthDataAccess();
+    gameDataAccess = new DatabaseGameDataAccess();
+    UserDataAccess userDataAccess = new DatabaseUserDataAccess();
+
+    GameService gameService = new GameService(gameDataAccess, authDataAccess);
+    UserService userService = new UserService(userDataAccess, authDataAccess);
+
+    gameService.clearDataAccess();
+    userService.clearDataAccess();
+
+    userService.registerUser(
+      new RegisterRequest("username", "password", "email")
+    );
+    this.authData = userService.loginUser(
+      new LoginRequest("username", "password")
+    );
+    this.gameID = gameService.createGame(
+      new CreateGameRequest(authData.authToken(), "gameName")
+    );
+    this.analysisService = new AnalysisService(gameDataAccess, authDataAccess, 1, 1, 1);
+  }
+
+  @AfterEach
+  void close() {
+    analysisService.close();
+  }
+
+  @Test
+  void analyze() throws Exception {
+    AnalysisResult result = analysisService.analyze(authData.authToken(), gameID, 100).get();
+
+    assertNotNull(result.bestMove());
+    assertFalse(result.principalVariation().isEmpty());
+    assertEquals(result.bestMove(), result.principalVariation().getFirst());
+    assertTrue(result.depth() > 0);
+  }
+
+  @Test
+  void analyzeFail() {
+    assertThrows(DataAccessException.class, () ->
+      analysisService.analyze("invalidToken", gameID, 100)
+    );
+    assertThrows(DataAccessException.class, () ->
+      analysisService.analyze(authData.authToken(), 12345, 100)
+    );
+  }
+
+  @Test
+  void analyzeWhenBusy() throws Exception {
+    try (AnalysisService busy = new AnalysisService(gameDataAccess, authDataAccess, 1, 0, 1)) {
+      CompletableFuture<AnalysisResult> running =
+          busy.analyze(authData.authToken(), gameID, 1000);
+
+      DataAccessException e = assertThrows(DataAccessException.class, () ->
+        busy.analyze(authData.authToken(), gameID, 1000)
+      );
+      assertEquals("server busy", e.getMessage());
+      assertNotNull(running.get().bestMove());
+    }
+  }
+}
@@ -5,10 +5,12 @@ import static org.junit.jupiter.api.Assertions.*;
 import dataaccess.AuthDataAccess;
 import dataaccess.DataAccessException;
 import dataaccess.GameDataAccess;
+import dataaccess.GameQuery;
 import dataaccess.UserDataAccess;
 import dataaccess.database.DatabaseAuthDataAccess;
 import dataaccess.database.DatabaseGameDataAccess;
 import dataaccess.database.DatabaseUserDataAccess;
+import java.util.List;
 import model.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -101,4 +103,81 @@ public class GameServiceTests {
 
     assertEquals(3, gameService.listGames(authData.authToken()).size());
   }
+
+  @Test
+  void listGameSummaries() throws DataAccessException {
+    gameService.joinGame(
+      new JoinGameRequest(authData.authToken(), "WHITE", gameID)
+    );
+
+    assertEquals(
+      new GameSummary(gameID, "username", null, "gameName"),
+      gameService.listGameSummaries(authData.authToken()).getFirst()
+    );
+  }
+
+  @Test
+  void listGameSummariesFail() {
+    assertThrows(DataAccessException.class, () ->
+      gameService.listGameSummaries("invalidToken")
+    );
+  }
+
+  @Test
+  void createGames() throws DataAccessException {
+    int[] gameIDs = gameService.createGames(
+      new CreateGamesRequest(authData.authToken(), List.of("roundOne", "roundOne"))
+    );
+
+    assertEquals(2, gameIDs.length);
+    assertNotEquals(gameIDs[0], gameIDs[1]);
+    assertEquals(3, gameService.listGames(authData.authToken()).size());
+  }
+
+  @Test
+  void createGamesFail() {
+    assertThrows(DataAccessException.class, () ->
+      gameService.createGames(new CreateGamesRequest("invalidToken", List.of("roundOne")))
+    );
+    assertThrows(DataAccessException.class, () ->
+      gameService.createGames(new CreateGamesRequest(authData.authToken(), List.of()))
+    );
+  }
+
+  @Test
+  void listGamePages() throws DataAccessException {
+    int secondID = gameService.createGame(
+      new CreateGameRequest(authData.authToken(), "secondGame")
+    );
+    int thirdID = gameService.createGame(
+      new CreateGameRequest(authData.authToken(), "thirdGame")
+    );
+
+    var first = gameService.listGameSummaries(
+      authData.authToken(), new GameQuery(0, 2, false, null, null)
+    );
+    assertEquals(2, first.games().size());
+    assertEquals(secondID, first.next());
+
+    var second = gameService.listGameSummaries(
+      authData.authToken(), new GameQuery(first.next(), 2, false, null, null)
+    );
+    assertEquals(1, second.games().size());
+    assertEquals(thirdID, second.games().getFirst().gameID());
+    assertNull(second.next());
+  }
+
+  @Test
+  void listGamePagesFail() {
+    assertThrows(DataAccessException.class, () ->
+      gameService.listGameSummaries(
+        authData.authToken(), new GameQuery(0, GameQuery.MAX_LIMIT + 1, false, null, null)
+      )
+    );
+    assertThrows(DataAccessException.class, () ->
+      gameService.listGames(
+        authData.authToken(), new GameQuery(-1, 10, false, null, null)
+      )
+    );
+  }
 }
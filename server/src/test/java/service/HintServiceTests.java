@@ -0,0 +1,108 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.OpeningBook;
+import dataaccess.AuthDataAccess;
+import dataaccess.DataAccessException;
+import dataaccess.GameDataAccess;
+import dataaccess.UserDataAccess;
+import dataaccess.database.DatabaseAuthDataAccess;
+import dataaccess.database.DatabaseGameDataAccess;
+import dataaccess.database.DatabaseUserDataAccess;
+import java.nio.file.Path;
+import java.util.List;
+import model.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class HintServiceTests {
+
+  private static final ChessMove D4 =
+      ChessMove.of(ChessPosition.of(2, 4), ChessPosition.of(4, 4), null);
+
+  @TempDir
+  Path directory;
+
+  private GameDataAccess gameDataAccess;
+  private AuthDataAccess authDataAccess;
+  private AnalysisService analysisService;
+  private AuthData authData;
+  private int gameID;
+
+  @BeforeEach
+  void reset() throws DataAccessException {
+    authDataAccess = new DatabaseAuthDataAccess();
+    gameDataAccess = new DatabaseGameDataAccess();
+    UserDataAccess userDataAccess = new DatabaseUserDataAccess();
+
+    GameService gameService = new GameService(gameDataAccess, authDataAccess);
+    UserService userService = new UserService(userDataAccess, authDataAccess);
+
+    gameService.clearDataAccess();
+    userService.clearDataAccess();
+
+    userService.registerUser(
+      new RegisterRequest("username", "password", "email")
+    );
+    this.authData = userService.loginUser(
+      new LoginRequest("username", "password")
+    );
+    this.gameID = gameService.createGame(
+      new CreateGameRequest(authData.authToken(), "gameName")
+    );
+    this.analysisService = new AnalysisService(gameDataAccess, authDataAccess, 1, 1, 1);
+  }
+
+  @AfterEach
+  void close() {
+    analysisService.close();
+  }
+
+  @Test
+  void hintFromBook() throws Exception {
+    Path file = directory.resolve("book.bin");
+    OpeningBook.write(
+      file, List.of(OpeningBook.Entry.of(new ChessGame(), D4, 1))
+    );
+    HintService hintService = new HintService(
+      gameDataAccess, authDataAccess, OpeningBook.open(file), analysisService
+    );
+
+    Hint hint = hintService.hint(authData.authToken(), gameID).get();
+
+    assertEquals(D4, hint.move());
+    assertEquals("book", hint.source());
+  }
+
+  @Test
+  void hintFromEngine() throws Exception {
+    HintService hintService = new HintService(
+      gameDataAccess, authDataAccess, OpeningBook.EMPTY, analysisService
+    );
+
+    Hint hint = hintService.hint(authData.authToken(), gameID).get();
+
+    assertNotNull(hint.move());
+    assertEquals("engine", hint.source());
+  }
+
+  @Test
+  void hintFail() {
+    HintService hintService = new HintService(
+      gameDataAccess, authDataAccess, OpeningBook.EMPTY, analysisService
+    );
+
+    assertThrows(DataAccessException.class, () ->
+      hintService.hint("invalidToken", gameID)
+    );
+    assertThrows(DataAccessException.class, () ->
+      hintService.hint(authData.authToken(), 12345)
+    );
+  }
+}
@@ -0,0 +1,168 @@
+package chess;
+
+/**
+ * Helpers for working with 64-bit bitboards.
+ *
+ * <p>Squares are numbered 0-63 starting at a1 (row 1, column 1) and moving across each row, so
+ * square = (row - 1) * 8 + (column - 1).
+ */
+final class Bitboards {
+
+  static final int SQUARES = 64;
+
+  // ray directions, the first four move toward higher square numbers
+  static final int NORTH = 0;
+  static final int EAST = 1;
+  static final int NORTH_EAST = 2;
+  static final int NORTH_WEST = 3;
+  static final int SOUTH = 4;
+  static final int WEST = 5;
+  static final int SOUTH_WEST = 6;
+  static final int SOUTH_EAST = 7;
+
+  private static final int[] RAY_ROW_CHANGE = {1, 0, 1, 1, -1, 0, -1, -1};
+  private static final int[] RAY_COL_CHANGE = {0, 1, 1, -1, 0, -1, -1, 1};
+
+  /** Every square from a square to the edge of the board in each direction, excluding the start */
+  private static final long[][] RAYS = new long[8][SQUARES];
+
+  /** Squares strictly between two squares that share a row, column or diagonal, otherwise 0 */
+  static final long[][] BETWEEN = new long[SQUARES][SQUARES];
+
+  /** The full row, column or diagonal through two squares, otherwise 0 */
+  static final long[][] LINE = new long[SQUARES][SQUARES];
+
+  static final long[] KNIGHT_ATTACKS = new long[SQUARES];
+  static final long[] KING_ATTACKS = new long[SQUARES];
+
+  /** Squares a pawn attacks, indexed by {@link ChessGame.TeamColor#ordinal()} then square */
+  static final long[][] PAWN_ATTACKS = new long[2][SQUARES];
+
+  static {
+    final int[][] knightSteps = {
+      {2, 1}, {2, -1}, {-2, 1}, {-2, -1}, {1, 2}, {1, -2}, {-1, 2}, {-1, -2}
+    };
+
+    for (int square = 0; square < SQUARES; square++) {
+      final int row = row(square);
+      final int col = col(square);
+
+      for (int direction = 0; direction < 8; direction++) {
+        int rayRow = row + RAY_ROW_CHANGE[direction];
+        int rayCol = col + RAY_COL_CHANGE[direction];
+
+        while (isOnBoard(rayRow, rayCol)) {
+          RAYS[direction][square] |= bit(square(rayRow, rayCol));
+          rayRow += RAY_ROW_CHANGE[direction];
+          rayCol += RAY_COL_CHANGE[direction];
+        }
+
+        KING_ATTACKS[square] |=
+            bitIfOnBoard(row + RAY_ROW_CHANGE[direction], col + RAY_COL_CHANGE[direction]);
+      }
+
+      for (int[] step : knightSteps) {
+        KNIGHT_ATTACKS[square] |= bitIfOnBoard(row + step[0], col + step[1]);
+      }
+
+      PAWN_ATTACKS[ChessGame.TeamColor.WHITE.ordinal()][square] =
+          bitIfOnBoard(row + 1, col - 1) | bitIfOnBoard(row + 1, col + 1);
+      PAWN_ATTACKS[ChessGame.TeamColor.BLACK.ordinal()][square] =
+          bitIfOnBoard(row - 1, col - 1) | bitIfOnBoard(row - 1, col + 1);
+    }
+
+    for (int square = 0; square < SQUARES; square++) {
+      for (int direction = 0; direction < 8; direction++) {
+        final int opposite = direction ^ 4;
+        final long line = RAYS[direction][square] | RAYS[opposite][square] | bit(square);
+
+        long targets = RAYS[direction][square];
+        while (targets != 0) {
+          final int target = Long.numberOfTrailingZeros(targets);
+          targets &= targets - 1;
+
+          BETWEEN[square][target] = RAYS[direction][square] & RAYS[opposite][target];
+          LINE[square][target] = line;
+        }
+      }
+    }
+  }
+
+  private Bitboards() {}
+
+  private static boolean isOnBoard(int row, int col) {
+    return row >= 1 && row <= 8 && col >= 1 && col <= 8;
+  }
+
+  private static long bitIfOnBoard(int row, int col) {
+    return isOnBoard(row, col) ? bit(square(row, col)) : 0L;
+  }
+
+  /**
+   * Squares reached by sliding from a square in one direction, stopping at (and including) the
+   * first occupied square
+   */
+  static long rayAttacks(int direction, int square, long occupied) {
+    long ray = RAYS[direction][square];
+    final long blockers = ray & occupied;
+
+    if (blockers != 0) {
+      final int blocker =
+          direction < SOUTH
+              ? Long.numberOfTrailingZeros(blockers)
+              : 63 - Long.numberOfLeadingZeros(blockers);
+      ray ^= RAYS[direction][blocker];
+    }
+
+    return ray;
+  }
+
+  static long rookAttacks(int square, long occupied) {
+    return rayAttacks(NORTH, square, occupied)
+        | rayAttacks(EAST, square, occupied)
+        | rayAttacks(SOUTH, square, occupied)
+        | rayAttacks(WEST, square, occupied);
+  }
+
+  static long bishopAttacks(int square, long occupied) {
+    return rayAttacks(NORTH_EAST, square, occupied)
+        | rayAttacks(NORTH_WEST, square, occupied)
+        | rayAttacks(SOUTH_EAST, square, occupied)
+        | rayAttacks(SOUTH_WEST, square, occupied);
+  }
+
+  /**
+   * @param row 1-8
+   * @param col 1-8
+   * @return the 0-63 square index for the row and column
+   */
+  static int square(int row, int col) {
+    return ((row - 1) << 3) | (col - 1);
+  }
+
+  static int square(ChessPosition position) {
+    return position.getSquare();
+  }
+
+  /**
+   * @return the 1-8 row of the square
+   */
+  static int row(int square) {
+    return (square >>> 3) + 1;
+  }
+
+  /**
+   * @return the 1-8 column of the square
+   */
+  static int col(int square) {
+    return (square & 7) + 1;
+  }
+
+  static long bit(int square) {
+    return 1L << square;
+  }
+
+  static ChessPosition position(int square) {
+    return ChessPosition.ofSquare(square);
+  }
+}
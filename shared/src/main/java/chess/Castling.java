@@ -0,0 +1,139 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * Castling rights packed into 4 bits, one per king and side of the board, in the same form
+ * {@link Zobrist#CASTLING} is indexed by.
+ *
+ * <p>A right is lost for good once its king or rook moves or the rook is captured, and a move can
+ * only do that by starting or ending on one of the six home squares. So each square has a mask of
+ * the rights that survive a move touching it, and updating the rights after any move is two ANDs.
+ */
+final class Castling {
+
+  static final int NONE = 0;
+  static final int WHITE_KING_SIDE = 1;
+  static final int WHITE_QUEEN_SIDE = 2;
+  static final int BLACK_KING_SIDE = 4;
+  static final int BLACK_QUEEN_SIDE = 8;
+  static final int ALL = 15;
+
+  // home squares
+  static final int WHITE_KING = 4;
+  static final int BLACK_KING = 60;
+  private static final int A1 = 0;
+  private static final int H1 = 7;
+  private static final int A8 = 56;
+  private static final int H8 = 63;
+
+  /** The rights that survive a move starting or ending on each square */
+  private static final int[] KEPT = new int[Bitboards.SQUARES];
+
+  static {
+    Arrays.fill(KEPT, ALL);
+    KEPT[WHITE_KING] = ALL & ~(WHITE_KING_SIDE | WHITE_QUEEN_SIDE);
+    KEPT[BLACK_KING] = ALL & ~(BLACK_KING_SIDE | BLACK_QUEEN_SIDE);
+    KEPT[A1] = ALL & ~WHITE_QUEEN_SIDE;
+    KEPT[H1] = ALL & ~WHITE_KING_SIDE;
+    KEPT[A8] = ALL & ~BLACK_QUEEN_SIDE;
+    KEPT[H8] = ALL & ~BLACK_KING_SIDE;
+  }
+
+  private Castling() {}
+
+  /**
+   * @param rights the rights before the move
+   * @param move the move being played, packed
+   * @return the rights after the move
+   */
+  static int afterMove(int rights, int move) {
+    return rights & KEPT[ChessMove.startSquare(move)] & KEPT[ChessMove.endSquare(move)];
+  }
+
+  /**
+   * @return the rights for the team on one side of the board
+   */
+  static int rights(ChessGame.TeamColor color, boolean kingSide) {
+    if (color == ChessGame.TeamColor.WHITE) {
+      return kingSide ? WHITE_KING_SIDE : WHITE_QUEEN_SIDE;
+    }
+    return kingSide ? BLACK_KING_SIDE : BLACK_QUEEN_SIDE;
+  }
+
+  /**
+   * Guesses the rights for a board with no history: every king and rook still on its home square
+   * is assumed never to have moved
+   *
+   * @param board the position
+   * @return the rights the position could have
+   */
+  static int fromBoard(ChessBoard board) {
+    int rights = NONE;
+
+    for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+      final int king = color == ChessGame.TeamColor.WHITE ? WHITE_KING : BLACK_KING;
+      if (board.kingSquare(color) != king) {
+        continue;
+      }
+
+      final long rooks = board.pieces(color, ChessPiece.PieceType.ROOK);
+      if ((rooks & Bitboards.bit(king + 3)) != 0) {
+        rights |= rights(color, true);
+      }
+      if ((rooks & Bitboards.bit(king - 4)) != 0) {
+        rights |= rights(color, false);
+      }
+    }
+
+    return rights;
+  }
+
+  /**
+   * @param fen the castling field of a FEN string, e.g. KQkq or -
+   * @return the rights it describes
+   * @throws IllegalArgumentException if the field has anything else in it
+   */
+  static int fromFen(String fen) {
+    if (fen.equals("-")) {
+      return NONE;
+    }
+
+    int rights = NONE;
+    for (char c : fen.toCharArray()) {
+      rights |=
+          switch (c) {
+            case 'K' -> WHITE_KING_SIDE;
+            case 'Q' -> WHITE_QUEEN_SIDE;
+            case 'k' -> BLACK_KING_SIDE;
+            case 'q' -> BLACK_QUEEN_SIDE;
+            default -> throw new IllegalArgumentException("Unknown castling right: " + fen);
+          };
+    }
+    return rights;
+  }
+
+  /**
+   * @return the rights as a FEN castling field
+   */
+  static String toFen(int rights) {
+    if (rights == NONE) {
+      return "-";
+    }
+
+    final StringBuilder fen = new StringBuilder(4);
+    if ((rights & WHITE_KING_SIDE) != 0) {
+      fen.append('K');
+    }
+    if ((rights & WHITE_QUEEN_SIDE) != 0) {
+      fen.append('Q');
+    }
+    if ((rights & BLACK_KING_SIDE) != 0) {
+      fen.append('k');
+    }
+    if ((rights & BLACK_QUEEN_SIDE) != 0) {
+      fen.append('q');
+    }
+    return fen.toString();
+  }
+}
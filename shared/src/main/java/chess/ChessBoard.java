@@ -1,16 +1,58 @@
 package chess;
 
+import com.google.gson.annotations.JsonAdapter;
 import java.util.Arrays;
-import java.util.Objects;
 
 /**
  * A chessboard that can hold and rearrange chess pieces.
  *
+ * <p>Pieces are stored as bitboards (one 64-bit mask per color and piece type) alongside a small
+ * mailbox so single square lookups stay O(1). JSON keeps the original 8x8 {@code squares} layout,
+ * see {@link ChessBoardJsonAdapter}.
+ *
  * <p>Note: You can add to this class, but you may not alter signature of the existing methods.
  */
+@JsonAdapter(ChessBoardJsonAdapter.class)
 public class ChessBoard {
 
-  private final ChessPiece[][] squares = new ChessPiece[8][8];
+  private static final int KING = ChessPiece.PieceType.KING.ordinal();
+  private static final int QUEEN = ChessPiece.PieceType.QUEEN.ordinal();
+  private static final int BISHOP = ChessPiece.PieceType.BISHOP.ordinal();
+  private static final int KNIGHT = ChessPiece.PieceType.KNIGHT.ordinal();
+  private static final int ROOK = ChessPiece.PieceType.ROOK.ordinal();
+  private static final int PAWN = ChessPiece.PieceType.PAWN.ordinal();
+
+  // layout of the undo record returned by makeMove
+  private static final int SQUARE_BITS = 0x3F;
+  private static final int PIECE_BITS = 0xF;
+  private static final int TO_SHIFT = 6;
+  private static final int MOVED_SHIFT = 12;
+  private static final int CAPTURED_SHIFT = 16;
+  private static final int CAPTURE_SQUARE_SHIFT = 20;
+  private static final long CASTLE_FLAG = 1L << 26;
+  private static final long EN_PASSANT_FLAG = 1L << 27;
+
+  /** One bitboard per color and piece type, indexed by {@link ChessPiece#index()} */
+  private final long[] pieces = new long[ChessPiece.PIECE_KINDS];
+
+  /** One bitboard per color, indexed by {@link ChessGame.TeamColor#ordinal()} */
+  private final long[] colors = new long[2];
+
+  private long occupied;
+
+  /** Piece index + 1 for every square, 0 when the square is empty */
+  private final byte[] mailbox = new byte[Bitboards.SQUARES];
+
+  /** Zobrist key of the pieces on the board, updated as pieces are added and removed */
+  private long key;
+
+  /** Zobrist key of just the pawns, for caching pawn structure */
+  private long pawnKey;
+
+  /** White minus black {@link PieceSquareTables} totals, updated like the key */
+  private int middlegame;
+  private int endgame;
+  private int phase;
 
   public ChessBoard() {}
 
@@ -21,11 +63,16 @@ public class ChessBoard {
    * @param piece the piece to add
    */
   public void addPiece(ChessPosition position, ChessPiece piece) {
-    squares[position.getRow() - 1][position.getColumn() - 1] = piece;
+    final int square = Bitboards.square(position);
+    clearSquare(square);
+
+    if (piece != null) {
+      putPiece(square, piece.index());
+    }
   }
 
   public void removePiece(ChessPosition position) {
-    squares[position.getRow() - 1][position.getColumn() - 1] = null;
+    clearSquare(Bitboards.square(position));
   }
 
   /**
@@ -35,16 +82,376 @@ public class ChessBoard {
    * @return Either the piece at the position, or null if no piece is at that position
    */
   public ChessPiece getPiece(ChessPosition position) {
-    // find the chess piece at these coordinates
-    return squares[position.getRow() - 1][position.getColumn() - 1];
+    return pieceAt(Bitboards.square(position));
   }
 
-  public void emptyBoard() {
-    for (int x = 1; x < 9; x++) {
-      for (int y = 1; y < 9; y++) {
-        squares[x - 1][y - 1] = null;
+  /**
+   * @param square 0-63 square index
+   * @return the piece on the square, or null if it is empty
+   */
+  ChessPiece pieceAt(int square) {
+    final int code = mailbox[square];
+    return code == 0 ? null : ChessPiece.of(code - 1);
+  }
+
+  /**
+   * @param square 0-63 square index
+   * @return the {@link ChessPiece#index()} of the piece on the square, or -1 if it is empty
+   */
+  int pieceIndexAt(int square) {
+    return mailbox[square] - 1;
+  }
+
+  /**
+   * @return Zobrist key of the piece placement (side to move and other game state not included)
+   */
+  long key() {
+    return key;
+  }
+
+  /**
+   * @return Zobrist key of just the pawns, which stays the same for every move that neither moves
+   *     nor captures a pawn
+   */
+  long pawnKey() {
+    return pawnKey;
+  }
+
+  /**
+   * @return bitboard of every square holding a piece of this color and type
+   */
+  long pieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+    return pieces[ChessPiece.index(color, type)];
+  }
+
+  /**
+   * @return bitboard of every square holding a piece of this color
+   */
+  long occupancy(ChessGame.TeamColor color) {
+    return colors[color.ordinal()];
+  }
+
+  /**
+   * @return bitboard of every occupied square
+   */
+  long occupancy() {
+    return occupied;
+  }
+
+  /**
+   * @return white minus black material and piece-square value for the middlegame
+   */
+  int middlegameScore() {
+    return middlegame;
+  }
+
+  /**
+   * @return white minus black material and piece-square value for the endgame
+   */
+  int endgameScore() {
+    return endgame;
+  }
+
+  /**
+   * @return how much non-pawn material is left, from 0 up to {@link PieceSquareTables#MAX_PHASE}
+   *     with every piece on the board (more after promotions)
+   */
+  int phase() {
+    return phase;
+  }
+
+  /**
+   * Plays a move in place without checking whether it is legal. Castling (the king moving two
+   * columns) also moves the rook, and a pawn moving diagonally onto an empty square captures en
+   * passant. Everything needed to take the move back is packed into the returned undo record so no
+   * copy of the board is needed.
+   *
+   * @param move the move to play
+   * @return undo record to pass to {@link #unmakeMove(long)}
+   */
+  public long makeMove(ChessMove move) {
+    return makeMove(
+        Bitboards.square(move.getStartPosition()),
+        Bitboards.square(move.getEndPosition()),
+        move.getPromotionPiece());
+  }
+
+  /**
+   * @param packedMove a move from {@link ChessMove#pack(int, int, ChessPiece.PieceType)}
+   * @return undo record to pass to {@link #unmakeMove(long)}
+   */
+  long makeMove(int packedMove) {
+    return makeMove(
+        ChessMove.startSquare(packedMove),
+        ChessMove.endSquare(packedMove),
+        ChessMove.promotionPiece(packedMove));
+  }
+
+  long makeMove(int from, int to, ChessPiece.PieceType promotionPiece) {
+    final int moved = pieceIndexAt(from);
+    if (moved < 0) {
+      throw new IllegalArgumentException("No piece to move");
+    }
+
+    final int movedType = moved % 6;
+    long flags = 0;
+    int captureSquare = to;
+
+    if (movedType == PAWN && ((from ^ to) & 7) != 0 && mailbox[to] == 0) {
+      captureSquare = (from & ~7) | (to & 7);
+      flags |= EN_PASSANT_FLAG;
+    }
+
+    final int captured = pieceIndexAt(captureSquare);
+    clearSquare(captureSquare);
+    clearSquare(from);
+
+    if (promotionPiece != null) {
+      putPiece(to, moved - movedType + promotionPiece.ordinal());
+    } else {
+      putPiece(to, moved);
+    }
+
+    if (movedType == KING && Math.abs(to - from) == 2) {
+      flags |= CASTLE_FLAG;
+      moveRook(from, to, false);
+    }
+
+    return from
+        | ((long) to << TO_SHIFT)
+        | ((long) (moved + 1) << MOVED_SHIFT)
+        | ((long) (captured + 1) << CAPTURED_SHIFT)
+        | ((long) captureSquare << CAPTURE_SQUARE_SHIFT)
+        | flags;
+  }
+
+  /**
+   * Takes back a move played with {@link #makeMove(ChessMove)}. Moves must be undone in the reverse
+   * order they were made.
+   *
+   * @param undo the record returned when the move was made
+   */
+  public void unmakeMove(long undo) {
+    final int from = (int) (undo & SQUARE_BITS);
+    final int to = (int) ((undo >>> TO_SHIFT) & SQUARE_BITS);
+    final int moved = (int) ((undo >>> MOVED_SHIFT) & PIECE_BITS) - 1;
+    final int captured = (int) ((undo >>> CAPTURED_SHIFT) & PIECE_BITS) - 1;
+    final int captureSquare = (int) ((undo >>> CAPTURE_SQUARE_SHIFT) & SQUARE_BITS);
+
+    if ((undo & CASTLE_FLAG) != 0) {
+      moveRook(from, to, true);
+    }
+
+    clearSquare(to);
+    putPiece(from, moved);
+
+    if (captured >= 0) {
+      putPiece(captureSquare, captured);
+    }
+  }
+
+  /**
+   * Moves the rook that goes with a castling king move
+   *
+   * @param kingFrom the king's starting square
+   * @param kingTo the king's ending square
+   * @param undo true to put the rook back in its corner
+   */
+  private void moveRook(int kingFrom, int kingTo, boolean undo) {
+    final boolean kingSide = kingTo > kingFrom;
+    final int corner = kingSide ? kingFrom + 3 : kingFrom - 4;
+    final int beside = kingSide ? kingFrom + 1 : kingFrom - 1;
+    final int rookFrom = undo ? beside : corner;
+    final int rookTo = undo ? corner : beside;
+
+    final int rook = pieceIndexAt(rookFrom);
+    if (rook < 0) {
+      return;
+    }
+
+    clearSquare(rookFrom);
+    putPiece(rookTo, rook);
+  }
+
+  /**
+   * @return the 0-63 square of the team's king, or 64 if it has no king. The king bitboard is kept
+   *     up to date on every change, so this is a single bit scan rather than a board search.
+   */
+  int kingSquare(ChessGame.TeamColor color) {
+    return Long.numberOfTrailingZeros(pieces(color, ChessPiece.PieceType.KING));
+  }
+
+  /**
+   * @param position the square in question
+   * @param attacker the team that may be attacking it
+   * @return true if any piece of the attacking team attacks the square
+   */
+  public boolean isSquareAttacked(ChessPosition position, ChessGame.TeamColor attacker) {
+    return attackersOf(Bitboards.square(position), attacker, occupied) != 0;
+  }
+
+  boolean isSquareAttacked(int square, ChessGame.TeamColor attacker) {
+    return attackersOf(square, attacker, occupied) != 0;
+  }
+
+  /**
+   * Finds attackers by looking outward from the square: knight, king and pawn attacks come from
+   * lookup tables and sliding pieces from one ray scan per direction.
+   *
+   * @param square 0-63 square being attacked
+   * @param attacker the attacking team
+   * @param occupancy pieces that block sliding attacks
+   * @return bitboard of the attacker's pieces that attack the square
+   */
+  long attackersOf(int square, ChessGame.TeamColor attacker, long occupancy) {
+    final int color = attacker.ordinal();
+    final int base = color * 6;
+    final long queens = pieces[base + QUEEN];
+
+    return (Bitboards.KNIGHT_ATTACKS[square] & pieces[base + KNIGHT])
+        | (Bitboards.KING_ATTACKS[square] & pieces[base + KING])
+        | (Bitboards.PAWN_ATTACKS[color ^ 1][square] & pieces[base + PAWN])
+        | (Bitboards.rookAttacks(square, occupancy) & (pieces[base + ROOK] | queens))
+        | (Bitboards.bishopAttacks(square, occupancy) & (pieces[base + BISHOP] | queens));
+  }
+
+  /**
+   * @return true if the team's king is attacked, false if it is safe or not on the board
+   */
+  boolean isKingAttacked(ChessGame.TeamColor color) {
+    final int king = kingSquare(color);
+    return king < Bitboards.SQUARES
+        && isSquareAttacked(king, color == ChessGame.TeamColor.WHITE
+            ? ChessGame.TeamColor.BLACK
+            : ChessGame.TeamColor.WHITE);
+  }
+
+  /**
+   * Answers whether the team's king would be attacked once a move is made, without making it:
+   * attacks are looked for on the occupancy the move leaves, ignoring any piece it captures and
+   * counting a moved enemy piece from where it lands. Nothing on the board changes, so several
+   * threads may ask at once.
+   *
+   * @param from 0-63 square of the piece moving
+   * @param to 0-63 square it moves to
+   * @param promotionPiece what a pawn becomes, or null
+   * @param color the team whose king is in question
+   * @return true if that king would be attacked, false if it would be safe or is not on the board
+   */
+  boolean isKingAttackedAfter(
+      int from, int to, ChessPiece.PieceType promotionPiece, ChessGame.TeamColor color) {
+    final int moved = pieceIndexAt(from);
+    if (moved < 0) {
+      throw new IllegalArgumentException("No piece to move");
+    }
+
+    final int movedType = moved % 6;
+    final boolean ownMove = moved / 6 == color.ordinal();
+    int captureSquare = to;
+
+    if (movedType == PAWN && ((from ^ to) & 7) != 0 && mailbox[to] == 0) {
+      captureSquare = (from & ~7) | (to & 7);
+    }
+
+    // pieces that leave their square or are taken off the board
+    long gone = Bitboards.bit(from) | Bitboards.bit(captureSquare);
+    long occupancy = (occupied & ~gone) | Bitboards.bit(to);
+    long rookTo = 0;
+
+    if (movedType == KING && Math.abs(to - from) == 2) {
+      final boolean kingSide = to > from;
+      final int corner = kingSide ? from + 3 : from - 4;
+      if (mailbox[corner] != 0) {
+        rookTo = Bitboards.bit(kingSide ? from + 1 : from - 1);
+        occupancy = (occupancy & ~Bitboards.bit(corner)) | rookTo;
+        gone |= Bitboards.bit(corner);
       }
     }
+
+    final boolean kingMoves = ownMove && movedType == KING;
+    final int king = kingMoves ? to : kingSquare(color);
+    // a captured king is as safe as a missing one, which is what makeMove would leave
+    if (king == Bitboards.SQUARES || (!kingMoves && king == captureSquare)) {
+      return false;
+    }
+
+    final ChessGame.TeamColor enemy = color == ChessGame.TeamColor.WHITE
+        ? ChessGame.TeamColor.BLACK
+        : ChessGame.TeamColor.WHITE;
+    long attackers = attackersOf(king, enemy, occupancy) & ~gone;
+
+    if (!ownMove) {
+      final int landedType = promotionPiece != null ? promotionPiece.ordinal() : movedType;
+      attackers |= attackSources(landedType, enemy, king, occupancy) & Bitboards.bit(to);
+      attackers |= Bitboards.rookAttacks(king, occupancy) & rookTo;
+    }
+    return attackers != 0;
+  }
+
+  /**
+   * @return the squares a piece of the type and team could attack the given square from
+   */
+  private static long attackSources(
+      int type, ChessGame.TeamColor attacker, int square, long occupancy) {
+    if (type == KNIGHT) {
+      return Bitboards.KNIGHT_ATTACKS[square];
+    }
+    if (type == KING) {
+      return Bitboards.KING_ATTACKS[square];
+    }
+    if (type == PAWN) {
+      return Bitboards.PAWN_ATTACKS[attacker.ordinal() ^ 1][square];
+    }
+    final long rook = type == BISHOP ? 0 : Bitboards.rookAttacks(square, occupancy);
+    final long bishop = type == ROOK ? 0 : Bitboards.bishopAttacks(square, occupancy);
+    return rook | bishop;
+  }
+
+  private void putPiece(int square, int index) {
+    final long bit = Bitboards.bit(square);
+    pieces[index] |= bit;
+    colors[index / 6] |= bit;
+    occupied |= bit;
+    mailbox[square] = (byte) (index + 1);
+    key ^= Zobrist.PIECE_SQUARE[index][square];
+    if (index % 6 == PAWN) {
+      pawnKey ^= Zobrist.PIECE_SQUARE[index][square];
+    }
+    middlegame += PieceSquareTables.MIDDLEGAME[index][square];
+    endgame += PieceSquareTables.ENDGAME[index][square];
+    phase += PieceSquareTables.PHASE[index % 6];
+  }
+
+  private void clearSquare(int square) {
+    final int index = mailbox[square] - 1;
+    if (index < 0) {
+      return;
+    }
+
+    final long bit = Bitboards.bit(square);
+    pieces[index] &= ~bit;
+    colors[index / 6] &= ~bit;
+    occupied &= ~bit;
+    mailbox[square] = 0;
+    key ^= Zobrist.PIECE_SQUARE[index][square];
+    if (index % 6 == PAWN) {
+      pawnKey ^= Zobrist.PIECE_SQUARE[index][square];
+    }
+    middlegame -= PieceSquareTables.MIDDLEGAME[index][square];
+    endgame -= PieceSquareTables.ENDGAME[index][square];
+    phase -= PieceSquareTables.PHASE[index % 6];
+  }
+
+  public void emptyBoard() {
+    Arrays.fill(pieces, 0L);
+    Arrays.fill(colors, 0L);
+    Arrays.fill(mailbox, (byte) 0);
+    occupied = 0L;
+    key = 0L;
+    pawnKey = 0L;
+    middlegame = 0;
+    endgame = 0;
+    phase = 0;
   }
 
   /** Sets the board to the default starting board (How the game of chess normally starts) */
@@ -52,98 +459,98 @@ public class ChessBoard {
     emptyBoard();
 
     addPiece(
-        new ChessPosition(1, 1),
+        ChessPosition.of(1, 1),
         new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
     addPiece(
-        new ChessPosition(1, 2),
+        ChessPosition.of(1, 2),
         new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
     addPiece(
-        new ChessPosition(1, 3),
+        ChessPosition.of(1, 3),
         new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
     addPiece(
-        new ChessPosition(1, 4),
+        ChessPosition.of(1, 4),
         new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
     addPiece(
-        new ChessPosition(1, 5),
+        ChessPosition.of(1, 5),
         new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
     addPiece(
-        new ChessPosition(1, 6),
+        ChessPosition.of(1, 6),
         new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
     addPiece(
-        new ChessPosition(1, 7),
+        ChessPosition.of(1, 7),
         new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
     addPiece(
-        new ChessPosition(1, 8),
+        ChessPosition.of(1, 8),
         new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
 
     for (int i = 1; i < 9; i++) {
       addPiece(
-          new ChessPosition(2, i),
+          ChessPosition.of(2, i),
           new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
     }
 
     addPiece(
-        new ChessPosition(8, 1),
+        ChessPosition.of(8, 1),
         new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
     addPiece(
-        new ChessPosition(8, 2),
+        ChessPosition.of(8, 2),
         new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
     addPiece(
-        new ChessPosition(8, 3),
+        ChessPosition.of(8, 3),
         new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
     addPiece(
-        new ChessPosition(8, 4),
+        ChessPosition.of(8, 4),
         new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
     addPiece(
-        new ChessPosition(8, 5),
+        ChessPosition.of(8, 5),
         new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
     addPiece(
-        new ChessPosition(8, 6),
+        ChessPosition.of(8, 6),
         new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
     addPiece(
-        new ChessPosition(8, 7),
+        ChessPosition.of(8, 7),
         new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
     addPiece(
-        new ChessPosition(8, 8),
+        ChessPosition.of(8, 8),
         new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
 
     for (int i = 1; i < 9; i++) {
       addPiece(
-          new ChessPosition(7, i),
+          ChessPosition.of(7, i),
           new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
     }
   }
 
   public ChessBoard copyBoard() {
     ChessBoard copy = new ChessBoard();
-    copy.emptyBoard();
-
-    for (int x = 1; x <= 8; x++) {
-      for (int y = 1; y <= 8; y++) {
-        final ChessPosition checkingPosition = new ChessPosition(x, y);
-        final ChessPiece checkingPiece = this.getPiece(checkingPosition);
-
-        if (checkingPiece != null) {
-          copy.addPiece(
-              checkingPosition,
-              new ChessPiece(checkingPiece.getTeamColor(), checkingPiece.getPieceType()));
-        }
-      }
-    }
+    copy.copyFrom(this);
 
     return copy;
   }
 
   /**
-   * this == o checks to see if the objects are the same memory location o == null checks to see if
-   * what is being compared is not an object getClass() != o.getClass() checks to see if the classes
-   * being compared are different ChessBoard that = (ChessBoard) o this converts the 'o' object
-   * defined as class "Object" to the ChessBoard class !Objects.equals(a, b) is used because if we
-   * use the != operator, it's looking for the same memory location versus the same value at that
-   * memory location
+   * Replaces every piece on this board with the pieces of another board
+   *
+   * @param other the board to copy from
+   */
+  void copyFrom(ChessBoard other) {
+    System.arraycopy(other.pieces, 0, pieces, 0, pieces.length);
+    System.arraycopy(other.colors, 0, colors, 0, colors.length);
+    System.arraycopy(other.mailbox, 0, mailbox, 0, mailbox.length);
+    occupied = other.occupied;
+    key = other.key;
+    pawnKey = other.pawnKey;
+    middlegame = other.middlegame;
+    endgame = other.endgame;
+    phase = other.phase;
+  }
+
+  /**
+   * Two boards are equal when they hold the same pieces on the same squares, which for bitboards
+   * means every piece mask matches
    *
    * @param o the object being compared against the current object
-   * @return if the classes match
+   * @return if the boards match
    */
   @Override
   public boolean equals(Object o) {
@@ -155,19 +562,12 @@ public class ChessBoard {
     }
 
     ChessBoard that = (ChessBoard) o;
-    for (int i = 0; i < 8; i++) {
-      for (int j = 0; j < 8; j++) {
-        if (!Objects.equals(squares[i][j], that.squares[i][j])) {
-          return false;
-        }
-      }
-    }
-    return true;
+    return Arrays.equals(pieces, that.pieces);
   }
 
   private void identifyPieceTypes(StringBuilder returnString, int x, int y) {
-    var thisPieceType = getPiece(new ChessPosition(x, y)).getPieceType();
-    var thisPieceColor = getPiece(new ChessPosition(x, y)).getTeamColor();
+    var thisPieceType = getPiece(ChessPosition.of(x, y)).getPieceType();
+    var thisPieceColor = getPiece(ChessPosition.of(x, y)).getTeamColor();
 
     if (thisPieceColor == ChessGame.TeamColor.WHITE) {
       switch (thisPieceType) {
@@ -199,7 +599,7 @@ public class ChessBoard {
       // column
       returnString.append(x);
       for (int y = 1; y <= 8; y++) {
-        ChessPiece piece = getPiece(new ChessPosition(x, y));
+        ChessPiece piece = getPiece(ChessPosition.of(x, y));
         if (piece == null) {
           returnString.append(" -");
         } else {
@@ -215,6 +615,6 @@ public class ChessBoard {
 
   @Override
   public int hashCode() {
-    return Arrays.deepHashCode(squares);
+    return Long.hashCode(key);
   }
 }
@@ -0,0 +1,56 @@
+package chess;
+
+import com.google.gson.JsonDeserializationContext;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonSerializationContext;
+import com.google.gson.JsonSerializer;
+import java.lang.reflect.Type;
+
+/**
+ * Reads and writes a {@link ChessBoard} as an 8x8 {@code squares} array of pieces (or nulls), the
+ * same shape the board had before it moved to bitboards, so stored games and clients keep working.
+ */
+final class ChessBoardJsonAdapter
+    implements JsonSerializer<ChessBoard>, JsonDeserializer<ChessBoard> {
+
+  private static final String SQUARES = "squares";
+
+  @Override
+  public JsonElement serialize(ChessBoard board, Type type, JsonSerializationContext context) {
+    ChessPiece[][] squares = new ChessPiece[8][8];
+
+    for (int square = 0; square < Bitboards.SQUARES; square++) {
+      squares[Bitboards.row(square) - 1][Bitboards.col(square) - 1] = board.pieceAt(square);
+    }
+
+    JsonObject json = new JsonObject();
+    json.add(SQUARES, context.serialize(squares, ChessPiece[][].class));
+    return json;
+  }
+
+  @Override
+  public ChessBoard deserialize(JsonElement json, Type type, JsonDeserializationContext context)
+      throws JsonParseException {
+    ChessBoard board = new ChessBoard();
+    if (!json.isJsonObject() || !json.getAsJsonObject().has(SQUARES)) {
+      return board;
+    }
+
+    ChessPiece[][] squares =
+        context.deserialize(json.getAsJsonObject().get(SQUARES), ChessPiece[][].class);
+
+    for (int row = 0; row < squares.length; row++) {
+      for (int col = 0; col < squares[row].length; col++) {
+        ChessPiece piece = squares[row][col];
+        if (piece != null) {
+          board.addPiece(ChessPosition.of(row + 1, col + 1), piece);
+        }
+      }
+    }
+
+    return board;
+  }
+}
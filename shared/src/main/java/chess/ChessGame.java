@@ -7,27 +7,77 @@ import java.util.*;
  * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
+ * <p>
+ * Queries such as {@link #validMoves}, {@link #isInCheck} and {@link #status} never change the
+ * game, so any number of threads may read one game at once. Making moves and the setters are not
+ * synchronized: a game that is being changed must not be read or changed from another thread
+ * at the same time; hand each thread its own {@link #copy()} instead.
  */
 public class ChessGame {
 
   static final boolean IN_CHECKMATE = true;
   static final boolean NOT_IN_CHECKMATE = false;
-  static final boolean CANNOT_MOVE = false;
-  static final boolean CAN_MOVE = true;
   static final boolean IN_STALEMATE = true;
   static final boolean NOT_IN_STALEMATE = false;
 
+  // b1, d1, ..., a2, c2, ...
+  private static final long LIGHT_SQUARES = 0x55AA55AA55AA55AAL;
+
+  // 50 moves by each team
+  private static final int FIFTY_MOVE_PLIES = 100;
+
+  private static final long[] NO_HISTORY = new long[0];
+
   TeamColor turn = TeamColor.WHITE;
   ChessBoard board = new ChessBoard();
 
+  // what the board alone can't show: see Castling for the bits, Bitboards.SQUARES means no target
+  int castlingRights = Castling.ALL;
+  int enPassantSquare = Bitboards.SQUARES;
+
+  // plies since the last capture or pawn move
+  int halfmoveClock;
+  int fullmoveNumber = 1;
+
+  // the position key before each move since the last capture or pawn move, oldest first; positions
+  // from before one of those can never come up again, so this never holds more than the clock
+  long[] keyHistory = NO_HISTORY;
+
+  // scratch space for move generation, one per thread so readers can share a game; every use
+  // clears it first and copies out what it needs before returning
+  private static final ThreadLocal<MoveList> MOVE_BUFFER = ThreadLocal.withInitial(MoveList::new);
+
+  // shared by every game; null means validMoves always generates
+  private static volatile LegalMoveCache moveCache;
+
+  // shared by every game; null means game over is always worked out by move generation
+  private static volatile Tablebase tablebase;
+
   // default constructor is used when a new object is created
   public ChessGame() {
     board.resetBoard();
   }
 
+  /**
+   * Starts a game from a position with no history. Castling rights are assumed for every king and
+   * rook still on its home square.
+   */
   public ChessGame(TeamColor turn, ChessBoard board) {
     this.turn = turn;
     this.board = board;
+    this.castlingRights = Castling.fromBoard(board);
+  }
+
+  /**
+   * @return a separate game in the same position with the same history: castling rights, en
+   *     passant square, move clocks and the keys repetitions are checked against
+   */
+  public ChessGame copy() {
+    final ChessGame copy = new ChessGame(turn, board.copyBoard());
+    copy.setState(castlingRights, enPassantSquare, halfmoveClock, fullmoveNumber);
+    // never changed in place, makeMove replaces it
+    copy.keyHistory = keyHistory;
+    return copy;
   }
 
   /**
@@ -46,6 +96,40 @@ public class ChessGame {
     turn = team;
   }
 
+  /**
+   * Shares a legal move cache between every game, so positions that come up again (in this game or
+   * any other) skip move generation in {@link #validMoves(ChessPosition)}
+   *
+   * @param cache the cache to use, or null to stop caching
+   */
+  public static void setMoveCache(LegalMoveCache cache) {
+    moveCache = cache;
+  }
+
+  /**
+   * @return the shared legal move cache, or null if there isn't one
+   */
+  public static LegalMoveCache getMoveCache() {
+    return moveCache;
+  }
+
+  /**
+   * Shares endgame tablebases between every game, so {@link #isInCheckmate(TeamColor)} and
+   * {@link #isInStalemate(TeamColor)} look up positions they cover instead of generating moves
+   *
+   * @param tablebase the tablebase to use, or null to stop using one
+   */
+  public static void setTablebase(Tablebase tablebase) {
+    ChessGame.tablebase = tablebase;
+  }
+
+  /**
+   * @return the shared tablebase, or null if there isn't one
+   */
+  public static Tablebase getTablebase() {
+    return tablebase;
+  }
+
   /**
    * Gets a valid moves for a piece at the given location
    * This equals piecePossibleMoves minus movesThatPutTheKingInCheck
@@ -61,21 +145,51 @@ public class ChessGame {
       return null;
     }
 
-    final TeamColor teamColor = piece.getTeamColor();
-    final HashSet<ChessMove> possibleMoves = new HashSet<>(
-      board.getPiece(startPosition).pieceMoves(board, startPosition)
-    );
-    HashSet<ChessMove> invalidMoves = new HashSet<>();
+    final int square = startPosition.getSquare();
+    final LegalMoveCache cache = moveCache;
+    final long key = cache == null ? 0 : positionKey();
 
-    for (ChessMove move : possibleMoves) {
-      if (willBeInCheck(teamColor, move)) {
-        invalidMoves.add(move);
+    if (cache != null) {
+      final List<ChessMove> cached = cache.get(key, square);
+      if (cached != null) {
+        return new ArrayList<>(cached);
       }
     }
 
-    possibleMoves.removeAll(invalidMoves);
+    // only the team to move can take en passant, the chance is gone by the time the other moves
+    final MoveList buffer = MOVE_BUFFER.get();
+    buffer.clear();
+    MoveGenerator.generate(
+      board,
+      piece.getTeamColor(),
+      Bitboards.bit(square),
+      castlingRights,
+      piece.getTeamColor() == turn ? enPassantSquare : Bitboards.SQUARES,
+      buffer
+    );
 
-    return possibleMoves;
+    final List<ChessMove> moves = buffer.toList();
+    if (cache != null) {
+      cache.put(key, square, moves);
+    }
+    return moves;
+  }
+
+  /**
+   * @return every legal move for the team whose turn it is
+   */
+  public Collection<ChessMove> legalMoves() {
+    return legalMoves(turn);
+  }
+
+  /**
+   * Generates every legal move for a team in one pass over the board
+   *
+   * @param teamColor the team to generate moves for
+   * @return every legal move that team could make
+   */
+  public Collection<ChessMove> legalMoves(TeamColor teamColor) {
+    return generateAll(teamColor).toList();
   }
 
   /**
@@ -86,7 +200,6 @@ public class ChessGame {
    */
   public void makeMove(ChessMove move) throws InvalidMoveException {
     final ChessPosition start = move.getStartPosition();
-    final ChessPosition end = move.getEndPosition();
 
     final ChessPiece movingPiece = board.getPiece(start);
     if (movingPiece == null) {
@@ -101,21 +214,32 @@ public class ChessGame {
       throw new InvalidMoveException("Invalid move");
     }
 
-    final TeamColor teamColor = board.getPiece(start).getTeamColor();
-    final ChessPiece.PieceType promotionPiece = move.getPromotionPiece();
+    final TeamColor teamColor = movingPiece.getTeamColor();
+    final int packed = move.toPacked();
+    final boolean irreversible =
+      movingPiece.getPieceType() == ChessPiece.PieceType.PAWN
+        || board.getPiece(move.getEndPosition()) != null;
 
-    if (promotionPiece != null) {
-      board.addPiece(end, new ChessPiece(teamColor, promotionPiece));
+    if (irreversible) {
+      halfmoveClock = 0;
+      keyHistory = NO_HISTORY;
     } else {
-      board.addPiece(end, movingPiece);
+      halfmoveClock++;
+      keyHistory = Arrays.copyOf(keyHistory, keyHistory.length + 1);
+      keyHistory[keyHistory.length - 1] = positionKey();
     }
 
-    board.removePiece(start);
+    board.makeMove(packed);
+    castlingRights = Castling.afterMove(castlingRights, packed);
+    enPassantSquare = MoveGenerator.enPassantSquare(board, teamColor, packed);
 
     final TeamColor enemyColor = (teamColor == TeamColor.WHITE)
       ? TeamColor.BLACK
       : TeamColor.WHITE;
 
+    if (teamColor == TeamColor.BLACK) {
+      fullmoveNumber++;
+    }
     setTeamTurn(enemyColor);
   }
 
@@ -140,68 +264,25 @@ public class ChessGame {
     board.removePiece(start);
   }
 
-  /**
-   * @param teamColor of the team
-   * @return collection of enemy moves for every piece
-   */
-  private ArrayList<ChessMove> getPossibleMoves(
-    TeamColor teamColor,
-    ChessBoard board
-  ) {
-    var possibleMoves = new ArrayList<ChessMove>();
-
-    for (int x = 1; x <= 8; x++) {
-      for (int y = 1; y <= 8; y++) {
-        var checkingPosition = new ChessPosition(x, y);
-        var checkingPiece = board.getPiece(checkingPosition);
-
-        if (checkingPiece == null) {
-          continue;
-        }
-
-        var checkingPieceColor = checkingPiece.getTeamColor();
-
-        if (checkingPieceColor != teamColor) {
-          continue;
-        }
-
-        possibleMoves.addAll(checkingPiece.pieceMoves(board, checkingPosition));
-      }
-    }
-
-    return possibleMoves;
+  private boolean hasLegalMove(TeamColor teamColor) {
+    return !generateAll(teamColor).isEmpty();
   }
 
   /**
-   * @param teamColor of the team
-   * @return collection of enemy moves for every piece
+   * @return every legal move for a team, in this thread's buffer until the next generation
    */
-  private HashSet<ChessMove> getTeamsValidMoves(
-    TeamColor teamColor,
-    ChessBoard board
-  ) {
-    var teamsValidMoves = new HashSet<ChessMove>();
-
-    for (int x = 1; x <= 8; x++) {
-      for (int y = 1; y <= 8; y++) {
-        var position = new ChessPosition(x, y);
-        var piece = board.getPiece(position);
-
-        if (piece == null) {
-          continue;
-        }
-
-        var pieceColor = piece.getTeamColor();
-
-        if (pieceColor != teamColor) {
-          continue;
-        }
-
-        teamsValidMoves.addAll(validMoves(position));
-      }
-    }
-
-    return teamsValidMoves;
+  private MoveList generateAll(TeamColor teamColor) {
+    final MoveList buffer = MOVE_BUFFER.get();
+    buffer.clear();
+    MoveGenerator.generate(
+      board,
+      teamColor,
+      board.occupancy(teamColor),
+      castlingRights,
+      teamColor == turn ? enPassantSquare : Bitboards.SQUARES,
+      buffer
+    );
+    return buffer;
   }
 
   /**
@@ -209,35 +290,13 @@ public class ChessGame {
    * @return location of requested team's king position
    */
   private ChessPosition findKing(TeamColor teamColor, ChessBoard board) {
-    ChessPosition thisKingsPosition = null;
-
-    for (int x = 1; x <= 8; x++) {
-      for (int y = 1; y <= 8; y++) {
-        var checkingPosition = new ChessPosition(x, y);
-        var checkingPiece = board.getPiece(checkingPosition);
-
-        if (checkingPiece == null) {
-          continue;
-        }
-
-        var checkingPieceColor = checkingPiece.getTeamColor();
-        var checkingPieceType = checkingPiece.getPieceType();
-
-        if (
-          checkingPieceColor == teamColor &&
-          checkingPieceType == ChessPiece.PieceType.KING
-        ) {
-          thisKingsPosition = checkingPosition;
-          break;
-        }
-      }
-    }
+    final int kingSquare = board.kingSquare(teamColor);
 
-    if (thisKingsPosition == null) {
+    if (kingSquare == Bitboards.SQUARES) {
       throw new RuntimeException("No king is on the board");
     }
 
-    return thisKingsPosition;
+    return Bitboards.position(kingSquare);
   }
 
   /**
@@ -252,115 +311,233 @@ public class ChessGame {
     final TeamColor enemyColor = (teamColor == TeamColor.WHITE)
       ? TeamColor.BLACK
       : TeamColor.WHITE;
-    var enemyPossibleMoves = getPossibleMoves(enemyColor, board);
 
-    for (ChessMove move : enemyPossibleMoves) {
-      if (move.getEndPosition().equals(thisKingsPosition)) {
-        return true;
-      }
+    return board.isSquareAttacked(thisKingsPosition, enemyColor);
+  }
+
+  public boolean willBeInCheck(TeamColor teamColor, ChessMove move) {
+    if (board.getPiece(move.getStartPosition()) == null) {
+      return isInCheck(teamColor);
     }
 
-    return false;
+    return board.isKingAttackedAfter(
+      move.getStartPosition().getSquare(),
+      move.getEndPosition().getSquare(),
+      move.getPromotionPiece(),
+      teamColor
+    );
   }
 
-  public boolean willBeInCheck(TeamColor teamColor, ChessMove move) {
-    final ChessBoard copyBoard = board.copyBoard();
+  /**
+   * Determines if the given team is in checkmate
+   *
+   * @param teamColor which team to check for checkmate
+   * @return True if the specified team is in checkmate
+   */
+  public boolean isInCheckmate(TeamColor teamColor) {
+    final Tablebase.Result known = probeTablebase(teamColor);
+    if (known != null) {
+      return known.isCheckmate() ? IN_CHECKMATE : NOT_IN_CHECKMATE;
+    }
 
-    makeUnrestrictedMove(move, copyBoard);
+    if (isInCheck(teamColor) && !hasLegalMove(teamColor)) {
+      return IN_CHECKMATE;
+    }
 
-    final TeamColor enemyColor = (teamColor == TeamColor.WHITE)
-      ? TeamColor.BLACK
-      : TeamColor.WHITE;
+    return NOT_IN_CHECKMATE;
+  }
 
-    var enemyPossibleMoves = getPossibleMoves(enemyColor, copyBoard);
-    final ChessPosition thisKingsPosition = findKing(teamColor, copyBoard);
+  /**
+   * Determines if the given team is in stalemate, which here is defined as having
+   * no valid moves
+   *
+   * @param teamColor which team to check for stalemate
+   * @return True if the specified team is in stalemate, otherwise false
+   */
+  public boolean isInStalemate(TeamColor teamColor) {
+    final Tablebase.Result known = probeTablebase(teamColor);
+    if (known != null) {
+      return known.stalemate() ? IN_STALEMATE : NOT_IN_STALEMATE;
+    }
 
-    return enemyPossibleMoves
-      .stream()
-      .anyMatch(enemyMove ->
-        enemyMove.getEndPosition().equals(thisKingsPosition)
-      );
+    if (!isInCheck(teamColor) && !hasLegalMove(teamColor)) {
+      return IN_STALEMATE;
+    }
+
+    return NOT_IN_STALEMATE;
   }
 
   /**
-   * This includes checking to make sure he does
-   * not move into check
-   * @param teamColor team color
-   * @param board current or theoretical board
-   * @return if he can move or not boolean
+   * @return the status of the team whose turn it is
    */
-  private boolean canKingMove(TeamColor teamColor, ChessBoard board) {
-    final ChessPosition kingPosition = findKing(teamColor, board);
-    final Collection<ChessMove> kingMoves = board
-      .getPiece(kingPosition)
-      .pieceMoves(board, kingPosition);
+  public GameStatus status() {
+    return status(turn);
+  }
 
-    final TeamColor enemyColor = (teamColor == TeamColor.WHITE)
-      ? TeamColor.BLACK
-      : TeamColor.WHITE;
-    final Collection<ChessMove> enemyPossibleMoves = getPossibleMoves(
-      enemyColor,
-      board
+  /**
+   * Works out check, checkmate, stalemate, the number of legal moves and whether there is enough
+   * material to mate, generating the team's moves only once. Checking all of these one at a time
+   * would generate them again for each question.
+   *
+   * @param teamColor the team to look at
+   * @return the team's status
+   */
+  public GameStatus status(TeamColor teamColor) {
+    return new GameStatus(
+      teamColor,
+      board.isKingAttacked(teamColor),
+      generateAll(teamColor).size(),
+      hasInsufficientMaterial()
     );
+  }
 
-    Set<ChessPosition> kingEndPositions = new HashSet<>();
-    for (ChessMove move : kingMoves) {
-      kingEndPositions.add(move.getEndPosition());
+  /**
+   * Determines if neither team can ever checkmate: kings alone, a king and one bishop or knight
+   * against a lone king, or only bishops that all stand on the same color of square
+   *
+   * @return True if the position is dead for lack of material
+   */
+  public boolean hasInsufficientMaterial() {
+    final long majorsAndPawns =
+      board.pieces(TeamColor.WHITE, ChessPiece.PieceType.QUEEN)
+        | board.pieces(TeamColor.BLACK, ChessPiece.PieceType.QUEEN)
+        | board.pieces(TeamColor.WHITE, ChessPiece.PieceType.ROOK)
+        | board.pieces(TeamColor.BLACK, ChessPiece.PieceType.ROOK)
+        | board.pieces(TeamColor.WHITE, ChessPiece.PieceType.PAWN)
+        | board.pieces(TeamColor.BLACK, ChessPiece.PieceType.PAWN);
+    if (majorsAndPawns != 0) {
+      return false;
     }
 
-    Set<ChessPosition> enemyEndPositions = new HashSet<>();
-    for (ChessMove move : enemyPossibleMoves) {
-      enemyEndPositions.add(move.getEndPosition());
-    }
+    final long knights =
+      board.pieces(TeamColor.WHITE, ChessPiece.PieceType.KNIGHT)
+        | board.pieces(TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
+    final long bishops =
+      board.pieces(TeamColor.WHITE, ChessPiece.PieceType.BISHOP)
+        | board.pieces(TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
 
-    if (enemyEndPositions.containsAll(kingEndPositions)) {
-      return CANNOT_MOVE;
+    if (Long.bitCount(knights | bishops) <= 1) {
+      return true;
     }
 
-    for (ChessMove move : kingMoves) {
-      if (!willBeInCheck(teamColor, move)) {
-        return CAN_MOVE;
+    return knights == 0
+      && ((bishops & LIGHT_SQUARES) == 0 || (bishops & ~LIGHT_SQUARES) == 0);
+  }
+
+  /**
+   * Determines if the current position has come up at least twice before with the same team to
+   * move, the same castling rights and the same en passant capture available. Only positions
+   * since the last capture or pawn move are compared, so this costs at most one comparison per
+   * move on the halfmove clock.
+   *
+   * @return True if the position has occurred three times
+   */
+  public boolean isThreefoldRepetition() {
+    final long key = positionKey();
+    int occurrences = 1;
+
+    // the team to move alternates, so only every other earlier position can match
+    for (int i = keyHistory.length - 2; i >= 0; i -= 2) {
+      if (keyHistory[i] == key && ++occurrences == 3) {
+        return true;
       }
     }
 
-    return CANNOT_MOVE;
+    return false;
   }
 
   /**
-   * Determines if the given team is in checkmate
+   * Determines if fifty moves by each team have gone by without a capture or pawn move
    *
-   * @param teamColor which team to check for checkmate
-   * @return True if the specified team is in checkmate
+   * @return True if a draw can be claimed under the fifty-move rule
    */
-  public boolean isInCheckmate(TeamColor teamColor) {
-    if (canKingMove(teamColor, board)) {
-      return NOT_IN_CHECKMATE;
+  public boolean isFiftyMoveRule() {
+    return halfmoveClock >= FIFTY_MOVE_PLIES;
+  }
+
+  /**
+   * @return plies since the last capture or pawn move
+   */
+  public int getHalfmoveClock() {
+    return halfmoveClock;
+  }
+
+  /**
+   * @return the move number, starting at 1 and going up after each of black's moves
+   */
+  public int getFullmoveNumber() {
+    return fullmoveNumber;
+  }
+
+  /**
+   * @return the {@link Castling} rights both teams still have
+   */
+  int castlingRights() {
+    return castlingRights;
+  }
+
+  /**
+   * @return the square the team to move can capture onto en passant, or {@link Bitboards#SQUARES}
+   */
+  int enPassantSquare() {
+    return enPassantSquare;
+  }
+
+  /**
+   * Sets the state that isn't on the board, forgetting the history of earlier positions
+   */
+  void setState(int castlingRights, int enPassantSquare, int halfmoveClock, int fullmoveNumber) {
+    this.castlingRights = castlingRights;
+    this.enPassantSquare = enPassantSquare;
+    this.halfmoveClock = halfmoveClock;
+    this.fullmoveNumber = fullmoveNumber;
+    this.keyHistory = NO_HISTORY;
+  }
+
+  /**
+   * @return the tablebase result with the team to move, or null if there is no tablebase or it
+   *     doesn't cover the position
+   */
+  private Tablebase.Result probeTablebase(TeamColor teamColor) {
+    final Tablebase endgames = tablebase;
+    if (endgames == null || Long.bitCount(board.occupancy()) > endgames.maxPieces()) {
+      return null;
     }
 
-    if (
-      getTeamsValidMoves(teamColor, board).isEmpty() && isInCheck(teamColor)
-    ) {
-      return IN_CHECKMATE;
+    // the tables know nothing of castling or en passant
+    if (castlingRights != Castling.NONE
+      || (teamColor == turn && enPassantSquare < Bitboards.SQUARES)) {
+      return null;
     }
 
-    return NOT_IN_CHECKMATE;
+    return endgames.probe(board, teamColor);
   }
 
   /**
-   * Determines if the given team is in stalemate, which here is defined as having
-   * no valid moves
+   * A 64-bit Zobrist key for the position: the pieces on the board, the side to move, the castling
+   * rights and any en passant capture. The board keeps its part up to date on every change, so
+   * this costs a few XORs.
    *
-   * @param teamColor which team to check for stalemate
-   * @return True if the specified team is in stalemate, otherwise false
+   * @return the same key for any two games in the same position
    */
-  public boolean isInStalemate(TeamColor teamColor) {
-    if (
-      getTeamsValidMoves(teamColor, board).isEmpty() && !isInCheck(teamColor)
-    ) {
-      return IN_STALEMATE;
-    }
+  public long positionKey() {
+    return positionKey(board, turn, castlingRights, enPassantSquare);
+  }
 
-    return NOT_IN_STALEMATE;
+  static long positionKey(
+    ChessBoard board,
+    TeamColor toMove,
+    int castlingRights,
+    int enPassantSquare
+  ) {
+    long key = board.key() ^ Zobrist.CASTLING[castlingRights];
+    if (toMove == TeamColor.BLACK) {
+      key ^= Zobrist.BLACK_TO_MOVE;
+    }
+    if (enPassantSquare < Bitboards.SQUARES) {
+      key ^= Zobrist.EN_PASSANT_FILE[enPassantSquare & 7];
+    }
+    return key;
   }
 
   /**
@@ -373,23 +550,14 @@ public class ChessGame {
   }
 
   /**
-   * Sets this game's chessboard with a given board
+   * Sets this game's chessboard with a given board. The game's history is forgotten and castling
+   * rights are assumed for every king and rook on its home square.
    *
    * @param board the new board to use
    */
   public void setBoard(ChessBoard board) {
-    this.board.emptyBoard();
-
-    for (int x = 1; x <= 8; x++) {
-      for (int y = 1; y <= 8; y++) {
-        ChessPosition checkingPosition = new ChessPosition(x, y);
-        ChessPiece pieceCopying = board.getPiece(checkingPosition);
-        if (pieceCopying == null) {
-          continue;
-        }
-        this.board.addPiece(checkingPosition, board.getPiece(checkingPosition));
-      }
-    }
+    this.board.copyFrom(board);
+    setState(Castling.fromBoard(board), Bitboards.SQUARES, 0, 1);
   }
 
   @Override
@@ -406,12 +574,15 @@ public class ChessGame {
       return false;
     }
     ChessGame chessGame = (ChessGame) o;
-    return turn == chessGame.turn && Objects.equals(board, chessGame.board);
+    return turn == chessGame.turn
+      && castlingRights == chessGame.castlingRights
+      && enPassantSquare == chessGame.enPassantSquare
+      && Objects.equals(board, chessGame.board);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(turn, board);
+    return Long.hashCode(positionKey());
   }
 
   /**
@@ -0,0 +1,170 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Packs a {@link ChessGame} into a few dozen bytes for storage, instead of the 8x8 array of piece
+ * objects that Gson writes.
+ *
+ * <p>Version 1 is laid out as:
+ *
+ * <ul>
+ *   <li>1 byte: the version
+ *   <li>32 bytes: 4 bits per square from a1 along each row to h8, lower nibble first, holding 0
+ *       for an empty square or {@link ChessPiece#index()} + 1
+ *   <li>1 byte: black to move in bit 0, {@link Castling} rights in bits 1-4
+ *   <li>1 byte: the en passant square, or 0xFF if there isn't one
+ *   <li>2 bytes each: the halfmove clock, the fullmove number and how many history keys follow
+ *   <li>8 bytes per key of the positions since the last capture or pawn move, so repetitions are
+ *       still noticed after a round trip
+ * </ul>
+ *
+ * <p>Everything is big-endian. The version never starts with '{', so encoded games can be told
+ * apart from games stored as JSON.
+ */
+public final class ChessGameCodec {
+
+  /** The version {@link #encode(ChessGame)} writes */
+  public static final int VERSION = 1;
+
+  private static final int BOARD_BYTES = Bitboards.SQUARES / 2;
+  private static final int HEADER_BYTES = 1 + BOARD_BYTES + 1 + 1 + 2 + 2 + 2;
+  private static final int NO_EN_PASSANT = 0xFF;
+  private static final int MAX_COUNTER = 0xFFFF;
+
+  private static final Gson GSON = new Gson();
+
+  private ChessGameCodec() {}
+
+  /**
+   * @param game the game to encode
+   * @return the game in the current version's layout, 41 bytes plus 8 per history key
+   * @throws IllegalArgumentException if a move counter is too big to store
+   */
+  public static byte[] encode(ChessGame game) {
+    final ChessBoard board = game.getBoard();
+    final long[] history = game.keyHistory;
+
+    if (game.halfmoveClock > MAX_COUNTER
+        || game.fullmoveNumber > MAX_COUNTER
+        || history.length > MAX_COUNTER) {
+      throw new IllegalArgumentException("Game is too long to encode");
+    }
+
+    final ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + history.length * Long.BYTES);
+    buffer.put((byte) VERSION);
+
+    for (int square = 0; square < Bitboards.SQUARES; square += 2) {
+      final int low = board.pieceIndexAt(square) + 1;
+      final int high = board.pieceIndexAt(square + 1) + 1;
+      buffer.put((byte) (low | (high << 4)));
+    }
+
+    final int black = game.getTeamTurn() == ChessGame.TeamColor.BLACK ? 1 : 0;
+    buffer.put((byte) (black | (game.castlingRights << 1)));
+    buffer.put(
+        (byte) (game.enPassantSquare < Bitboards.SQUARES ? game.enPassantSquare : NO_EN_PASSANT));
+    buffer.putShort((short) game.halfmoveClock);
+    buffer.putShort((short) game.fullmoveNumber);
+    buffer.putShort((short) history.length);
+
+    for (long key : history) {
+      buffer.putLong(key);
+    }
+
+    return buffer.array();
+  }
+
+  /**
+   * @param bytes a game written by {@link #encode(ChessGame)}, in this or any earlier version
+   * @return the game
+   * @throws IllegalArgumentException if the bytes aren't an encoded game
+   */
+  public static ChessGame decode(byte[] bytes) {
+    if (bytes.length == 0 || bytes[0] != VERSION) {
+      throw new IllegalArgumentException(
+          "Unknown game encoding version: " + (bytes.length == 0 ? "none" : bytes[0]));
+    }
+
+    try {
+      return decodeVersion1(ByteBuffer.wrap(bytes, 1, bytes.length - 1));
+    } catch (BufferUnderflowException e) {
+      throw new IllegalArgumentException("Encoded game is cut short");
+    }
+  }
+
+  /**
+   * Reads a game stored as Gson JSON before games were encoded. Older JSON only holds the board and
+   * the side to move, and Gson would leave everything else at a new game's values: every castling
+   * right and the start position's history. Those games get the state {@link
+   * ChessGame#ChessGame(ChessGame.TeamColor, ChessBoard)} infers from the board instead.
+   *
+   * @param json the stored game
+   * @return the game
+   * @throws com.google.gson.JsonParseException if the JSON isn't a game
+   */
+  public static ChessGame decodeJson(String json) {
+    final JsonObject stored = JsonParser.parseString(json).getAsJsonObject();
+    final ChessGame game = GSON.fromJson(stored, ChessGame.class);
+
+    if (stored.has("castlingRights")) {
+      // written after games started keeping their own state
+      return game;
+    }
+    return new ChessGame(game.getTeamTurn(), game.getBoard());
+  }
+
+  private static ChessGame decodeVersion1(ByteBuffer buffer) {
+    final ChessBoard board = new ChessBoard();
+
+    for (int square = 0; square < Bitboards.SQUARES; square += 2) {
+      final int pair = buffer.get() & 0xFF;
+      addPiece(board, square, pair & 0xF);
+      addPiece(board, square + 1, pair >>> 4);
+    }
+
+    final int state = buffer.get() & 0xFF;
+    final int enPassantSquare = buffer.get() & 0xFF;
+    final int halfmoveClock = buffer.getShort() & MAX_COUNTER;
+    final int fullmoveNumber = buffer.getShort() & MAX_COUNTER;
+    final int historyLength = buffer.getShort() & MAX_COUNTER;
+
+    if (state >>> 5 != 0
+        || (enPassantSquare >= Bitboards.SQUARES && enPassantSquare != NO_EN_PASSANT)
+        || buffer.remaining() != historyLength * Long.BYTES) {
+      throw new IllegalArgumentException("Encoded game is corrupt");
+    }
+
+    final long[] history = new long[historyLength];
+    for (int i = 0; i < history.length; i++) {
+      history[i] = buffer.getLong();
+    }
+
+    final ChessGame game =
+        new ChessGame(
+            (state & 1) == 1 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE, board);
+    game.setState(
+        state >>> 1,
+        enPassantSquare == NO_EN_PASSANT ? Bitboards.SQUARES : enPassantSquare,
+        halfmoveClock,
+        fullmoveNumber);
+    if (history.length > 0) {
+      game.keyHistory = history;
+    }
+
+    return game;
+  }
+
+  private static void addPiece(ChessBoard board, int square, int code) {
+    if (code > ChessPiece.PIECE_KINDS) {
+      throw new IllegalArgumentException("Encoded game is corrupt");
+    }
+    if (code != 0) {
+      board.addPiece(ChessPosition.ofSquare(square), ChessPiece.of(code - 1));
+    }
+  }
+}
@@ -9,6 +9,20 @@ import java.util.Objects;
  */
 public class ChessMove {
 
+  // packed moves hold the start square in bits 0-5, the end square in bits 6-11 and the promotion
+  // piece (ordinal + 1, or 0 for none) in bits 12-14
+  private static final int SQUARE_BITS = 0x3F;
+  private static final int END_SHIFT = 6;
+  private static final int PROMOTION_SHIFT = 12;
+
+  private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+
+  /**
+   * Shared moves by packed value, filled in as they are first asked for. Moves are immutable, so
+   * two threads racing to fill the same slot is harmless.
+   */
+  private static final ChessMove[] MOVES = new ChessMove[1 << 15];
+
   private final ChessPosition startPosition;
   private final ChessPosition endPosition;
   private final ChessPiece.PieceType promotionPiece;
@@ -20,6 +34,68 @@ public class ChessMove {
     this.promotionPiece = promotionPiece;
   }
 
+  /**
+   * @return the shared move for these squares and promotion piece
+   */
+  public static ChessMove of(
+      ChessPosition startPosition, ChessPosition endPosition, ChessPiece.PieceType promotionPiece) {
+    return fromPacked(pack(startPosition.getSquare(), endPosition.getSquare(), promotionPiece));
+  }
+
+  /**
+   * @param packed a move from {@link #pack(int, int, ChessPiece.PieceType)}
+   * @return the shared move for the packed value
+   */
+  public static ChessMove fromPacked(int packed) {
+    ChessMove move = MOVES[packed];
+    if (move == null) {
+      final int promotion = packed >>> PROMOTION_SHIFT;
+      move =
+          new ChessMove(
+              ChessPosition.ofSquare(packed & SQUARE_BITS),
+              ChessPosition.ofSquare((packed >>> END_SHIFT) & SQUARE_BITS),
+              promotion == 0 ? null : PIECE_TYPES[promotion - 1]);
+      MOVES[packed] = move;
+    }
+    return move;
+  }
+
+  /**
+   * Encodes a move as an int so move generation can work without allocating
+   *
+   * @param start 0-63 start square
+   * @param end 0-63 end square
+   * @param promotionPiece piece to promote to, or null
+   * @return the packed move
+   */
+  public static int pack(int start, int end, ChessPiece.PieceType promotionPiece) {
+    final int promotion = promotionPiece == null ? 0 : promotionPiece.ordinal() + 1;
+    return start | (end << END_SHIFT) | (promotion << PROMOTION_SHIFT);
+  }
+
+  public static int startSquare(int packed) {
+    return packed & SQUARE_BITS;
+  }
+
+  public static int endSquare(int packed) {
+    return (packed >>> END_SHIFT) & SQUARE_BITS;
+  }
+
+  /**
+   * @return the promotion piece of a packed move, or null
+   */
+  public static ChessPiece.PieceType promotionPiece(int packed) {
+    final int promotion = packed >>> PROMOTION_SHIFT;
+    return promotion == 0 ? null : PIECE_TYPES[promotion - 1];
+  }
+
+  /**
+   * @return this move packed into an int, see {@link #pack(int, int, ChessPiece.PieceType)}
+   */
+  public int toPacked() {
+    return pack(startPosition.getSquare(), endPosition.getSquare(), promotionPiece);
+  }
+
   /**
    * @return ChessPosition of starting location
    */
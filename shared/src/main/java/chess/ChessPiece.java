@@ -2,7 +2,6 @@ package chess;
 
 import static chess.PawnMoves.*;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Objects;
 
@@ -20,6 +19,19 @@ public class ChessPiece {
   protected static final int LEFT = -1;
   protected static final int NO_CHANGE = 0;
 
+  /** Number of distinct color and type combinations */
+  static final int PIECE_KINDS = 12;
+
+  private static final ChessPiece[] PIECES = new ChessPiece[PIECE_KINDS];
+
+  static {
+    for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+      for (PieceType type : PieceType.values()) {
+        PIECES[index(color, type)] = new ChessPiece(color, type);
+      }
+    }
+  }
+
   private final ChessGame.TeamColor pieceColor;
   private final PieceType type;
 
@@ -28,6 +40,29 @@ public class ChessPiece {
     this.type = type;
   }
 
+  /**
+   * Pieces are immutable, so a single shared instance is kept for each color and type
+   * @return the shared piece for the given color and type
+   */
+  static ChessPiece of(ChessGame.TeamColor pieceColor, PieceType type) {
+    return PIECES[index(pieceColor, type)];
+  }
+
+  static ChessPiece of(int index) {
+    return PIECES[index];
+  }
+
+  /**
+   * @return 0-11 index for the color and type (color * 6 + type)
+   */
+  static int index(ChessGame.TeamColor pieceColor, PieceType type) {
+    return pieceColor.ordinal() * 6 + type.ordinal();
+  }
+
+  int index() {
+    return index(pieceColor, type);
+  }
+
   /**
    * Determines if a move is in bounds or not
    * @param myPosition initial position
@@ -46,20 +81,27 @@ public class ChessPiece {
   }
 
   protected static void addMoves(
-    ArrayList<ChessMove> validMoves,
+    MoveList validMoves,
+    ChessPosition myPosition,
+    ChessPosition checkingPosition
+  ) {
+    final int start = myPosition.getSquare();
+    final int end = checkingPosition.getSquare();
+
+    validMoves.add(ChessMove.pack(start, end, PieceType.QUEEN));
+    validMoves.add(ChessMove.pack(start, end, PieceType.KNIGHT));
+    validMoves.add(ChessMove.pack(start, end, PieceType.BISHOP));
+    validMoves.add(ChessMove.pack(start, end, PieceType.ROOK));
+  }
+
+  protected static void addMove(
+    MoveList validMoves,
     ChessPosition myPosition,
     ChessPosition checkingPosition
   ) {
     validMoves.add(
-      new ChessMove(myPosition, checkingPosition, PieceType.QUEEN)
-    );
-    validMoves.add(
-      new ChessMove(myPosition, checkingPosition, PieceType.KNIGHT)
-    );
-    validMoves.add(
-      new ChessMove(myPosition, checkingPosition, PieceType.BISHOP)
+      ChessMove.pack(myPosition.getSquare(), checkingPosition.getSquare(), null)
     );
-    validMoves.add(new ChessMove(myPosition, checkingPosition, PieceType.ROOK));
   }
 
   /**
@@ -77,25 +119,22 @@ public class ChessPiece {
   }
 
   /**
-   * Finds valid moves in the given direction and returns them
+   * Finds valid moves in the given direction and adds them
    * This takes into account the color and taking of enemy pieces
    * @param board the board
    * @param myPosition initial position
    * @param rowChange the direction the piece will move diagonally (-1 or +1)
    * @param colChange the direction the piece will move horizontally
-   * @return returns all valid moves
+   * @param validMoves where the valid moves are added
    */
-  private Collection<ChessMove> checkAndReturnMoves(
+  private void checkAndAddMoves(
     ChessBoard board,
     ChessPosition myPosition,
     int rowChange,
-    int colChange
+    int colChange,
+    MoveList validMoves
   ) {
-    var validMoves = new ArrayList<ChessMove>();
-    var checkingPosition = new ChessPosition(
-      myPosition.getRow(),
-      myPosition.getColumn()
-    );
+    var checkingPosition = myPosition;
 
     while (true) {
       int newRow = checkingPosition.getRow() + rowChange;
@@ -105,24 +144,19 @@ public class ChessPiece {
         break;
       }
 
-      checkingPosition = new ChessPosition(newRow, newCol);
+      checkingPosition = ChessPosition.of(newRow, newCol);
       ChessPiece otherPiece = board.getPiece(checkingPosition);
 
       if (otherPiece == null) {
-        validMoves.add(new ChessMove(myPosition, checkingPosition, null));
+        addMove(validMoves, myPosition, checkingPosition);
         continue;
       }
 
-      if (
-        board.getPiece(myPosition).getTeamColor() !=
-        board.getPiece(checkingPosition).getTeamColor()
-      ) {
-        validMoves.add(new ChessMove(myPosition, checkingPosition, null));
+      if (pieceColor != otherPiece.getTeamColor()) {
+        addMove(validMoves, myPosition, checkingPosition);
       }
       break;
     }
-
-    return validMoves;
   }
 
   /**
@@ -132,104 +166,68 @@ public class ChessPiece {
    * @param myPosition the initial position
    * @param rowChange UP/DOWN/NO_CHANGE * whatever amount to move
    * @param colChange RIGHT/LEFT/NO_CHANGE * whatever amount to move
-   * @return returns an array of ChessMove(s) that will either contain one move or an empty array
+   * @param validMoves where the move is added, if it is possible
    */
-  private Collection<ChessMove> addSimpleMoveIfPossible(
+  private void addSimpleMoveIfPossible(
     ChessBoard board,
     ChessPosition myPosition,
     int rowChange,
-    int colChange
+    int colChange,
+    MoveList validMoves
   ) {
-    var validMoves = new ArrayList<ChessMove>();
-    var thisPieceColor = board.getPiece(myPosition).getTeamColor();
-    var checkingPosition = new ChessPosition(
-      myPosition.getRow(),
-      myPosition.getColumn()
-    );
-
     if (isInBounds(myPosition, rowChange, colChange)) {
-      checkingPosition = new ChessPosition(
+      var checkingPosition = ChessPosition.of(
         myPosition.getRow() + rowChange,
         myPosition.getColumn() + colChange
       );
+      var otherPiece = board.getPiece(checkingPosition);
 
-      if (
-        (board.getPiece(checkingPosition) == null) ||
-        (board.getPiece(checkingPosition).getTeamColor() != thisPieceColor)
-      ) {
-        validMoves.add(new ChessMove(myPosition, checkingPosition, null));
+      if (otherPiece == null || otherPiece.getTeamColor() != pieceColor) {
+        addMove(validMoves, myPosition, checkingPosition);
       }
     }
-
-    return validMoves;
   }
 
   /**
    * Calculates the possible moves for the King
    * @param board the chess board
    * @param myPosition the initial position
-   * @return returns an array of ChessMove(s) the King is able to make
+   * @param validMoves where the King's moves are added
    */
-  private Collection<ChessMove> calculateKingMoves(
+  private void calculateKingMoves(
     ChessBoard board,
-    ChessPosition myPosition
+    ChessPosition myPosition,
+    MoveList validMoves
   ) {
-    var validMoves = new ArrayList<ChessMove>();
-
-    validMoves.addAll(
-      addSimpleMoveIfPossible(board, myPosition, UP, NO_CHANGE)
-    );
-    validMoves.addAll(addSimpleMoveIfPossible(board, myPosition, UP, RIGHT));
-    validMoves.addAll(addSimpleMoveIfPossible(board, myPosition, UP, LEFT));
-    validMoves.addAll(
-      addSimpleMoveIfPossible(board, myPosition, DOWN, NO_CHANGE)
-    );
-    validMoves.addAll(addSimpleMoveIfPossible(board, myPosition, DOWN, RIGHT));
-    validMoves.addAll(addSimpleMoveIfPossible(board, myPosition, DOWN, LEFT));
-    validMoves.addAll(
-      addSimpleMoveIfPossible(board, myPosition, NO_CHANGE, RIGHT)
-    );
-    validMoves.addAll(
-      addSimpleMoveIfPossible(board, myPosition, NO_CHANGE, LEFT)
-    );
-
-    return validMoves;
+    addSimpleMoveIfPossible(board, myPosition, UP, NO_CHANGE, validMoves);
+    addSimpleMoveIfPossible(board, myPosition, UP, RIGHT, validMoves);
+    addSimpleMoveIfPossible(board, myPosition, UP, LEFT, validMoves);
+    addSimpleMoveIfPossible(board, myPosition, DOWN, NO_CHANGE, validMoves);
+    addSimpleMoveIfPossible(board, myPosition, DOWN, RIGHT, validMoves);
+    addSimpleMoveIfPossible(board, myPosition, DOWN, LEFT, validMoves);
+    addSimpleMoveIfPossible(board, myPosition, NO_CHANGE, RIGHT, validMoves);
+    addSimpleMoveIfPossible(board, myPosition, NO_CHANGE, LEFT, validMoves);
   }
 
   /**
    * Calculates the possible moves for the Knight
    * @param board the chess board
    * @param myPosition the initial position
-   * @return returns an array of ChessMove(s) the Knight is able to make
+   * @param validMoves where the Knight's moves are added
    */
-  private Collection<ChessMove> calculateKnightMoves(
+  private void calculateKnightMoves(
     ChessBoard board,
-    ChessPosition myPosition
+    ChessPosition myPosition,
+    MoveList validMoves
   ) {
-    var validMoves = new ArrayList<ChessMove>();
-
-    validMoves.addAll(
-      addSimpleMoveIfPossible(board, myPosition, UP * 2, RIGHT)
-    );
-    validMoves.addAll(addSimpleMoveIfPossible(board, myPosition, UP * 2, LEFT));
-    validMoves.addAll(
-      addSimpleMoveIfPossible(board, myPosition, DOWN * 2, RIGHT)
-    );
-    validMoves.addAll(
-      addSimpleMoveIfPossible(board, myPosition, DOWN * 2, LEFT)
-    );
-    validMoves.addAll(
-      addSimpleMoveIfPossible(board, myPosition, UP, RIGHT * 2)
-    );
-    validMoves.addAll(
-      addSimpleMoveIfPossible(board, myPosition, DOWN, RIGHT * 2)
-    );
-    validMoves.addAll(addSimpleMoveIfPossible(board, myPosition, UP, LEFT * 2));
-    validMoves.addAll(
-      addSimpleMoveIfPossible(board, myPosition, DOWN, LEFT * 2)
-    );
-
-    return validMoves;
+    addSimpleMoveIfPossible(board, myPosition, UP * 2, RIGHT, validMoves);
+    addSimpleMoveIfPossible(board, myPosition, UP * 2, LEFT, validMoves);
+    addSimpleMoveIfPossible(board, myPosition, DOWN * 2, RIGHT, validMoves);
+    addSimpleMoveIfPossible(board, myPosition, DOWN * 2, LEFT, validMoves);
+    addSimpleMoveIfPossible(board, myPosition, UP, RIGHT * 2, validMoves);
+    addSimpleMoveIfPossible(board, myPosition, DOWN, RIGHT * 2, validMoves);
+    addSimpleMoveIfPossible(board, myPosition, UP, LEFT * 2, validMoves);
+    addSimpleMoveIfPossible(board, myPosition, DOWN, LEFT * 2, validMoves);
   }
 
   /**
@@ -243,64 +241,48 @@ public class ChessPiece {
     ChessBoard board,
     ChessPosition myPosition
   ) {
-    var selectedPieceType = board.getPiece(myPosition);
-    var validMoves = new ArrayList<ChessMove>();
-
-    if (selectedPieceType.type == PieceType.BISHOP) {
-      // diagonal
-      validMoves.addAll(checkAndReturnMoves(board, myPosition, DOWN, LEFT));
-      validMoves.addAll(checkAndReturnMoves(board, myPosition, DOWN, RIGHT));
-      validMoves.addAll(checkAndReturnMoves(board, myPosition, UP, LEFT));
-      validMoves.addAll(checkAndReturnMoves(board, myPosition, UP, RIGHT));
-    }
+    var validMoves = new MoveList();
+    pieceMoves(board, myPosition, validMoves);
 
-    if (selectedPieceType.type == PieceType.ROOK) {
-      // horizontal
-      validMoves.addAll(
-        checkAndReturnMoves(board, myPosition, DOWN, NO_CHANGE)
-      );
-      validMoves.addAll(checkAndReturnMoves(board, myPosition, UP, NO_CHANGE));
-      validMoves.addAll(
-        checkAndReturnMoves(board, myPosition, NO_CHANGE, LEFT)
-      );
-      validMoves.addAll(
-        checkAndReturnMoves(board, myPosition, NO_CHANGE, RIGHT)
-      );
-    }
+    return validMoves.toList();
+  }
 
-    if (selectedPieceType.type == PieceType.QUEEN) {
+  /**
+   * Same as {@link #pieceMoves(ChessBoard, ChessPosition)} but adds packed moves to a
+   * reusable list instead of building a new collection
+   */
+  void pieceMoves(
+    ChessBoard board,
+    ChessPosition myPosition,
+    MoveList validMoves
+  ) {
+    if (type == PieceType.BISHOP || type == PieceType.QUEEN) {
       // diagonal
-      validMoves.addAll(checkAndReturnMoves(board, myPosition, DOWN, LEFT));
-      validMoves.addAll(checkAndReturnMoves(board, myPosition, DOWN, RIGHT));
-      validMoves.addAll(checkAndReturnMoves(board, myPosition, UP, LEFT));
-      validMoves.addAll(checkAndReturnMoves(board, myPosition, UP, RIGHT));
+      checkAndAddMoves(board, myPosition, DOWN, LEFT, validMoves);
+      checkAndAddMoves(board, myPosition, DOWN, RIGHT, validMoves);
+      checkAndAddMoves(board, myPosition, UP, LEFT, validMoves);
+      checkAndAddMoves(board, myPosition, UP, RIGHT, validMoves);
+    }
 
+    if (type == PieceType.ROOK || type == PieceType.QUEEN) {
       // horizontal
-      validMoves.addAll(
-        checkAndReturnMoves(board, myPosition, DOWN, NO_CHANGE)
-      );
-      validMoves.addAll(checkAndReturnMoves(board, myPosition, UP, NO_CHANGE));
-      validMoves.addAll(
-        checkAndReturnMoves(board, myPosition, NO_CHANGE, LEFT)
-      );
-      validMoves.addAll(
-        checkAndReturnMoves(board, myPosition, NO_CHANGE, RIGHT)
-      );
+      checkAndAddMoves(board, myPosition, DOWN, NO_CHANGE, validMoves);
+      checkAndAddMoves(board, myPosition, UP, NO_CHANGE, validMoves);
+      checkAndAddMoves(board, myPosition, NO_CHANGE, LEFT, validMoves);
+      checkAndAddMoves(board, myPosition, NO_CHANGE, RIGHT, validMoves);
     }
 
-    if (selectedPieceType.type == PieceType.PAWN) {
-      validMoves.addAll(calculatePawnMoves(board, myPosition));
+    if (type == PieceType.PAWN) {
+      calculatePawnMoves(board, myPosition, validMoves);
     }
 
-    if (selectedPieceType.type == PieceType.KING) {
-      validMoves.addAll(calculateKingMoves(board, myPosition));
+    if (type == PieceType.KING) {
+      calculateKingMoves(board, myPosition, validMoves);
     }
 
-    if (selectedPieceType.type == PieceType.KNIGHT) {
-      validMoves.addAll(calculateKnightMoves(board, myPosition));
+    if (type == PieceType.KNIGHT) {
+      calculateKnightMoves(board, myPosition, validMoves);
     }
-
-    return validMoves;
   }
 
   @Override
@@ -9,6 +9,15 @@ import java.util.Objects;
  */
 public class ChessPosition {
 
+  /** One shared instance per square, indexed by {@link #getSquare()} */
+  private static final ChessPosition[] POSITIONS = new ChessPosition[64];
+
+  static {
+    for (int square = 0; square < POSITIONS.length; square++) {
+      POSITIONS[square] = new ChessPosition((square >>> 3) + 1, (square & 7) + 1);
+    }
+  }
+
   // parameters for this class
   private final int row;
   private final int col;
@@ -18,6 +27,34 @@ public class ChessPosition {
     this.col = col;
   }
 
+  /**
+   * Positions are immutable, so squares on the board are served from a cache of 64 instances.
+   * Off-board coordinates still get a new object.
+   *
+   * @return the position for the row and column
+   */
+  public static ChessPosition of(int row, int col) {
+    if (row < 1 || row > 8 || col < 1 || col > 8) {
+      return new ChessPosition(row, col);
+    }
+    return POSITIONS[((row - 1) << 3) | (col - 1)];
+  }
+
+  /**
+   * @param square 0-63 square index, see {@link #getSquare()}
+   * @return the shared position for the square
+   */
+  public static ChessPosition ofSquare(int square) {
+    return POSITIONS[square];
+  }
+
+  /**
+   * @return 0-63 index of this square, counting from a1 across each row: (row - 1) * 8 + (col - 1)
+   */
+  public int getSquare() {
+    return ((row - 1) << 3) | (col - 1);
+  }
+
   /**
    * @return which row this position is in 1 codes for the bottom row
    */
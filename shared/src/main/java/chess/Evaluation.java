@@ -0,0 +1,139 @@
+package chess;
+
+/**
+ * Static evaluation of a position in centipawns.
+ *
+ * <p>Every term has a middlegame and an endgame value, and the two are blended by how much
+ * non-pawn material is left ("tapered" evaluation), so e.g. the king hides in the middlegame and
+ * walks to the centre in the endgame without the score jumping when the queens come off. Material
+ * and piece-square values are kept up to date by {@link ChessBoard} as moves are made, pawn
+ * structure comes from a cache keyed on the pawns ({@link PawnStructure}), and mobility and king
+ * safety are worked out from the bitboards on each call.
+ */
+public final class Evaluation {
+
+  private static final ChessPiece.PieceType[] MOBILE_PIECES = {
+    ChessPiece.PieceType.QUEEN,
+    ChessPiece.PieceType.BISHOP,
+    ChessPiece.PieceType.KNIGHT,
+    ChessPiece.PieceType.ROOK,
+  };
+
+  // terms are packed middlegame and endgame pairs, see score(int, int)
+  private static final int SHIELD_PAWN = score(10, 0);
+
+  /** Bonus per square a piece can move to, indexed by type ordinal */
+  private static final int[] MOBILITY = {
+    score(0, 0), score(1, 2), score(3, 3), score(4, 4), score(2, 4), score(0, 0),
+  };
+
+  /** The two rows in front of a king on its own and neighbouring files, by color then square */
+  private static final long[][] SHIELD_MASKS = new long[2][Bitboards.SQUARES];
+
+  static {
+    for (int square = 0; square < Bitboards.SQUARES; square++) {
+      final int file = square & 7;
+      final int row = square >>> 3;
+
+      for (int other = 0; other < Bitboards.SQUARES; other++) {
+        final int otherRow = other >>> 3;
+        if (Math.abs((other & 7) - file) > 1) {
+          continue;
+        }
+
+        if (otherRow > row && otherRow <= row + 2) {
+          SHIELD_MASKS[0][square] |= Bitboards.bit(other);
+        }
+        if (otherRow < row && otherRow >= row - 2) {
+          SHIELD_MASKS[1][square] |= Bitboards.bit(other);
+        }
+      }
+    }
+  }
+
+  private Evaluation() {}
+
+  /**
+   * @param game the position to score
+   * @return the score from the point of view of the side to move
+   */
+  public static int evaluate(ChessGame game) {
+    return evaluate(game.getBoard(), game.getTeamTurn());
+  }
+
+  /**
+   * @param board the position to score
+   * @param sideToMove whose point of view to score from
+   * @return positive when the side to move is better off
+   */
+  public static int evaluate(ChessBoard board, ChessGame.TeamColor sideToMove) {
+    final int terms =
+        PawnTable.SHARED.get(board).score()
+            + mobility(board, ChessGame.TeamColor.WHITE)
+            - mobility(board, ChessGame.TeamColor.BLACK)
+            + kingSafety(board, ChessGame.TeamColor.WHITE)
+            - kingSafety(board, ChessGame.TeamColor.BLACK);
+
+    final int middlegame = board.middlegameScore() + middlegame(terms);
+    final int endgame = board.endgameScore() + endgame(terms);
+    final int phase = Math.min(board.phase(), PieceSquareTables.MAX_PHASE);
+
+    final int score =
+        (middlegame * phase + endgame * (PieceSquareTables.MAX_PHASE - phase))
+            / PieceSquareTables.MAX_PHASE;
+
+    return sideToMove == ChessGame.TeamColor.WHITE ? score : -score;
+  }
+
+  private static int mobility(ChessBoard board, ChessGame.TeamColor color) {
+    final long own = board.occupancy(color);
+    final long occupied = board.occupancy();
+    int total = 0;
+
+    for (ChessPiece.PieceType type : MOBILE_PIECES) {
+      long pieces = board.pieces(color, type);
+
+      while (pieces != 0) {
+        final int square = Long.numberOfTrailingZeros(pieces);
+        pieces &= pieces - 1;
+
+        final long attacks =
+            switch (type) {
+              case KNIGHT -> Bitboards.KNIGHT_ATTACKS[square];
+              case BISHOP -> Bitboards.bishopAttacks(square, occupied);
+              case ROOK -> Bitboards.rookAttacks(square, occupied);
+              default ->
+                  Bitboards.rookAttacks(square, occupied)
+                      | Bitboards.bishopAttacks(square, occupied);
+            };
+
+        total += Long.bitCount(attacks & ~own) * MOBILITY[type.ordinal()];
+      }
+    }
+
+    return total;
+  }
+
+  private static int kingSafety(ChessBoard board, ChessGame.TeamColor color) {
+    final int king = board.kingSquare(color);
+    if (king == Bitboards.SQUARES) {
+      return 0;
+    }
+
+    final long pawns = board.pieces(color, ChessPiece.PieceType.PAWN);
+    return Long.bitCount(pawns & SHIELD_MASKS[color.ordinal()][king]) * SHIELD_PAWN;
+  }
+
+  /** Packs a middlegame and an endgame value into one int so terms can be added together */
+  static int score(int middlegame, int endgame) {
+    return (middlegame << 16) + endgame;
+  }
+
+  private static int middlegame(int score) {
+    return (score + 0x8000) >> 16;
+  }
+
+  private static int endgame(int score) {
+    return (short) score;
+  }
+}
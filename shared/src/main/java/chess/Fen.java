@@ -0,0 +1,197 @@
+package chess;
+
+/**
+ * Reads and writes games in Forsyth-Edwards Notation, e.g. the starting position is {@value
+ * #START_POSITION}.
+ */
+public final class Fen {
+
+  public static final String START_POSITION =
+      "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+  private Fen() {}
+
+  /**
+   * Builds a game from a FEN string. Only the piece placement and side to move are required, the
+   * remaining fields are optional. Without a castling field the rights are guessed from the
+   * board, see {@link ChessGame#ChessGame(ChessGame.TeamColor, ChessBoard)}. An en passant square
+   * no pawn can capture onto is dropped, the same as if the game had been played to the position.
+   *
+   * @param fen the position to load
+   * @return a new game set up at that position
+   * @throws IllegalArgumentException if any field can't be read
+   */
+  public static ChessGame toGame(String fen) {
+    final String[] fields = fen.trim().split("\\s+");
+    final ChessBoard board = new ChessBoard();
+    final String[] rows = fields[0].split("/");
+
+    if (rows.length != 8) {
+      throw new IllegalArgumentException("FEN needs 8 rows: " + fen);
+    }
+
+    for (int rowIndex = 0; rowIndex < 8; rowIndex++) {
+      final int row = 8 - rowIndex;
+      int col = 1;
+
+      for (char c : rows[rowIndex].toCharArray()) {
+        if (Character.isDigit(c)) {
+          col += c - '0';
+          continue;
+        }
+
+        if (col > 8) {
+          throw new IllegalArgumentException("Too many squares in row " + row + ": " + fen);
+        }
+
+        board.addPiece(ChessPosition.of(row, col), toPiece(c));
+        col++;
+      }
+
+      if (col != 9) {
+        throw new IllegalArgumentException("Row " + row + " does not have 8 squares: " + fen);
+      }
+    }
+
+    ChessGame.TeamColor turn = ChessGame.TeamColor.WHITE;
+    if (fields.length > 1) {
+      turn =
+          switch (fields[1]) {
+            case "w" -> ChessGame.TeamColor.WHITE;
+            case "b" -> ChessGame.TeamColor.BLACK;
+            default -> throw new IllegalArgumentException("Unknown side to move: " + fen);
+          };
+    }
+
+    final ChessGame game = new ChessGame(turn, board);
+    if (fields.length > 2) {
+      final int castlingRights = Castling.fromFen(fields[2]);
+      final int enPassantSquare =
+          fields.length > 3 ? enPassantSquare(board, turn, fields[3]) : Bitboards.SQUARES;
+      final int halfmoveClock = fields.length > 4 ? number(fields[4], 0, fen) : 0;
+      final int fullmoveNumber = fields.length > 5 ? number(fields[5], 1, fen) : 1;
+
+      game.setState(castlingRights, enPassantSquare, halfmoveClock, fullmoveNumber);
+    }
+
+    return game;
+  }
+
+  /**
+   * @param game the game to describe
+   * @return the game's position in FEN
+   */
+  public static String fromGame(ChessGame game) {
+    final ChessBoard board = game.getBoard();
+    final StringBuilder fen = new StringBuilder();
+
+    for (int row = 8; row >= 1; row--) {
+      int empty = 0;
+
+      for (int col = 1; col <= 8; col++) {
+        final ChessPiece piece = board.pieceAt(Bitboards.square(row, col));
+        if (piece == null) {
+          empty++;
+          continue;
+        }
+
+        if (empty > 0) {
+          fen.append(empty);
+          empty = 0;
+        }
+        fen.append(toChar(piece));
+      }
+
+      if (empty > 0) {
+        fen.append(empty);
+      }
+      if (row > 1) {
+        fen.append('/');
+      }
+    }
+
+    fen.append(game.getTeamTurn() == ChessGame.TeamColor.WHITE ? " w" : " b");
+    fen.append(' ').append(Castling.toFen(game.castlingRights()));
+
+    final int enPassantSquare = game.enPassantSquare();
+    if (enPassantSquare < Bitboards.SQUARES) {
+      fen.append(' ')
+          .append((char) ('a' + (enPassantSquare & 7)))
+          .append(Bitboards.row(enPassantSquare));
+    } else {
+      fen.append(" -");
+    }
+
+    fen.append(' ').append(game.getHalfmoveClock());
+    fen.append(' ').append(game.getFullmoveNumber());
+
+    return fen.toString();
+  }
+
+  /**
+   * @return the en passant square if the team to move has a pawn that could capture onto it
+   */
+  private static int enPassantSquare(ChessBoard board, ChessGame.TeamColor turn, String field) {
+    if (field.equals("-")) {
+      return Bitboards.SQUARES;
+    }
+
+    final int expectedRow = turn == ChessGame.TeamColor.WHITE ? 6 : 3;
+    if (field.length() != 2
+        || field.charAt(0) < 'a'
+        || field.charAt(0) > 'h'
+        || field.charAt(1) - '0' != expectedRow) {
+      throw new IllegalArgumentException("Bad en passant square: " + field);
+    }
+
+    final int square = Bitboards.square(expectedRow, field.charAt(0) - 'a' + 1);
+    final ChessGame.TeamColor mover = MoveGenerator.opponent(turn);
+    final long capturers =
+        Bitboards.PAWN_ATTACKS[mover.ordinal()][square]
+            & board.pieces(turn, ChessPiece.PieceType.PAWN);
+    return capturers != 0 ? square : Bitboards.SQUARES;
+  }
+
+  private static int number(String field, int min, String fen) {
+    try {
+      final int number = Integer.parseInt(field);
+      if (number >= min) {
+        return number;
+      }
+    } catch (NumberFormatException e) {
+      // reported below
+    }
+    throw new IllegalArgumentException("Bad move counter: " + fen);
+  }
+
+  private static ChessPiece toPiece(char c) {
+    final ChessGame.TeamColor color =
+        Character.isUpperCase(c) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+    final ChessPiece.PieceType type =
+        switch (Character.toLowerCase(c)) {
+          case 'k' -> ChessPiece.PieceType.KING;
+          case 'q' -> ChessPiece.PieceType.QUEEN;
+          case 'b' -> ChessPiece.PieceType.BISHOP;
+          case 'n' -> ChessPiece.PieceType.KNIGHT;
+          case 'r' -> ChessPiece.PieceType.ROOK;
+          case 'p' -> ChessPiece.PieceType.PAWN;
+          default -> throw new IllegalArgumentException("Unknown piece: " + c);
+        };
+
+    return ChessPiece.of(color, type);
+  }
+
+  private static char toChar(ChessPiece piece) {
+    final char c =
+        switch (piece.getPieceType()) {
+          case KING -> 'k';
+          case QUEEN -> 'q';
+          case BISHOP -> 'b';
+          case KNIGHT -> 'n';
+          case ROOK -> 'r';
+          case PAWN -> 'p';
+        };
+
+    return piece.getTeamColor() == ChessGame.TeamColor.WHITE ? Character.toUpperCase(c) : c;
+  }
+}
@@ -0,0 +1,50 @@
+package chess;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Everything a game-over check wants to know about one team's position, worked out with a single
+ * check test and a single pass of move generation by {@link ChessGame#status(ChessGame.TeamColor)}.
+ *
+ * @param team the team the status is for
+ * @param inCheck true if the team's king is attacked
+ * @param legalMoves how many legal moves the team has
+ * @param insufficientMaterial true if neither side has enough material left to ever mate
+ */
+public record GameStatus(
+    ChessGame.TeamColor team, boolean inCheck, int legalMoves, boolean insufficientMaterial) {
+
+  /**
+   * @return true if the team is in check and has no legal moves
+   */
+  public boolean isCheckmate() {
+    return inCheck && legalMoves == 0;
+  }
+
+  /**
+   * @return true if the team is not in check and has no legal moves
+   */
+  public boolean isStalemate() {
+    return !inCheck && legalMoves == 0;
+  }
+
+  /**
+   * @return true if the game can't go on: checkmate, stalemate or a dead position
+   */
+  public boolean isGameOver() {
+    return legalMoves == 0 || insufficientMaterial;
+  }
+
+  /**
+   * Works out the status of the side to move in many games at once.
+   *
+   * @param games the games to look at; each thread generates moves into its own buffer, so the
+   *     same game may appear more than once
+   * @param parallel true to spread the games over the common fork-join pool
+   * @return one status per game, in the same order
+   */
+  public static List<GameStatus> of(Collection<ChessGame> games, boolean parallel) {
+    return (parallel ? games.parallelStream() : games.stream()).map(ChessGame::status).toList();
+  }
+}
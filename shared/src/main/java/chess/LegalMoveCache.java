@@ -0,0 +1,153 @@
+package chess;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded cache of legal moves keyed by position key and starting square.
+ *
+ * <p>Entries are spread over several independently locked stripes so threads looking up different
+ * positions rarely wait on each other. Each stripe holds an equal share of the capacity and evicts
+ * its own entries by the configured {@link EvictionPolicy}.
+ */
+public final class LegalMoveCache {
+
+  /** Which entry a full stripe drops to make room */
+  public enum EvictionPolicy {
+    /** the entry that was used longest ago */
+    LEAST_RECENTLY_USED,
+    /** the entry that was added first */
+    FIRST_IN_FIRST_OUT,
+  }
+
+  private static final int DEFAULT_STRIPES = 16;
+
+  private final Stripe[] stripes;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  public LegalMoveCache(int maxEntries, EvictionPolicy evictionPolicy) {
+    this(maxEntries, evictionPolicy, DEFAULT_STRIPES);
+  }
+
+  /**
+   * @param maxEntries most (position, square) entries kept across all stripes
+   * @param evictionPolicy how full stripes pick an entry to drop
+   * @param stripeCount number of independently locked stripes, rounded down to a power of two no
+   *     larger than {@code maxEntries} so every stripe has room for at least one entry
+   */
+  public LegalMoveCache(int maxEntries, EvictionPolicy evictionPolicy, int stripeCount) {
+    if (maxEntries < 1) {
+      throw new IllegalArgumentException("Cache needs room for at least one entry");
+    }
+
+    final int count = Integer.highestOneBit(Math.max(1, Math.min(stripeCount, maxEntries)));
+    final int perStripe = maxEntries / count;
+
+    stripes = new Stripe[count];
+    for (int i = 0; i < count; i++) {
+      stripes[i] = new Stripe(perStripe, evictionPolicy == EvictionPolicy.LEAST_RECENTLY_USED);
+    }
+  }
+
+  /**
+   * @param positionKey {@link ChessGame#positionKey()} of the position
+   * @param square 0-63 starting square
+   * @return the cached moves, or null if they are not cached
+   */
+  public List<ChessMove> get(long positionKey, int square) {
+    final long key = key(positionKey, square);
+    final Stripe stripe = stripeFor(key);
+
+    final List<ChessMove> moves;
+    stripe.lock.lock();
+    try {
+      moves = stripe.entries.get(key);
+    } finally {
+      stripe.lock.unlock();
+    }
+
+    if (moves == null) {
+      misses.increment();
+    } else {
+      hits.increment();
+    }
+    return moves;
+  }
+
+  /**
+   * @param positionKey {@link ChessGame#positionKey()} of the position
+   * @param square 0-63 starting square
+   * @param moves legal moves from the square, copied into an immutable list
+   */
+  public void put(long positionKey, int square, List<ChessMove> moves) {
+    final long key = key(positionKey, square);
+    final Stripe stripe = stripeFor(key);
+    final List<ChessMove> copy = List.copyOf(moves);
+
+    stripe.lock.lock();
+    try {
+      stripe.entries.put(key, copy);
+    } finally {
+      stripe.lock.unlock();
+    }
+  }
+
+  public int size() {
+    int size = 0;
+    for (Stripe stripe : stripes) {
+      stripe.lock.lock();
+      try {
+        size += stripe.entries.size();
+      } finally {
+        stripe.lock.unlock();
+      }
+    }
+    return size;
+  }
+
+  public void clear() {
+    for (Stripe stripe : stripes) {
+      stripe.lock.lock();
+      try {
+        stripe.entries.clear();
+      } finally {
+        stripe.lock.unlock();
+      }
+    }
+  }
+
+  public long hits() {
+    return hits.sum();
+  }
+
+  public long misses() {
+    return misses.sum();
+  }
+
+  private static long key(long positionKey, int square) {
+    return positionKey ^ ((square + 1) * 0x9E3779B97F4A7C15L);
+  }
+
+  private Stripe stripeFor(long key) {
+    return stripes[(int) (key >>> 32) & (stripes.length - 1)];
+  }
+
+  private static final class Stripe {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Long, List<ChessMove>> entries;
+
+    private Stripe(int capacity, boolean accessOrder) {
+      entries =
+          new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, accessOrder) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, List<ChessMove>> eldest) {
+              return size() > capacity;
+            }
+          };
+    }
+  }
+}
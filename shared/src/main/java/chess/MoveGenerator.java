@@ -0,0 +1,324 @@
+package chess;
+
+/**
+ * Generates strictly legal moves straight from the bitboards.
+ *
+ * <p>Instead of playing every pseudo-legal move and testing for check, the generator works out
+ * once per position which pieces give check and which pieces are pinned to their king. Moves are
+ * then limited to squares that block or capture a single checker, pinned pieces may only slide
+ * along their pin line, and the king may only step onto squares that are not attacked. Castling
+ * and en passant depend on the game's history rather than the board, so the caller passes in the
+ * rights and target square it is tracking.
+ */
+final class MoveGenerator {
+
+  private static final int BISHOP = ChessPiece.PieceType.BISHOP.ordinal();
+  private static final int KNIGHT = ChessPiece.PieceType.KNIGHT.ordinal();
+  private static final int ROOK = ChessPiece.PieceType.ROOK.ordinal();
+  private static final int PAWN = ChessPiece.PieceType.PAWN.ordinal();
+
+  private static final long ALL_SQUARES = -1L;
+
+  private MoveGenerator() {}
+
+  /**
+   * Adds every legal move for the team's pieces on the given squares, leaving out castling and en
+   * passant
+   *
+   * @param board the board to generate moves for
+   * @param color the team that is moving
+   * @param fromSquares bitboard of the starting squares to generate moves for
+   * @param moves where the generated moves are added, packed
+   */
+  static void generate(
+      ChessBoard board, ChessGame.TeamColor color, long fromSquares, MoveList moves) {
+    generate(board, color, fromSquares, Castling.NONE, Bitboards.SQUARES, moves);
+  }
+
+  /**
+   * Adds every legal move for the team's pieces on the given squares
+   *
+   * @param board the board to generate moves for
+   * @param color the team that is moving
+   * @param fromSquares bitboard of the starting squares to generate moves for
+   * @param castlingRights the {@link Castling} rights both teams still have
+   * @param enPassantSquare the square a pawn can capture onto en passant, or {@link
+   *     Bitboards#SQUARES} if there isn't one
+   * @param moves where the generated moves are added, packed
+   */
+  static void generate(
+      ChessBoard board,
+      ChessGame.TeamColor color,
+      long fromSquares,
+      int castlingRights,
+      int enPassantSquare,
+      MoveList moves) {
+    final ChessGame.TeamColor enemy = opponent(color);
+    final long own = board.occupancy(color);
+    final long enemies = board.occupancy(enemy);
+    final long occupied = board.occupancy();
+    final int king = board.kingSquare(color);
+
+    long checkMask = ALL_SQUARES;
+    long pinned = 0;
+
+    if (king < Bitboards.SQUARES) {
+      final long kingBit = Bitboards.bit(king);
+      final long checkers = board.attackersOf(king, enemy, occupied);
+
+      if ((fromSquares & kingBit) != 0) {
+        long targets = Bitboards.KING_ATTACKS[king] & ~own;
+        while (targets != 0) {
+          final int target = Long.numberOfTrailingZeros(targets);
+          targets &= targets - 1;
+
+          if (board.attackersOf(target, enemy, occupied ^ kingBit) == 0) {
+            moves.add(ChessMove.pack(king, target, null));
+          }
+        }
+
+        if (checkers == 0 && castlingRights != Castling.NONE) {
+          addCastling(board, color, king, enemy, occupied, castlingRights, moves);
+        }
+      }
+
+      if (Long.bitCount(checkers) > 1) {
+        return;
+      }
+
+      if (checkers != 0) {
+        final int checker = Long.numberOfTrailingZeros(checkers);
+        checkMask = checkers | Bitboards.BETWEEN[king][checker];
+      }
+
+      pinned = pinnedPieces(board, king, enemy, own, occupied);
+    }
+
+    long pieces = own & fromSquares & ~board.pieces(color, ChessPiece.PieceType.KING);
+    while (pieces != 0) {
+      final int from = Long.numberOfTrailingZeros(pieces);
+      pieces &= pieces - 1;
+
+      long allowed = checkMask;
+      if ((pinned & Bitboards.bit(from)) != 0) {
+        allowed &= Bitboards.LINE[king][from];
+      }
+
+      final int type = board.pieceIndexAt(from) % 6;
+      if (type == PAWN) {
+        addPawnMoves(color, from, allowed, enemies, occupied, moves);
+        continue;
+      }
+
+      long targets;
+      if (type == KNIGHT) {
+        targets = Bitboards.KNIGHT_ATTACKS[from];
+      } else if (type == BISHOP) {
+        targets = Bitboards.bishopAttacks(from, occupied);
+      } else if (type == ROOK) {
+        targets = Bitboards.rookAttacks(from, occupied);
+      } else {
+        targets = Bitboards.bishopAttacks(from, occupied) | Bitboards.rookAttacks(from, occupied);
+      }
+
+      addMoves(from, targets & ~own & allowed, moves);
+    }
+
+    if (enPassantSquare < Bitboards.SQUARES) {
+      addEnPassant(board, color, king, fromSquares, enPassantSquare, occupied, moves);
+    }
+  }
+
+  /**
+   * Works out the en passant target after a move. The square is only set when an enemy pawn stands
+   * next to the one that moved, so positions that differ only by a capture nobody can make still
+   * share a key.
+   *
+   * @param board the board with the move already made
+   * @param mover the team that made the move
+   * @param move the move, packed
+   * @return the square the moved pawn can be captured on, or {@link Bitboards#SQUARES} if none
+   */
+  static int enPassantSquare(ChessBoard board, ChessGame.TeamColor mover, int move) {
+    final int from = ChessMove.startSquare(move);
+    final int to = ChessMove.endSquare(move);
+
+    if (Math.abs(to - from) != 16 || board.pieceIndexAt(to) % 6 != PAWN) {
+      return Bitboards.SQUARES;
+    }
+
+    final int passed = (from + to) >>> 1;
+    final long enemyPawns = board.pieces(opponent(mover), ChessPiece.PieceType.PAWN);
+    return (Bitboards.PAWN_ATTACKS[mover.ordinal()][passed] & enemyPawns) != 0
+        ? passed
+        : Bitboards.SQUARES;
+  }
+
+  /**
+   * Adds the castling moves the team has the rights for. The king may not be in check (the caller
+   * makes sure of that), the squares between king and rook must be empty, and the king may not
+   * pass over or land on an attacked square.
+   */
+  private static void addCastling(
+      ChessBoard board,
+      ChessGame.TeamColor color,
+      int king,
+      ChessGame.TeamColor enemy,
+      long occupied,
+      int castlingRights,
+      MoveList moves) {
+    final int home =
+        color == ChessGame.TeamColor.WHITE ? Castling.WHITE_KING : Castling.BLACK_KING;
+    if (king != home) {
+      return;
+    }
+
+    final long rooks = board.pieces(color, ChessPiece.PieceType.ROOK);
+    for (int side = 0; side < 2; side++) {
+      final boolean kingSide = side == 0;
+      if ((castlingRights & Castling.rights(color, kingSide)) == 0) {
+        continue;
+      }
+
+      final int rook = kingSide ? home + 3 : home - 4;
+      final int step = kingSide ? 1 : -1;
+      if ((rooks & Bitboards.bit(rook)) == 0 || (occupied & Bitboards.BETWEEN[home][rook]) != 0) {
+        continue;
+      }
+
+      if (board.attackersOf(home + step, enemy, occupied) == 0
+          && board.attackersOf(home + 2 * step, enemy, occupied) == 0) {
+        moves.add(ChessMove.pack(home, home + 2 * step, null));
+      }
+    }
+  }
+
+  /**
+   * Adds en passant captures onto the target square. Taking en passant empties two squares on the
+   * capturing pawn's row, which can uncover an attack on the king that no pin shows, so each
+   * capture is checked against the occupancy it leaves behind.
+   */
+  private static void addEnPassant(
+      ChessBoard board,
+      ChessGame.TeamColor color,
+      int king,
+      long fromSquares,
+      int target,
+      long occupied,
+      MoveList moves) {
+    final ChessGame.TeamColor enemy = opponent(color);
+    final int victim = color == ChessGame.TeamColor.WHITE ? target - 8 : target + 8;
+    final long victimBit = Bitboards.bit(victim);
+
+    if ((occupied & Bitboards.bit(target)) != 0
+        || (board.pieces(enemy, ChessPiece.PieceType.PAWN) & victimBit) == 0) {
+      return;
+    }
+
+    long capturers =
+        Bitboards.PAWN_ATTACKS[enemy.ordinal()][target]
+            & board.pieces(color, ChessPiece.PieceType.PAWN)
+            & fromSquares;
+    while (capturers != 0) {
+      final int from = Long.numberOfTrailingZeros(capturers);
+      capturers &= capturers - 1;
+
+      final long after = (occupied ^ Bitboards.bit(from) ^ victimBit) | Bitboards.bit(target);
+      if (king == Bitboards.SQUARES
+          || (board.attackersOf(king, enemy, after) & ~victimBit) == 0) {
+        moves.add(ChessMove.pack(from, target, null));
+      }
+    }
+  }
+
+  /**
+   * @return bitboard of the team's pieces that are the only thing between their king and an enemy
+   *     slider
+   */
+  private static long pinnedPieces(
+      ChessBoard board, int king, ChessGame.TeamColor enemy, long own, long occupied) {
+    final long enemyQueens = board.pieces(enemy, ChessPiece.PieceType.QUEEN);
+    final long straightSliders = board.pieces(enemy, ChessPiece.PieceType.ROOK) | enemyQueens;
+    final long diagonalSliders = board.pieces(enemy, ChessPiece.PieceType.BISHOP) | enemyQueens;
+    long pinned = 0;
+
+    for (int direction = 0; direction < 8; direction++) {
+      final boolean straight =
+          direction == Bitboards.NORTH
+              || direction == Bitboards.EAST
+              || direction == Bitboards.SOUTH
+              || direction == Bitboards.WEST;
+      final long sliders = straight ? straightSliders : diagonalSliders;
+      if (sliders == 0) {
+        continue;
+      }
+
+      final long blocker = Bitboards.rayAttacks(direction, king, occupied) & own;
+      if (blocker == 0) {
+        continue;
+      }
+
+      final long beyond = Bitboards.rayAttacks(direction, king, occupied ^ blocker);
+      if ((beyond & sliders) != 0) {
+        pinned |= blocker;
+      }
+    }
+
+    return pinned;
+  }
+
+  private static void addPawnMoves(
+      ChessGame.TeamColor color,
+      int from,
+      long allowed,
+      long enemies,
+      long occupied,
+      MoveList moves) {
+    final boolean white = color == ChessGame.TeamColor.WHITE;
+    final int forward = white ? 8 : -8;
+    final int startRow = white ? 2 : 7;
+    final int promotionRow = white ? 8 : 1;
+
+    long targets = Bitboards.PAWN_ATTACKS[color.ordinal()][from] & enemies;
+
+    final int single = from + forward;
+    if (Bitboards.row(from) != promotionRow && (occupied & Bitboards.bit(single)) == 0) {
+      targets |= Bitboards.bit(single);
+
+      final int twice = single + forward;
+      if (Bitboards.row(from) == startRow && (occupied & Bitboards.bit(twice)) == 0) {
+        targets |= Bitboards.bit(twice);
+      }
+    }
+
+    targets &= allowed;
+    while (targets != 0) {
+      final int to = Long.numberOfTrailingZeros(targets);
+      targets &= targets - 1;
+
+      if (Bitboards.row(to) == promotionRow) {
+        moves.add(ChessMove.pack(from, to, ChessPiece.PieceType.QUEEN));
+        moves.add(ChessMove.pack(from, to, ChessPiece.PieceType.KNIGHT));
+        moves.add(ChessMove.pack(from, to, ChessPiece.PieceType.BISHOP));
+        moves.add(ChessMove.pack(from, to, ChessPiece.PieceType.ROOK));
+      } else {
+        moves.add(ChessMove.pack(from, to, null));
+      }
+    }
+  }
+
+  private static void addMoves(int from, long targets, MoveList moves) {
+    while (targets != 0) {
+      final int to = Long.numberOfTrailingZeros(targets);
+      targets &= targets - 1;
+
+      moves.add(ChessMove.pack(from, to, null));
+    }
+  }
+
+  static ChessGame.TeamColor opponent(ChessGame.TeamColor color) {
+    return color == ChessGame.TeamColor.WHITE
+        ? ChessGame.TeamColor.BLACK
+        : ChessGame.TeamColor.WHITE;
+  }
+}
@@ -0,0 +1,82 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A reusable list of packed moves (see {@link ChessMove#pack(int, int, ChessPiece.PieceType)}).
+ *
+ * <p>Move generators write into one of these instead of building collections of {@link
+ * ChessMove}s, and callers {@link #clear()} and reuse it between positions. {@link #toList()}
+ * converts to moves only where a public API needs a collection.
+ */
+public final class MoveList {
+
+  /** More than the 218 legal moves the busiest known position has */
+  private static final int DEFAULT_CAPACITY = 256;
+
+  private int[] moves;
+  private int size;
+
+  public MoveList() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public MoveList(int capacity) {
+    moves = new int[capacity];
+  }
+
+  public void add(int packedMove) {
+    if (size == moves.length) {
+      moves = Arrays.copyOf(moves, size * 2);
+    }
+    moves[size++] = packedMove;
+  }
+
+  public int get(int index) {
+    return moves[index];
+  }
+
+  public void set(int index, int packedMove) {
+    moves[index] = packedMove;
+  }
+
+  public void swap(int first, int second) {
+    final int move = moves[first];
+    moves[first] = moves[second];
+    moves[second] = move;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public void clear() {
+    size = 0;
+  }
+
+  public boolean contains(int packedMove) {
+    for (int i = 0; i < size; i++) {
+      if (moves[i] == packedMove) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return the moves as shared {@link ChessMove} instances, in list order
+   */
+  public List<ChessMove> toList() {
+    final var list = new ArrayList<ChessMove>(size);
+    for (int i = 0; i < size; i++) {
+      list.add(ChessMove.fromPacked(moves[i]));
+    }
+    return list;
+  }
+}
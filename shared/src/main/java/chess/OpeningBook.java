@@ -0,0 +1,226 @@
+package chess;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An opening book read straight from a memory-mapped file.
+ *
+ * <p>The file uses the Polyglot layout: 16-byte big-endian records of a 64-bit position key, a
+ * 16-bit move, a 16-bit weight and 32 bits of learning data, sorted by key. Looking a position up
+ * is a binary search over the mapping, so the book costs no heap however big it is and the
+ * operating system keeps the popular pages cached.
+ *
+ * <p>Positions are keyed by {@link PolyglotKey}, so books built by other Polyglot tools can be
+ * opened as they are. Those store castling as the king taking its own rook, which is read back as
+ * the king's two-square move; books written here store the two-square move, which is also read.
+ */
+public final class OpeningBook {
+
+  /** Bytes per book entry */
+  public static final int ENTRY_BYTES = 16;
+
+  /** A book with nothing in it */
+  public static final OpeningBook EMPTY = new OpeningBook(ByteBuffer.allocate(0));
+
+  // layout of a Polyglot move
+  private static final int TO_SHIFT = 0;
+  private static final int FROM_SHIFT = 6;
+  private static final int PROMOTION_SHIFT = 12;
+  private static final int SQUARE_BITS = 0x3F;
+  private static final int PROMOTION_BITS = 0x7;
+
+  /** Indexed by Polyglot promotion code, 0 being no promotion */
+  private static final ChessPiece.PieceType[] PROMOTIONS = {
+    null,
+    ChessPiece.PieceType.KNIGHT,
+    ChessPiece.PieceType.BISHOP,
+    ChessPiece.PieceType.ROOK,
+    ChessPiece.PieceType.QUEEN,
+  };
+
+  private final ByteBuffer entries;
+  private final int size;
+
+  private OpeningBook(ByteBuffer entries) {
+    this.entries = entries.order(ByteOrder.BIG_ENDIAN);
+    this.size = entries.capacity() / ENTRY_BYTES;
+  }
+
+  /**
+   * One move the book knows for a position.
+   *
+   * @param key the position's {@link PolyglotKey}
+   * @param weight how often to play the move relative to the others, 0-65535
+   */
+  public record Entry(long key, ChessMove move, int weight) {
+
+    /**
+     * @return an entry for a move from the game's current position
+     */
+    public static Entry of(ChessGame game, ChessMove move, int weight) {
+      return new Entry(PolyglotKey.of(game), move, weight);
+    }
+  }
+
+  /**
+   * Maps a book file into memory. The file must not change while the book is in use.
+   *
+   * @param file a Polyglot book, such as one made by {@link #write(Path, Collection)}
+   * @return the book
+   * @throws IOException if the file can't be read or is not a whole number of entries
+   */
+  public static OpeningBook open(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      final long length = channel.size();
+      if (length % ENTRY_BYTES != 0 || length / ENTRY_BYTES > Integer.MAX_VALUE / ENTRY_BYTES) {
+        throw new IOException("Not an opening book: " + file);
+      }
+
+      // the mapping outlives the channel
+      return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, length));
+    }
+  }
+
+  /**
+   * Writes a book file, sorting the entries the way {@link #open(Path)} expects.
+   *
+   * @param file where to write, replaced if it exists
+   * @param bookEntries the moves to store, in any order
+   * @throws IOException if the file can't be written
+   */
+  public static void write(Path file, Collection<Entry> bookEntries) throws IOException {
+    final List<Entry> sorted = new ArrayList<>(bookEntries);
+    sorted.sort(
+        Comparator.comparing(Entry::key, Long::compareUnsigned)
+            .thenComparing(Comparator.comparingInt(Entry::weight).reversed()));
+
+    final ByteBuffer buffer =
+        ByteBuffer.allocate(sorted.size() * ENTRY_BYTES).order(ByteOrder.BIG_ENDIAN);
+    for (Entry entry : sorted) {
+      if (entry.weight() < 0 || entry.weight() > 0xFFFF) {
+        throw new IllegalArgumentException("Weight must fit in 16 bits: " + entry);
+      }
+
+      buffer.putLong(entry.key());
+      buffer.putShort((short) encode(entry.move()));
+      buffer.putShort((short) entry.weight());
+      buffer.putInt(0);
+    }
+
+    Files.write(file, buffer.array());
+  }
+
+  /**
+   * @param game the position to look up
+   * @return the book's moves for the position, heaviest first, leaving out any that aren't legal
+   *     there (which can only happen when two positions share a key)
+   */
+  public List<Entry> entries(ChessGame game) {
+    final long key = PolyglotKey.of(game);
+    final List<Entry> found = new ArrayList<>();
+    Collection<ChessMove> legalMoves = null;
+
+    for (int index = lowerBound(key); index < size && keyAt(index) == key; index++) {
+      final int offset = index * ENTRY_BYTES;
+      final ChessMove move = decode(game.getBoard(), entries.getShort(offset + 8) & 0xFFFF);
+
+      if (legalMoves == null) {
+        legalMoves = game.legalMoves();
+      }
+      if (legalMoves.contains(move)) {
+        found.add(new Entry(key, move, entries.getShort(offset + 10) & 0xFFFF));
+      }
+    }
+
+    found.sort(Comparator.comparingInt(Entry::weight).reversed());
+    return found;
+  }
+
+  /**
+   * @param game the position to look up
+   * @return the book's most played move for the position, or null if it isn't in the book
+   */
+  public ChessMove bestMove(ChessGame game) {
+    final List<Entry> found = entries(game);
+    return found.isEmpty() ? null : found.getFirst().move();
+  }
+
+  /**
+   * @return how many entries the book holds
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return the first index whose key is not below the given key, comparing unsigned
+   */
+  private int lowerBound(long key) {
+    int low = 0;
+    int high = size;
+
+    while (low < high) {
+      final int middle = (low + high) >>> 1;
+      if (Long.compareUnsigned(keyAt(middle), key) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+
+    return low;
+  }
+
+  private long keyAt(int index) {
+    return entries.getLong(index * ENTRY_BYTES);
+  }
+
+  /**
+   * Polyglot squares count from a1 along each row just like ours, so only the field positions and
+   * promotion codes differ
+   */
+  private static int encode(ChessMove move) {
+    final int from = move.getStartPosition().getSquare();
+    final int to = move.getEndPosition().getSquare();
+
+    int promotion = 0;
+    for (int code = 1; code < PROMOTIONS.length; code++) {
+      if (PROMOTIONS[code] == move.getPromotionPiece()) {
+        promotion = code;
+      }
+    }
+
+    return (to << TO_SHIFT) | (from << FROM_SHIFT) | (promotion << PROMOTION_SHIFT);
+  }
+
+  /** Books from other tools store castling as the king taking its own rook */
+  private static ChessMove decode(ChessBoard board, int bookMove) {
+    final int from = (bookMove >>> FROM_SHIFT) & SQUARE_BITS;
+    int to = (bookMove >>> TO_SHIFT) & SQUARE_BITS;
+    final int promotion = (bookMove >>> PROMOTION_SHIFT) & PROMOTION_BITS;
+
+    final ChessPiece mover = board.getPiece(ChessPosition.ofSquare(from));
+    final ChessPiece target = board.getPiece(ChessPosition.ofSquare(to));
+    if (mover != null
+        && target != null
+        && mover.getPieceType() == ChessPiece.PieceType.KING
+        && target.getPieceType() == ChessPiece.PieceType.ROOK
+        && target.getTeamColor() == mover.getTeamColor()) {
+      to = from + (to > from ? 2 : -2);
+    }
+
+    return ChessMove.fromPacked(
+        ChessMove.pack(
+            from, to, promotion < PROMOTIONS.length ? PROMOTIONS[promotion] : null));
+  }
+}
@@ -0,0 +1,154 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Searches one position on several threads at once ("Lazy SMP").
+ *
+ * <p>Every thread runs an ordinary {@link Search} of the same root and they share nothing but a
+ * {@link TranspositionTable}. Helpers start every other one a ply deeper, so they fill the table
+ * with results the main search will want a moment later and the threads drift onto different
+ * parts of the tree. The main search decides the result, and the helpers are stopped as soon as it
+ * is done.
+ *
+ * <p>With one thread the search runs on the calling thread. {@link #deterministic(int)} also clears
+ * the table before every search, so the same position and depth or node limit always give the same
+ * result.
+ */
+public final class ParallelSearch implements AutoCloseable {
+
+  private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+
+  private final TranspositionTable table;
+  private final Search[] searches;
+  private final ExecutorService helpers;
+  private final boolean clearTable;
+
+  /**
+   * @param threads how many threads to search with, at least 1
+   * @param table the table the threads share
+   */
+  public ParallelSearch(int threads, TranspositionTable table) {
+    this(threads, table, false);
+  }
+
+  private ParallelSearch(int threads, TranspositionTable table, boolean clearTable) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("Search needs at least one thread");
+    }
+
+    this.table = table;
+    this.clearTable = clearTable;
+
+    searches = new Search[threads];
+    for (int i = 0; i < threads; i++) {
+      searches[i] = new Search(table);
+    }
+
+    if (threads == 1) {
+      helpers = null;
+    } else {
+      final int pool = POOL_NUMBER.incrementAndGet();
+      final AtomicInteger thread = new AtomicInteger();
+
+      helpers =
+          Executors.newFixedThreadPool(
+              threads - 1,
+              task -> {
+                final Thread helper =
+                    new Thread(task, "search-" + pool + "-helper-" + thread.incrementAndGet());
+                helper.setDaemon(true);
+                return helper;
+              });
+    }
+  }
+
+  /**
+   * @param tableCapacity how many positions the table holds
+   * @return a single threaded search that starts every search from an empty table
+   */
+  public static ParallelSearch deterministic(int tableCapacity) {
+    return new ParallelSearch(1, new TranspositionTable(tableCapacity), true);
+  }
+
+  /**
+   * Searches the game's position with every thread. Only one search runs at a time, other callers
+   * wait for it to finish.
+   *
+   * @param game the position to search, left unchanged
+   * @param limits when to stop
+   * @return the main search's result, with the nodes searched by every thread
+   */
+  public synchronized SearchResult search(ChessGame game, SearchLimits limits) {
+    if (clearTable) {
+      table.clear();
+    }
+
+    if (helpers == null) {
+      return searches[0].search(game, limits);
+    }
+
+    // each helper gets its own copy, the game may change once this returns
+    final List<Future<SearchResult>> helperResults = new ArrayList<>(searches.length - 1);
+    for (int i = 1; i < searches.length; i++) {
+      final Search helper = searches[i];
+      final ChessGame position = game.copy();
+      final int firstDepth = 1 + (i & 1);
+
+      helper.resetStop();
+      helperResults.add(helpers.submit(() -> helper.search(position, limits, firstDepth)));
+    }
+
+    final SearchResult main;
+    try {
+      main = searches[0].search(game, limits);
+    } finally {
+      for (int i = 1; i < searches.length; i++) {
+        searches[i].stop();
+      }
+    }
+
+    long nodes = main.nodes();
+    for (Future<SearchResult> helperResult : helperResults) {
+      nodes += awaitNodes(helperResult);
+    }
+
+    return new SearchResult(
+        main.bestMove(), main.score(), main.depth(), nodes, main.principalVariation());
+  }
+
+  /**
+   * @return how many threads each search uses
+   */
+  public int threads() {
+    return searches.length;
+  }
+
+  public TranspositionTable table() {
+    return table;
+  }
+
+  @Override
+  public void close() {
+    if (helpers != null) {
+      helpers.shutdownNow();
+    }
+  }
+
+  private static long awaitNodes(Future<SearchResult> helperResult) {
+    try {
+      return helperResult.get().nodes();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return 0;
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Helper search failed", e.getCause());
+    }
+  }
+}
@@ -2,9 +2,6 @@ package chess;
 
 import static chess.ChessPiece.*;
 
-import java.util.ArrayList;
-import java.util.Collection;
-
 public class PawnMoves {
 
   /**
@@ -12,47 +9,44 @@ public class PawnMoves {
    *
    * @param board game board
    * @param myPosition initial pawn position
-   * @return returns valid moves (either one or two ahead)
+   * @param validMoves where the valid moves (either one or two ahead) are added
    */
-  protected static Collection<ChessMove> calculatePawnMoves(
-      ChessBoard board, ChessPosition myPosition) {
-    var validMoves = new ArrayList<>(calculatePawnMovesWhite(board, myPosition));
-    validMoves.addAll(calculatePawnMovesBlack(board, myPosition));
-
-    return validMoves;
+  protected static void calculatePawnMoves(
+      ChessBoard board, ChessPosition myPosition, MoveList validMoves) {
+    calculatePawnMovesWhite(board, myPosition, validMoves);
+    calculatePawnMovesBlack(board, myPosition, validMoves);
   }
 
-  protected static Collection<ChessMove> calculatePawnMovesWhite(
-      ChessBoard board, ChessPosition myPosition) {
-    var validMoves = new ArrayList<ChessMove>();
+  protected static void calculatePawnMovesWhite(
+      ChessBoard board, ChessPosition myPosition, MoveList validMoves) {
     var thisPieceColor = board.getPiece(myPosition).getTeamColor();
-    var checkingPosition = new ChessPosition(myPosition.getRow(), myPosition.getColumn());
+    var checkingPosition = ChessPosition.of(myPosition.getRow(), myPosition.getColumn());
     if (board.getPiece(myPosition).getTeamColor() == ChessGame.TeamColor.WHITE) {
       if (isInBounds(myPosition, UP, NO_CHANGE)) {
-        checkingPosition = new ChessPosition(myPosition.getRow() + UP, myPosition.getColumn());
+        checkingPosition = ChessPosition.of(myPosition.getRow() + UP, myPosition.getColumn());
 
         if (checkingPosition.getRow() == 8 && board.getPiece(checkingPosition) == null) {
           addMoves(validMoves, myPosition, checkingPosition);
         } else if (board.getPiece(checkingPosition) == null) {
-          validMoves.add(new ChessMove(myPosition, checkingPosition, null));
+          addMove(validMoves, myPosition, checkingPosition);
         }
       }
 
       if (isInBounds(myPosition, UP * 2, NO_CHANGE)) {
-        checkingPosition = new ChessPosition(myPosition.getRow() + UP, myPosition.getColumn());
+        checkingPosition = ChessPosition.of(myPosition.getRow() + UP, myPosition.getColumn());
         var checkingPositionDoubleMove =
-            new ChessPosition(myPosition.getRow() + (UP * 2), myPosition.getColumn());
+            ChessPosition.of(myPosition.getRow() + (UP * 2), myPosition.getColumn());
 
         if (myPosition.getRow() == 2
             && board.getPiece(checkingPosition) == null
             && board.getPiece(checkingPositionDoubleMove) == null) {
-          validMoves.add(new ChessMove(myPosition, checkingPositionDoubleMove, null));
+          addMove(validMoves, myPosition, checkingPositionDoubleMove);
         }
       }
 
       if (isInBounds(myPosition, UP, RIGHT)) {
         checkingPosition =
-            new ChessPosition(myPosition.getRow() + UP, myPosition.getColumn() + RIGHT);
+            ChessPosition.of(myPosition.getRow() + UP, myPosition.getColumn() + RIGHT);
 
         if (checkingPosition.getRow() == 8
             && board.getPiece(checkingPosition) != null
@@ -60,13 +54,13 @@ public class PawnMoves {
           addMoves(validMoves, myPosition, checkingPosition);
         } else if (board.getPiece(checkingPosition) != null
             && thisPieceColor != board.getPiece(checkingPosition).getTeamColor()) {
-          validMoves.add(new ChessMove(myPosition, checkingPosition, null));
+          addMove(validMoves, myPosition, checkingPosition);
         }
       }
 
       if (isInBounds(myPosition, UP, LEFT)) {
         checkingPosition =
-            new ChessPosition(myPosition.getRow() + UP, myPosition.getColumn() + LEFT);
+            ChessPosition.of(myPosition.getRow() + UP, myPosition.getColumn() + LEFT);
 
         if (checkingPosition.getRow() == 8
             && board.getPiece(checkingPosition) != null
@@ -74,44 +68,42 @@ public class PawnMoves {
           addMoves(validMoves, myPosition, checkingPosition);
         } else if (board.getPiece(checkingPosition) != null
             && thisPieceColor != board.getPiece(checkingPosition).getTeamColor()) {
-          validMoves.add(new ChessMove(myPosition, checkingPosition, null));
+          addMove(validMoves, myPosition, checkingPosition);
         }
       }
     }
-    return validMoves;
   }
 
-  public static Collection<ChessMove> calculatePawnMovesBlack(
-      ChessBoard board, ChessPosition myPosition) {
-    var validMoves = new ArrayList<ChessMove>();
+  public static void calculatePawnMovesBlack(
+      ChessBoard board, ChessPosition myPosition, MoveList validMoves) {
     var thisPieceColor = board.getPiece(myPosition).getTeamColor();
-    var checkingPosition = new ChessPosition(myPosition.getRow(), myPosition.getColumn());
+    var checkingPosition = ChessPosition.of(myPosition.getRow(), myPosition.getColumn());
     if (board.getPiece(myPosition).getTeamColor() == ChessGame.TeamColor.BLACK) {
       if (isInBounds(myPosition, DOWN, NO_CHANGE)) {
-        checkingPosition = new ChessPosition(myPosition.getRow() + DOWN, myPosition.getColumn());
+        checkingPosition = ChessPosition.of(myPosition.getRow() + DOWN, myPosition.getColumn());
 
         if (checkingPosition.getRow() == 1 && board.getPiece(checkingPosition) == null) {
           addMoves(validMoves, myPosition, checkingPosition);
         } else if (board.getPiece(checkingPosition) == null) {
-          validMoves.add(new ChessMove(myPosition, checkingPosition, null));
+          addMove(validMoves, myPosition, checkingPosition);
         }
       }
 
       if (isInBounds(myPosition, DOWN * 2, NO_CHANGE)) {
-        checkingPosition = new ChessPosition(myPosition.getRow() + DOWN, myPosition.getColumn());
+        checkingPosition = ChessPosition.of(myPosition.getRow() + DOWN, myPosition.getColumn());
         var checkingPositionDoubleMove =
-            new ChessPosition(myPosition.getRow() + (DOWN * 2), myPosition.getColumn());
+            ChessPosition.of(myPosition.getRow() + (DOWN * 2), myPosition.getColumn());
 
         if (myPosition.getRow() == 7
             && board.getPiece(checkingPosition) == null
             && board.getPiece(checkingPositionDoubleMove) == null) {
-          validMoves.add(new ChessMove(myPosition, checkingPositionDoubleMove, null));
+          addMove(validMoves, myPosition, checkingPositionDoubleMove);
         }
       }
 
       if (isInBounds(myPosition, DOWN, RIGHT)) {
         checkingPosition =
-            new ChessPosition(myPosition.getRow() + DOWN, myPosition.getColumn() + RIGHT);
+            ChessPosition.of(myPosition.getRow() + DOWN, myPosition.getColumn() + RIGHT);
 
         if (checkingPosition.getRow() == 1
             && board.getPiece(checkingPosition) != null
@@ -119,13 +111,13 @@ public class PawnMoves {
           addMoves(validMoves, myPosition, checkingPosition);
         } else if (board.getPiece(checkingPosition) != null
             && thisPieceColor != board.getPiece(checkingPosition).getTeamColor()) {
-          validMoves.add(new ChessMove(myPosition, checkingPosition, null));
+          addMove(validMoves, myPosition, checkingPosition);
         }
       }
 
       if (isInBounds(myPosition, DOWN, LEFT)) {
         checkingPosition =
-            new ChessPosition(myPosition.getRow() + DOWN, myPosition.getColumn() + LEFT);
+            ChessPosition.of(myPosition.getRow() + DOWN, myPosition.getColumn() + LEFT);
 
         if (checkingPosition.getRow() == 1
             && board.getPiece(checkingPosition) != null
@@ -133,10 +125,9 @@ public class PawnMoves {
           addMoves(validMoves, myPosition, checkingPosition);
         } else if (board.getPiece(checkingPosition) != null
             && thisPieceColor != board.getPiece(checkingPosition).getTeamColor()) {
-          validMoves.add(new ChessMove(myPosition, checkingPosition, null));
+          addMove(validMoves, myPosition, checkingPosition);
         }
       }
     }
-    return validMoves;
   }
 }
@@ -0,0 +1,225 @@
+package chess;
+
+/**
+ * The pawn skeleton of a position: which pawns are passed, isolated, doubled or backward, and how
+ * many pawn islands each side has.
+ *
+ * <p>Pawns move rarely compared to the other pieces, so results are cached in a {@link PawnTable}
+ * keyed on the board's pawn-only Zobrist key and most positions reuse an earlier analysis. An
+ * analysis never changes once made, so cached copies can be handed to any thread.
+ */
+public final class PawnStructure {
+
+  // packed middlegame and endgame pairs, see Evaluation.score(int, int)
+  private static final int DOUBLED_PAWN = Evaluation.score(-10, -20);
+  private static final int ISOLATED_PAWN = Evaluation.score(-10, -15);
+  private static final int BACKWARD_PAWN = Evaluation.score(-8, -10);
+  private static final int EXTRA_ISLAND = Evaluation.score(-5, -10);
+
+  /** Passed pawn bonus by how far the pawn has advanced, 0 being its own back row */
+  private static final int[] PASSED_PAWN = {
+    Evaluation.score(0, 0),
+    Evaluation.score(5, 10),
+    Evaluation.score(10, 20),
+    Evaluation.score(15, 35),
+    Evaluation.score(25, 60),
+    Evaluation.score(40, 90),
+    Evaluation.score(60, 130),
+    Evaluation.score(0, 0),
+  };
+
+  private static final long FILE_A = 0x0101010101010101L;
+
+  /** Squares in front of a pawn on its own file, by color then square */
+  private static final long[][] FRONT_SPANS = new long[2][Bitboards.SQUARES];
+
+  /** Squares in front of a pawn on its own and neighbouring files, by color then square */
+  private static final long[][] PASSED_MASKS = new long[2][Bitboards.SQUARES];
+
+  /** Squares on neighbouring files level with or behind a pawn, by color then square */
+  private static final long[][] SUPPORT_MASKS = new long[2][Bitboards.SQUARES];
+
+  static {
+    for (int square = 0; square < Bitboards.SQUARES; square++) {
+      final int file = square & 7;
+      final int row = square >>> 3;
+
+      for (int other = 0; other < Bitboards.SQUARES; other++) {
+        final int fileDistance = Math.abs((other & 7) - file);
+        final int otherRow = other >>> 3;
+        final long bit = Bitboards.bit(other);
+
+        if (fileDistance > 1) {
+          continue;
+        }
+
+        if (otherRow > row) {
+          PASSED_MASKS[0][square] |= bit;
+          if (fileDistance == 0) {
+            FRONT_SPANS[0][square] |= bit;
+          }
+        }
+        if (otherRow < row) {
+          PASSED_MASKS[1][square] |= bit;
+          if (fileDistance == 0) {
+            FRONT_SPANS[1][square] |= bit;
+          }
+        }
+        if (fileDistance == 1 && otherRow <= row) {
+          SUPPORT_MASKS[0][square] |= bit;
+        }
+        if (fileDistance == 1 && otherRow >= row) {
+          SUPPORT_MASKS[1][square] |= bit;
+        }
+      }
+    }
+  }
+
+  private final long whitePawns;
+  private final long blackPawns;
+  private final long[] passed = new long[2];
+  private final long[] isolated = new long[2];
+  private final long[] doubled = new long[2];
+  private final long[] backward = new long[2];
+  private final int[] islands = new int[2];
+  private final int score;
+
+  private PawnStructure(long whitePawns, long blackPawns) {
+    this.whitePawns = whitePawns;
+    this.blackPawns = blackPawns;
+
+    analyze(ChessGame.TeamColor.WHITE, whitePawns, blackPawns);
+    analyze(ChessGame.TeamColor.BLACK, blackPawns, whitePawns);
+
+    score = score(ChessGame.TeamColor.WHITE) - score(ChessGame.TeamColor.BLACK);
+  }
+
+  /**
+   * @param board the position to look at
+   * @return the board's pawn structure, from the shared cache when it has been seen before
+   */
+  public static PawnStructure of(ChessBoard board) {
+    return PawnTable.SHARED.get(board);
+  }
+
+  /**
+   * Analyzes the pawns without looking in any cache
+   */
+  static PawnStructure analyze(ChessBoard board) {
+    return new PawnStructure(
+        board.pieces(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN),
+        board.pieces(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+  }
+
+  /**
+   * @return true if this is the analysis of exactly these pawns
+   */
+  boolean matches(long whitePawns, long blackPawns) {
+    return this.whitePawns == whitePawns && this.blackPawns == blackPawns;
+  }
+
+  /**
+   * @return bitboard of the team's pawns with no enemy pawn ahead of them on their own or a
+   *     neighbouring file
+   */
+  public long passed(ChessGame.TeamColor color) {
+    return passed[color.ordinal()];
+  }
+
+  /**
+   * @return bitboard of the team's pawns with no friendly pawn on a neighbouring file
+   */
+  public long isolated(ChessGame.TeamColor color) {
+    return isolated[color.ordinal()];
+  }
+
+  /**
+   * @return bitboard of the team's pawns that have another friendly pawn ahead of them on the same
+   *     file (so a file with two pawns has one doubled pawn)
+   */
+  public long doubled(ChessGame.TeamColor color) {
+    return doubled[color.ordinal()];
+  }
+
+  /**
+   * @return bitboard of the team's pawns that no friendly pawn can ever defend and whose next
+   *     square is covered by an enemy pawn
+   */
+  public long backward(ChessGame.TeamColor color) {
+    return backward[color.ordinal()];
+  }
+
+  /**
+   * @return how many groups of pawns on adjacent files the team has
+   */
+  public int islands(ChessGame.TeamColor color) {
+    return islands[color.ordinal()];
+  }
+
+  /**
+   * @return white minus black pawn structure value, packed like the other evaluation terms
+   */
+  int score() {
+    return score;
+  }
+
+  private void analyze(ChessGame.TeamColor color, long pawns, long enemyPawns) {
+    final int side = color.ordinal();
+    final int forward = color == ChessGame.TeamColor.WHITE ? 8 : -8;
+
+    int files = 0;
+    long remaining = pawns;
+    while (remaining != 0) {
+      final int square = Long.numberOfTrailingZeros(remaining);
+      remaining &= remaining - 1;
+
+      final long bit = Bitboards.bit(square);
+      final int file = square & 7;
+      files |= 1 << file;
+
+      if ((pawns & FRONT_SPANS[side][square]) != 0) {
+        doubled[side] |= bit;
+      }
+
+      if ((enemyPawns & PASSED_MASKS[side][square]) == 0
+          && (pawns & FRONT_SPANS[side][square]) == 0) {
+        passed[side] |= bit;
+      }
+
+      final long neighbours =
+          (file > 0 ? FILE_A << (file - 1) : 0) | (file < 7 ? FILE_A << (file + 1) : 0);
+      if ((pawns & neighbours) == 0) {
+        isolated[side] |= bit;
+      } else if ((pawns & SUPPORT_MASKS[side][square]) == 0) {
+        final int next = square + forward;
+        if (next >= 0
+            && next < Bitboards.SQUARES
+            && (Bitboards.PAWN_ATTACKS[side][next] & enemyPawns) != 0) {
+          backward[side] |= bit;
+        }
+      }
+    }
+
+    islands[side] = Integer.bitCount(files & ~(files << 1));
+  }
+
+  private int score(ChessGame.TeamColor color) {
+    final int side = color.ordinal();
+    int total =
+        Long.bitCount(doubled[side]) * DOUBLED_PAWN
+            + Long.bitCount(isolated[side]) * ISOLATED_PAWN
+            + Long.bitCount(backward[side]) * BACKWARD_PAWN
+            + Math.max(0, islands[side] - 1) * EXTRA_ISLAND;
+
+    long remaining = passed[side];
+    while (remaining != 0) {
+      final int square = Long.numberOfTrailingZeros(remaining);
+      remaining &= remaining - 1;
+
+      final int row = square >>> 3;
+      total += PASSED_PAWN[color == ChessGame.TeamColor.WHITE ? row : 7 - row];
+    }
+
+    return total;
+  }
+}
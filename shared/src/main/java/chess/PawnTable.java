@@ -0,0 +1,42 @@
+package chess;
+
+/**
+ * A small fixed-size cache of {@link PawnStructure}s, indexed by the board's pawn key.
+ *
+ * <p>Slots hold immutable analyses and are read and written without locks: a thread either sees
+ * an old analysis or a new one, and each is checked against the actual pawns before it is used,
+ * so a clash between two pawn keys can only cost a fresh analysis.
+ */
+final class PawnTable {
+
+  /** Used by {@link PawnStructure#of(ChessBoard)} and the evaluation */
+  static final PawnTable SHARED = new PawnTable(1 << 14);
+
+  private final PawnStructure[] entries;
+  private final int mask;
+
+  /**
+   * @param capacity how many pawn structures to hold, rounded down to a power of two
+   */
+  PawnTable(int capacity) {
+    final int size = Integer.highestOneBit(Math.max(1, capacity));
+    entries = new PawnStructure[size];
+    mask = size - 1;
+  }
+
+  PawnStructure get(ChessBoard board) {
+    final long key = board.pawnKey();
+    final int index = (int) (key ^ (key >>> 32)) & mask;
+    final long whitePawns = board.pieces(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+    final long blackPawns = board.pieces(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
+
+    final PawnStructure cached = entries[index];
+    if (cached != null && cached.matches(whitePawns, blackPawns)) {
+      return cached;
+    }
+
+    final PawnStructure structure = PawnStructure.analyze(board);
+    entries[index] = structure;
+    return structure;
+  }
+}
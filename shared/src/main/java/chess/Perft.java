@@ -0,0 +1,177 @@
+package chess;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth ("perft"). Comparing the counts
+ * with published numbers for well-known positions is the standard way to check a move generator,
+ * and the time it takes is a simple measure of its speed.
+ *
+ * <p>Run {@code java -cp shared.jar chess.Perft <depth> [fen]} to print the divide (nodes under
+ * each root move) and the total for a position.
+ */
+public final class Perft {
+
+  /** Positions with published node counts, starting at depth 1 */
+  public enum ReferencePosition {
+    START(Fen.START_POSITION, 20, 400, 8902, 197281, 4865609),
+    // castling, en passant and promotions all come up within a few plies
+    KIWIPETE(
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+        48,
+        2039,
+        97862,
+        4085603),
+    POSITION_3("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", 14, 191, 2812, 43238, 674624);
+
+    private final String fen;
+    private final long[] nodes;
+
+    ReferencePosition(String fen, long... nodes) {
+      this.fen = fen;
+      this.nodes = nodes;
+    }
+
+    public String fen() {
+      return fen;
+    }
+
+    public int maxDepth() {
+      return nodes.length;
+    }
+
+    /**
+     * @param depth 1 to {@link #maxDepth()}
+     * @return the published node count at that depth
+     */
+    public long expectedNodes(int depth) {
+      return nodes[depth - 1];
+    }
+  }
+
+  private Perft() {}
+
+  /**
+   * @param game the position to start from, left unchanged when this returns
+   * @param depth how many plies to search
+   * @return the number of leaf nodes at that depth
+   */
+  public static long perft(ChessGame game, int depth) {
+    if (depth <= 0) {
+      return 1;
+    }
+
+    return count(
+        game.getBoard(),
+        game.getTeamTurn(),
+        game.castlingRights(),
+        game.enPassantSquare(),
+        depth,
+        moveLists(depth));
+  }
+
+  /**
+   * @param game the position to start from, left unchanged when this returns
+   * @param depth how many plies to search, at least 1
+   * @return each legal root move with the number of leaf nodes below it, in generation order
+   */
+  public static Map<ChessMove, Long> divide(ChessGame game, int depth) {
+    final ChessBoard board = game.getBoard();
+    final ChessGame.TeamColor color = game.getTeamTurn();
+    final Map<ChessMove, Long> divide = new LinkedHashMap<>();
+    final MoveList[] moveLists = moveLists(depth);
+
+    for (ChessMove move : game.legalMoves(color)) {
+      final int packed = move.toPacked();
+      final long undo = board.makeMove(packed);
+      final long nodes =
+          depth <= 1
+              ? 1
+              : count(
+                  board,
+                  MoveGenerator.opponent(color),
+                  Castling.afterMove(game.castlingRights(), packed),
+                  MoveGenerator.enPassantSquare(board, color, packed),
+                  depth - 1,
+                  moveLists);
+      divide.put(move, nodes);
+      board.unmakeMove(undo);
+    }
+
+    return divide;
+  }
+
+  /**
+   * @return one reusable move list per ply
+   */
+  private static MoveList[] moveLists(int depth) {
+    final MoveList[] moveLists = new MoveList[Math.max(depth, 1)];
+    for (int ply = 0; ply < moveLists.length; ply++) {
+      moveLists[ply] = new MoveList();
+    }
+    return moveLists;
+  }
+
+  private static long count(
+      ChessBoard board,
+      ChessGame.TeamColor color,
+      int castlingRights,
+      int enPassantSquare,
+      int depth,
+      MoveList[] moveLists) {
+    final MoveList moves = moveLists[depth - 1];
+    moves.clear();
+    MoveGenerator.generate(
+        board, color, board.occupancy(color), castlingRights, enPassantSquare, moves);
+
+    if (depth == 1) {
+      return moves.size();
+    }
+
+    final ChessGame.TeamColor enemy = MoveGenerator.opponent(color);
+    long nodes = 0;
+    for (int i = 0; i < moves.size(); i++) {
+      final int move = moves.get(i);
+      final long undo = board.makeMove(move);
+      nodes +=
+          count(
+              board,
+              enemy,
+              Castling.afterMove(castlingRights, move),
+              MoveGenerator.enPassantSquare(board, color, move),
+              depth - 1,
+              moveLists);
+      board.unmakeMove(undo);
+    }
+
+    return nodes;
+  }
+
+  public static void main(String[] args) {
+    if (args.length < 1) {
+      System.out.println("Usage: chess.Perft <depth> [fen]");
+      return;
+    }
+
+    final int depth = Integer.parseInt(args[0]);
+    final String fen =
+        args.length > 1
+            ? String.join(" ", Arrays.copyOfRange(args, 1, args.length))
+            : Fen.START_POSITION;
+    final ChessGame game = Fen.toGame(fen);
+
+    final long start = System.nanoTime();
+    long total = 0;
+    for (var entry : divide(game, depth).entrySet()) {
+      System.out.println(entry.getKey() + ": " + entry.getValue());
+      total += entry.getValue();
+    }
+    final long elapsed = System.nanoTime() - start;
+
+    System.out.println();
+    System.out.println("Nodes: " + total);
+    System.out.printf("Time: %.3f s (%.0f nodes/s)%n", elapsed / 1e9, total / (elapsed / 1e9));
+  }
+}
@@ -0,0 +1,144 @@
+package chess;
+
+/**
+ * Material plus piece-square values for the middlegame and the endgame. {@link ChessBoard} adds
+ * and subtracts them as pieces come and go, so the positional part of the evaluation is always
+ * ready without a pass over the board.
+ *
+ * <p>Tables are written from white's side with row 8 first, the way a board is usually printed.
+ * Knights, bishops, rooks and queens use one table for both phases; pawns and kings play very
+ * differently once the queens are off, so they get a second table for the endgame.
+ */
+final class PieceSquareTables {
+
+  /** Indexed by {@link ChessPiece#index()} then square, positive for white, negative for black */
+  static final int[][] MIDDLEGAME = new int[ChessPiece.PIECE_KINDS][Bitboards.SQUARES];
+
+  static final int[][] ENDGAME = new int[ChessPiece.PIECE_KINDS][Bitboards.SQUARES];
+
+  /** How much each piece type counts toward the middlegame, indexed by type ordinal */
+  static final int[] PHASE = {0, 4, 1, 1, 2, 0};
+
+  /** {@link #PHASE} with every piece of the starting position on the board */
+  static final int MAX_PHASE = 24;
+
+  // indexed by type ordinal: king, queen, bishop, knight, rook, pawn
+  private static final int[] MIDDLEGAME_VALUES = {0, 1025, 365, 337, 477, 82};
+  private static final int[] ENDGAME_VALUES = {0, 936, 297, 281, 512, 94};
+
+  private static final int[] KING_MIDDLEGAME = {
+    -30, -40, -40, -50, -50, -40, -40, -30,
+    -30, -40, -40, -50, -50, -40, -40, -30,
+    -30, -40, -40, -50, -50, -40, -40, -30,
+    -30, -40, -40, -50, -50, -40, -40, -30,
+    -20, -30, -30, -40, -40, -30, -30, -20,
+    -10, -20, -20, -20, -20, -20, -20, -10,
+     20,  20,   0,   0,   0,   0,  20,  20,
+     20,  30,  10,   0,   0,  10,  30,  20,
+  };
+
+  private static final int[] KING_ENDGAME = {
+    -50, -40, -30, -20, -20, -30, -40, -50,
+    -30, -20, -10,   0,   0, -10, -20, -30,
+    -30, -10,  20,  30,  30,  20, -10, -30,
+    -30, -10,  30,  40,  40,  30, -10, -30,
+    -30, -10,  30,  40,  40,  30, -10, -30,
+    -30, -10,  20,  30,  30,  20, -10, -30,
+    -30, -30,   0,   0,   0,   0, -30, -30,
+    -50, -30, -30, -30, -30, -30, -30, -50,
+  };
+
+  private static final int[] QUEEN = {
+    -20, -10, -10,  -5,  -5, -10, -10, -20,
+    -10,   0,   0,   0,   0,   0,   0, -10,
+    -10,   0,   5,   5,   5,   5,   0, -10,
+     -5,   0,   5,   5,   5,   5,   0,  -5,
+      0,   0,   5,   5,   5,   5,   0,  -5,
+    -10,   5,   5,   5,   5,   5,   0, -10,
+    -10,   0,   5,   0,   0,   0,   0, -10,
+    -20, -10, -10,  -5,  -5, -10, -10, -20,
+  };
+
+  private static final int[] BISHOP = {
+    -20, -10, -10, -10, -10, -10, -10, -20,
+    -10,   0,   0,   0,   0,   0,   0, -10,
+    -10,   0,   5,  10,  10,   5,   0, -10,
+    -10,   5,   5,  10,  10,   5,   5, -10,
+    -10,   0,  10,  10,  10,  10,   0, -10,
+    -10,  10,  10,  10,  10,  10,  10, -10,
+    -10,   5,   0,   0,   0,   0,   5, -10,
+    -20, -10, -10, -10, -10, -10, -10, -20,
+  };
+
+  private static final int[] KNIGHT = {
+    -50, -40, -30, -30, -30, -30, -40, -50,
+    -40, -20,   0,   0,   0,   0, -20, -40,
+    -30,   0,  10,  15,  15,  10,   0, -30,
+    -30,   5,  15,  20,  20,  15,   5, -30,
+    -30,   0,  15,  20,  20,  15,   0, -30,
+    -30,   5,  10,  15,  15,  10,   5, -30,
+    -40, -20,   0,   5,   5,   0, -20, -40,
+    -50, -40, -30, -30, -30, -30, -40, -50,
+  };
+
+  private static final int[] ROOK = {
+      0,   0,   0,   0,   0,   0,   0,   0,
+      5,  10,  10,  10,  10,  10,  10,   5,
+     -5,   0,   0,   0,   0,   0,   0,  -5,
+     -5,   0,   0,   0,   0,   0,   0,  -5,
+     -5,   0,   0,   0,   0,   0,   0,  -5,
+     -5,   0,   0,   0,   0,   0,   0,  -5,
+     -5,   0,   0,   0,   0,   0,   0,  -5,
+      0,   0,   0,   5,   5,   0,   0,   0,
+  };
+
+  private static final int[] PAWN_MIDDLEGAME = {
+      0,   0,   0,   0,   0,   0,   0,   0,
+     50,  50,  50,  50,  50,  50,  50,  50,
+     10,  10,  20,  30,  30,  20,  10,  10,
+      5,   5,  10,  25,  25,  10,   5,   5,
+      0,   0,   0,  20,  20,   0,   0,   0,
+      5,  -5, -10,   0,   0, -10,  -5,   5,
+      5,  10,  10, -20, -20,  10,  10,   5,
+      0,   0,   0,   0,   0,   0,   0,   0,
+  };
+
+  private static final int[] PAWN_ENDGAME = {
+      0,   0,   0,   0,   0,   0,   0,   0,
+     80,  80,  80,  80,  80,  80,  80,  80,
+     50,  50,  50,  50,  50,  50,  50,  50,
+     30,  30,  30,  30,  30,  30,  30,  30,
+     15,  15,  15,  15,  15,  15,  15,  15,
+      5,   5,   5,   5,   5,   5,   5,   5,
+      0,   0,   0,   0,   0,   0,   0,   0,
+      0,   0,   0,   0,   0,   0,   0,   0,
+  };
+
+  // indexed by type ordinal
+  private static final int[][] MIDDLEGAME_TABLES = {
+    KING_MIDDLEGAME, QUEEN, BISHOP, KNIGHT, ROOK, PAWN_MIDDLEGAME
+  };
+  private static final int[][] ENDGAME_TABLES = {
+    KING_ENDGAME, QUEEN, BISHOP, KNIGHT, ROOK, PAWN_ENDGAME
+  };
+
+  static {
+    for (int type = 0; type < 6; type++) {
+      for (int square = 0; square < Bitboards.SQUARES; square++) {
+        // the tables start at row 8, which is where black starts, so only white flips
+        final int white = square ^ 56;
+        final int black = square;
+        final int whiteIndex = type;
+        final int blackIndex = 6 + type;
+
+        MIDDLEGAME[whiteIndex][square] = MIDDLEGAME_VALUES[type] + MIDDLEGAME_TABLES[type][white];
+        ENDGAME[whiteIndex][square] = ENDGAME_VALUES[type] + ENDGAME_TABLES[type][white];
+        MIDDLEGAME[blackIndex][square] =
+            -(MIDDLEGAME_VALUES[type] + MIDDLEGAME_TABLES[type][black]);
+        ENDGAME[blackIndex][square] = -(ENDGAME_VALUES[type] + ENDGAME_TABLES[type][black]);
+      }
+    }
+  }
+
+  private PieceSquareTables() {}
+}
@@ -0,0 +1,552 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Picks a move with a negamax alpha-beta search.
+ *
+ * <p>The search deepens one ply at a time until it runs out of {@link SearchLimits}, and each
+ * iteration tries the previous iteration's principal variation first. Leaves are resolved by a
+ * quiescence search over captures so positions are never scored in the middle of an exchange.
+ * Other moves are ordered by most valuable victim / least valuable attacker for captures, then
+ * killer moves, then the history of quiet moves that caused cutoffs. Results are kept in a
+ * {@link TranspositionTable}, which cuts off positions reached again by another move order and
+ * puts the best move found last time first.
+ *
+ * <p>A search works on its own copy of the board, so the game passed in is never touched. One
+ * instance may be reused for many searches but must not be shared between threads; threads that
+ * should help each other share a table instead, see {@link ParallelSearch}.
+ */
+public final class Search {
+
+  /** Score for delivering mate right now; mate in n plies scores {@code MATE - n} */
+  public static final int MATE = 30_000;
+
+  static final int MAX_PLY = 64;
+
+  private static final int INFINITY = 32_000;
+
+  // more than the 218 legal moves the busiest known position has
+  private static final int MAX_MOVES = 256;
+
+  // limits are checked once every this many nodes
+  private static final int CHECK_MASK = 1023;
+
+  // move ordering bands, highest first
+  private static final int PV_SCORE = 1 << 30;
+  private static final int CAPTURE_SCORE = 1 << 28;
+  private static final int KILLER_SCORE = 1 << 27;
+  private static final int HISTORY_LIMIT = 1 << 20;
+
+  private static final int DEFAULT_TABLE_MEGABYTES = 1;
+
+  private static final int QUEEN = ChessPiece.PieceType.QUEEN.ordinal();
+  private static final int PAWN = ChessPiece.PieceType.PAWN.ordinal();
+
+  /** Capture ordering rank of each piece type, indexed by {@link ChessPiece.PieceType#ordinal()} */
+  private static final int[] ORDER_VALUES = {6, 5, 3, 2, 4, 1};
+
+  private final ChessBoard board = new ChessBoard();
+  private final TranspositionTable table;
+
+  private final MoveList[] moveLists = new MoveList[MAX_PLY];
+  private final int[][] moveScores = new int[MAX_PLY][];
+  private final int[][] killers = new int[MAX_PLY][2];
+  private final int[][] history = new int[2][Bitboards.SQUARES * Bitboards.SQUARES];
+
+  /** Triangular principal variation table, row n holds the line found from ply n */
+  private final int[][] pv = new int[MAX_PLY + 1][MAX_PLY + 1];
+  private final int[] pvLength = new int[MAX_PLY + 1];
+
+  private final long[] keys = new long[MAX_PLY + 1];
+  private final int[] castlingRights = new int[MAX_PLY + 1];
+  private final int[] enPassantSquares = new int[MAX_PLY + 1];
+
+  /** Keys of the positions the game went through before the root, see {@link ChessGame} */
+  private long[] gameHistory = new long[0];
+  private final boolean[] onPv = new boolean[MAX_PLY + 1];
+  private int[] previousPv = new int[0];
+
+  private long nodes;
+  private long nodeLimit;
+  private long deadline;
+  private boolean timed;
+  private boolean canStop;
+  private boolean stopped;
+  private volatile boolean stopRequested;
+
+  public Search() {
+    this(TranspositionTable.ofMegabytes(DEFAULT_TABLE_MEGABYTES));
+  }
+
+  /**
+   * @param table where results are kept between positions and searches, may be shared with other
+   *     searches of the same game
+   */
+  public Search(TranspositionTable table) {
+    this.table = table;
+    for (int ply = 0; ply < MAX_PLY; ply++) {
+      moveLists[ply] = new MoveList(MAX_MOVES);
+      moveScores[ply] = new int[MAX_MOVES];
+    }
+  }
+
+  /**
+   * Searches the game's position for the side to move. The first iteration always runs to
+   * completion, so there is a move to return even under the tightest limits.
+   *
+   * @param game the position to search, left unchanged
+   * @param limits when to stop
+   * @return the best move found and the line behind it
+   */
+  public SearchResult search(ChessGame game, SearchLimits limits) {
+    stopRequested = false;
+    table.nextGeneration();
+    return search(game, limits, 1);
+  }
+
+  /**
+   * Like {@link #search(ChessGame, SearchLimits)}, but keeps any pending {@link #stop()} request
+   *
+   * @param firstDepth the depth of the first iteration
+   */
+  SearchResult search(ChessGame game, SearchLimits limits, int firstDepth) {
+    final ChessGame.TeamColor color = game.getTeamTurn();
+    final int maxDepth = limits.depth() > 0 ? Math.min(limits.depth(), MAX_PLY) : MAX_PLY;
+    final long start = System.nanoTime();
+
+    board.copyFrom(game.getBoard());
+    castlingRights[0] = game.castlingRights();
+    enPassantSquares[0] = game.enPassantSquare();
+    keys[0] = key(color, 0);
+    gameHistory = game.keyHistory;
+    for (int[] plyKillers : killers) {
+      Arrays.fill(plyKillers, 0);
+    }
+    for (int[] colorHistory : history) {
+      Arrays.fill(colorHistory, 0);
+    }
+    previousPv = new int[0];
+
+    nodes = 0;
+    nodeLimit = limits.nodes() > 0 ? limits.nodes() : Long.MAX_VALUE;
+    timed = limits.millis() > 0;
+    deadline = start + limits.millis() * 1_000_000;
+    canStop = false;
+    stopped = false;
+
+    int bestScore = 0;
+    int completedDepth = 0;
+
+    for (int depth = Math.min(firstDepth, maxDepth); depth <= maxDepth; depth++) {
+      onPv[0] = true;
+      final int score = negamax(color, depth, 0, -INFINITY, INFINITY);
+
+      if (stopped) {
+        break;
+      }
+
+      bestScore = score;
+      completedDepth = depth;
+      previousPv = Arrays.copyOf(pv[0], pvLength[0]);
+      canStop = true;
+
+      // mates don't get any shorter by looking deeper, and the next iteration would take at
+      // least as long as all the previous ones put together
+      if (previousPv.length == 0
+          || Math.abs(score) >= MATE - MAX_PLY
+          || (timed && (System.nanoTime() - start) * 2 > limits.millis() * 1_000_000)) {
+        break;
+      }
+    }
+
+    final List<ChessMove> line = new ArrayList<>(previousPv.length);
+    for (int move : previousPv) {
+      line.add(ChessMove.fromPacked(move));
+    }
+
+    return new SearchResult(
+        line.isEmpty() ? null : line.get(0), bestScore, completedDepth, nodes, line);
+  }
+
+  /**
+   * Asks a running search to stop as soon as its first iteration has finished. Safe to call from
+   * any thread.
+   */
+  public void stop() {
+    stopRequested = true;
+  }
+
+  /**
+   * Forgets any {@link #stop()} request, for searches started with {@link #search(ChessGame,
+   * SearchLimits, int)}
+   */
+  void resetStop() {
+    stopRequested = false;
+  }
+
+  private int negamax(ChessGame.TeamColor color, int depth, int ply, int alpha, int beta) {
+    pvLength[ply] = ply;
+
+    if (ply > 0 && isRepetition(ply)) {
+      return 0;
+    }
+
+    final boolean inCheck = board.isKingAttacked(color);
+    if (inCheck) {
+      depth++;
+    }
+    if (depth <= 0 || ply >= MAX_PLY) {
+      return quiescence(color, ply, alpha, beta);
+    }
+
+    if (countNode()) {
+      return 0;
+    }
+
+    final long entry = table.probe(keys[ply]);
+    int tableMove = 0;
+    if (entry != TranspositionTable.MISS) {
+      tableMove = TranspositionTable.move(entry);
+
+      // the root always searches, so there is a line to report
+      if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+        final int score = fromTable(TranspositionTable.score(entry), ply);
+        final int bound = TranspositionTable.bound(entry);
+
+        if (bound == TranspositionTable.EXACT
+            || (bound == TranspositionTable.LOWER && score >= beta)
+            || (bound == TranspositionTable.UPPER && score <= alpha)) {
+          return score;
+        }
+      }
+    }
+
+    final MoveList moves = moveLists[ply];
+    moves.clear();
+    MoveGenerator.generate(
+        board,
+        color,
+        board.occupancy(color),
+        castlingRights[ply],
+        enPassantSquares[ply],
+        moves);
+
+    if (moves.isEmpty()) {
+      return inCheck ? -MATE + ply : 0;
+    }
+
+    scoreMoves(moves, ply, color, tableMove);
+
+    final ChessGame.TeamColor enemy = MoveGenerator.opponent(color);
+    final int originalAlpha = alpha;
+    int best = -INFINITY;
+    int bestMove = 0;
+
+    for (int i = 0; i < moves.size(); i++) {
+      final int move = pickMove(moves, ply, i);
+      final boolean quiet = isQuiet(move);
+
+      onPv[ply + 1] = onPv[ply] && ply < previousPv.length && move == previousPv[ply];
+      final long undo = makeMove(color, move, ply);
+      final int score = -negamax(enemy, depth - 1, ply + 1, -beta, -alpha);
+      board.unmakeMove(undo);
+
+      if (stopped) {
+        return 0;
+      }
+
+      if (score > best) {
+        best = score;
+        bestMove = move;
+        if (score > alpha) {
+          alpha = score;
+          updatePv(ply, move);
+
+          if (score >= beta) {
+            if (quiet) {
+              rememberCutoff(color, move, depth, ply);
+            }
+            break;
+          }
+        }
+      }
+    }
+
+    final int bound =
+        best >= beta
+            ? TranspositionTable.LOWER
+            : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+    table.store(keys[ply], depth, bound, toTable(best, ply), bestMove);
+
+    return best;
+  }
+
+  private int quiescence(ChessGame.TeamColor color, int ply, int alpha, int beta) {
+    pvLength[ply] = ply;
+    onPv[ply] = false;
+
+    if (countNode()) {
+      return 0;
+    }
+
+    final boolean inCheck = board.isKingAttacked(color);
+    int best = -INFINITY;
+
+    // a side that isn't in check can always decline to capture
+    if (!inCheck) {
+      best = Evaluation.evaluate(board, color);
+      if (best >= beta || ply >= MAX_PLY) {
+        return best;
+      }
+      alpha = Math.max(alpha, best);
+    } else if (ply >= MAX_PLY) {
+      return Evaluation.evaluate(board, color);
+    }
+
+    final MoveList moves = moveLists[ply];
+    moves.clear();
+    MoveGenerator.generate(
+        board,
+        color,
+        board.occupancy(color),
+        castlingRights[ply],
+        enPassantSquares[ply],
+        moves);
+
+    if (moves.isEmpty()) {
+      return inCheck ? -MATE + ply : best;
+    }
+
+    scoreMoves(moves, ply, color, 0);
+
+    final ChessGame.TeamColor enemy = MoveGenerator.opponent(color);
+
+    for (int i = 0; i < moves.size(); i++) {
+      final int move = pickMove(moves, ply, i);
+
+      // moves come out best first, so once the captures run out only quiet moves are left
+      if (!inCheck && moveScores[ply][i] < CAPTURE_SCORE) {
+        break;
+      }
+
+      onPv[ply + 1] = false;
+      final long undo = makeMove(color, move, ply);
+      final int score = -quiescence(enemy, ply + 1, -beta, -alpha);
+      board.unmakeMove(undo);
+
+      if (stopped) {
+        return 0;
+      }
+
+      if (score > best) {
+        best = score;
+        if (score > alpha) {
+          alpha = score;
+          updatePv(ply, move);
+
+          if (score >= beta) {
+            break;
+          }
+        }
+      }
+    }
+
+    return best;
+  }
+
+  /**
+   * Counts a node and checks the limits every so often
+   *
+   * @return true if the search has to stop
+   */
+  private boolean countNode() {
+    if ((++nodes & CHECK_MASK) == 0 && canStop) {
+      stopped =
+          stopRequested || nodes >= nodeLimit || (timed && System.nanoTime() - deadline >= 0);
+    }
+    return stopped;
+  }
+
+  /**
+   * Plays a move on the search board and works out the state and key of the position it leads to
+   *
+   * @return undo record to pass to {@link ChessBoard#unmakeMove(long)}
+   */
+  private long makeMove(ChessGame.TeamColor color, int move, int ply) {
+    final long undo = board.makeMove(move);
+    castlingRights[ply + 1] = Castling.afterMove(castlingRights[ply], move);
+    enPassantSquares[ply + 1] = MoveGenerator.enPassantSquare(board, color, move);
+    keys[ply + 1] = key(MoveGenerator.opponent(color), ply + 1);
+    return undo;
+  }
+
+  /**
+   * @return true if the position at this ply already came up earlier in the line being searched
+   *     or in the game before it
+   */
+  private boolean isRepetition(int ply) {
+    int earlier = ply - 2;
+    for (; earlier >= 0; earlier -= 2) {
+      if (keys[earlier] == keys[ply]) {
+        return true;
+      }
+    }
+
+    // earlier is now -1 or -2, and the game's last position is the one just before the root
+    for (int index = gameHistory.length + earlier; index >= 0; index -= 2) {
+      if (gameHistory[index] == keys[ply]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private long key(ChessGame.TeamColor toMove, int ply) {
+    return ChessGame.positionKey(board, toMove, castlingRights[ply], enPassantSquares[ply]);
+  }
+
+  /**
+   * Mate scores count plies from the root, but the table may hand an entry to a search that
+   * reaches the position at a different ply, so they are stored relative to the position instead
+   */
+  private static int toTable(int score, int ply) {
+    if (score >= MATE - MAX_PLY) {
+      return score + ply;
+    }
+    if (score <= -MATE + MAX_PLY) {
+      return score - ply;
+    }
+    return score;
+  }
+
+  private static int fromTable(int score, int ply) {
+    if (score >= MATE - MAX_PLY) {
+      return score - ply;
+    }
+    if (score <= -MATE + MAX_PLY) {
+      return score + ply;
+    }
+    return score;
+  }
+
+  /**
+   * @param tableMove the best move the table has for this position, or 0
+   */
+  private void scoreMoves(MoveList moves, int ply, ChessGame.TeamColor color, int tableMove) {
+    final int pvMove = onPv[ply] && ply < previousPv.length ? previousPv[ply] : tableMove;
+    final int[] scores = moveScores[ply];
+    final int[] colorHistory = history[color.ordinal()];
+
+    for (int i = 0; i < moves.size(); i++) {
+      final int move = moves.get(i);
+
+      if (move == pvMove && move != 0) {
+        scores[i] = PV_SCORE;
+        continue;
+      }
+
+      final int from = ChessMove.startSquare(move);
+      final int to = ChessMove.endSquare(move);
+      final int victim = capturedType(move);
+      final ChessPiece.PieceType promotion = ChessMove.promotionPiece(move);
+
+      if (victim >= 0 || promotion == ChessPiece.PieceType.QUEEN) {
+        final int attacker = board.pieceIndexAt(from) % 6;
+        int score = CAPTURE_SCORE - ORDER_VALUES[attacker];
+        if (victim >= 0) {
+          score += ORDER_VALUES[victim] * 8;
+        }
+        if (promotion == ChessPiece.PieceType.QUEEN) {
+          score += ORDER_VALUES[QUEEN] * 8;
+        }
+        scores[i] = score;
+      } else if (promotion != null) {
+        // underpromotions are almost never the best move
+        scores[i] = -1;
+      } else if (move == killers[ply][0]) {
+        scores[i] = KILLER_SCORE;
+      } else if (move == killers[ply][1]) {
+        scores[i] = KILLER_SCORE - 1;
+      } else {
+        scores[i] = colorHistory[from * Bitboards.SQUARES + to];
+      }
+    }
+  }
+
+  /**
+   * Moves the best scoring of the remaining moves into slot {@code index}, so moves that are never
+   * searched because of a cutoff are never sorted either
+   *
+   * @return the move now in slot {@code index}
+   */
+  private int pickMove(MoveList moves, int ply, int index) {
+    final int[] scores = moveScores[ply];
+    int best = index;
+
+    for (int i = index + 1; i < moves.size(); i++) {
+      if (scores[i] > scores[best]) {
+        best = i;
+      }
+    }
+
+    if (best != index) {
+      moves.swap(index, best);
+      final int score = scores[index];
+      scores[index] = scores[best];
+      scores[best] = score;
+    }
+
+    return moves.get(index);
+  }
+
+  /**
+   * @return the type ordinal of the piece the move captures, or -1 if it captures nothing
+   */
+  private int capturedType(int move) {
+    final int from = ChessMove.startSquare(move);
+    final int to = ChessMove.endSquare(move);
+    final int victim = board.pieceIndexAt(to);
+
+    if (victim >= 0) {
+      return victim % 6;
+    }
+    if (board.pieceIndexAt(from) % 6 == PAWN && ((from ^ to) & 7) != 0) {
+      return PAWN;
+    }
+    return -1;
+  }
+
+  private boolean isQuiet(int move) {
+    return capturedType(move) < 0 && ChessMove.promotionPiece(move) == null;
+  }
+
+  private void rememberCutoff(ChessGame.TeamColor color, int move, int depth, int ply) {
+    final int[] plyKillers = killers[ply];
+    if (plyKillers[0] != move) {
+      plyKillers[1] = plyKillers[0];
+      plyKillers[0] = move;
+    }
+
+    final int[] colorHistory = history[color.ordinal()];
+    final int index = ChessMove.startSquare(move) * Bitboards.SQUARES + ChessMove.endSquare(move);
+    colorHistory[index] += depth * depth;
+
+    if (colorHistory[index] > HISTORY_LIMIT) {
+      for (int i = 0; i < colorHistory.length; i++) {
+        colorHistory[i] /= 2;
+      }
+    }
+  }
+
+  private void updatePv(int ply, int move) {
+    final int[] line = pv[ply];
+    line[ply] = move;
+
+    final int childLength = pvLength[ply + 1];
+    System.arraycopy(pv[ply + 1], ply + 1, line, ply + 1, childLength - ply - 1);
+    pvLength[ply] = Math.max(childLength, ply + 1);
+  }
+}
@@ -0,0 +1,24 @@
+package chess;
+
+/**
+ * How long a {@link Search} may run. Any limit that is 0 or less is ignored, and the search stops
+ * at whichever of the remaining limits it reaches first.
+ *
+ * @param depth deepest iteration to search, in plies
+ * @param nodes most positions to visit
+ * @param millis most wall clock time to use
+ */
+public record SearchLimits(int depth, long nodes, long millis) {
+
+  public static SearchLimits depth(int depth) {
+    return new SearchLimits(depth, 0, 0);
+  }
+
+  public static SearchLimits nodes(long nodes) {
+    return new SearchLimits(0, nodes, 0);
+  }
+
+  public static SearchLimits millis(long millis) {
+    return new SearchLimits(0, 0, millis);
+  }
+}
@@ -0,0 +1,23 @@
+package chess;
+
+import java.util.List;
+
+/**
+ * The outcome of a {@link Search}.
+ *
+ * @param bestMove the move to play, or null if the side to move has no legal moves
+ * @param score centipawns from the side to move's point of view, see {@link #isMate()}
+ * @param depth the deepest iteration that finished
+ * @param nodes positions visited over the whole search
+ * @param principalVariation the line the search expects, starting with the best move
+ */
+public record SearchResult(
+    ChessMove bestMove, int score, int depth, long nodes, List<ChessMove> principalVariation) {
+
+  /**
+   * @return true if the score is a forced mate for either side
+   */
+  public boolean isMate() {
+    return Math.abs(score) >= Search.MATE - Search.MAX_PLY;
+  }
+}
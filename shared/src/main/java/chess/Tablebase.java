@@ -0,0 +1,554 @@
+package chess;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Exact results for endgames with few pieces, read from precomputed files.
+ *
+ * <p>Each file holds one material balance, named like {@code KQvK.ctb} (white's pieces, then
+ * black's, kings first and then queens, rooks, bishops, knights and pawns). It stores one byte per
+ * placement of those pieces and side to move: whether the side to move wins, draws or loses, and
+ * how many plies it takes to mate. Positions with the colors the other way round are looked up by
+ * mirroring the board, so a file covers both.
+ *
+ * <p>Files are memory-mapped and split into Deflate-compressed blocks. Blocks are inflated when a
+ * probe first needs them and kept in a shared least recently used cache, so probing the same
+ * endgame again costs an array read. Files are made by {@link TablebaseGenerator}.
+ *
+ * <p>Tables go up to three pieces, kings included: KQvK, KRvK and KPvK decide those endgames
+ * exactly, while KBvK and KNvK only confirm the draw. Anything bigger is left to the search.
+ */
+public final class Tablebase {
+
+  /** File name extension of a tablebase file */
+  public static final String EXTENSION = ".ctb";
+
+  /** Whether the side to move wins, draws or loses with best play */
+  public enum Outcome {
+    WIN,
+    DRAW,
+    LOSS,
+  }
+
+  /**
+   * A probe result, always from the point of view of the side to move.
+   *
+   * @param pliesToMate how many plies until mate with best play, or -1 for a draw
+   * @param stalemate true if the side to move has no moves and is not in check
+   */
+  public record Result(Outcome outcome, int pliesToMate, boolean stalemate) {
+
+    /**
+     * @return true if the side to move has been checkmated
+     */
+    public boolean isCheckmate() {
+      return outcome == Outcome.LOSS && pliesToMate == 0;
+    }
+  }
+
+  // stored values, one byte per position
+  static final int INVALID = 0;
+  static final int DRAW = 1;
+  static final int STALEMATE = 2;
+  /** Mated right now; mate in n plies is stored as MATED + n, even n losing and odd n winning */
+  static final int MATED = 3;
+  static final int MAX_VALUE = 0xFF;
+
+  /**
+   * The most pieces, kings included, a table can have. The index format would fit four, but
+   * {@link TablebaseGenerator} keeps every move in memory and can only build three, so larger
+   * files are never made and aren't looked for.
+   */
+  static final int MAX_PIECES = 3;
+
+  /** Pieces in the order they appear in a signature, e.g. KQRvKN */
+  static final ChessPiece.PieceType[] SIGNATURE_ORDER = {
+    ChessPiece.PieceType.KING,
+    ChessPiece.PieceType.QUEEN,
+    ChessPiece.PieceType.ROOK,
+    ChessPiece.PieceType.BISHOP,
+    ChessPiece.PieceType.KNIGHT,
+    ChessPiece.PieceType.PAWN,
+  };
+  private static final String SIGNATURE_LETTERS = "KQRBNP";
+
+  // file layout: header, then block offsets, then the compressed blocks
+  private static final int MAGIC = 0x43544231; // "CTB1"
+  private static final int HEADER_BYTES = 4 * Integer.BYTES;
+  private static final int BLOCK_ENTRIES = 1 << 16;
+
+  private static final Result[] RESULTS = new Result[MAX_VALUE + 1];
+
+  static {
+    RESULTS[DRAW] = new Result(Outcome.DRAW, -1, false);
+    RESULTS[STALEMATE] = new Result(Outcome.DRAW, -1, true);
+    for (int value = MATED; value <= MAX_VALUE; value++) {
+      final int plies = value - MATED;
+      RESULTS[value] = new Result((plies & 1) == 0 ? Outcome.LOSS : Outcome.WIN, plies, false);
+    }
+  }
+
+  private final Map<String, Table> tables;
+  private final LinkedHashMap<Long, byte[]> blocks;
+  private final ReentrantLock blockLock = new ReentrantLock();
+  private int maxPieces = 2;
+
+  private Tablebase(Map<String, Table> tables, int cachedBlocks) {
+    this.tables = tables;
+    this.blocks =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+            return size() > cachedBlocks;
+          }
+        };
+
+    for (String signature : tables.keySet()) {
+      maxPieces = Math.max(maxPieces, pieceCount(signature));
+    }
+  }
+
+  /**
+   * Maps every tablebase file in a directory. The files must not change while the tablebase is in
+   * use.
+   *
+   * @param directory where the {@value #EXTENSION} files are
+   * @param cachedBlocks how many inflated blocks of 64 KB to keep between probes
+   * @return the tablebase
+   * @throws IOException if a file can't be read or isn't a tablebase
+   */
+  public static Tablebase open(Path directory, int cachedBlocks) throws IOException {
+    if (cachedBlocks < 1) {
+      throw new IllegalArgumentException("Tablebase needs room for at least one block");
+    }
+
+    final Map<String, Table> tables = new HashMap<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+      for (Path file : files) {
+        final String name = file.getFileName().toString();
+        final String signature = name.substring(0, name.length() - EXTENSION.length());
+
+        if (isSignature(signature) && pieceCount(signature) <= MAX_PIECES) {
+          tables.put(signature, Table.map(file, tables.size(), pieceCount(signature)));
+        }
+      }
+    }
+
+    return new Tablebase(tables, cachedBlocks);
+  }
+
+  /**
+   * @return an empty tablebase that {@link TablebaseGenerator} adds tables to as it builds them
+   */
+  static Tablebase inMemory() {
+    return new Tablebase(new HashMap<>(), 1);
+  }
+
+  void add(String signature, byte[] values) {
+    tables.put(signature, new Table(values));
+    maxPieces = Math.max(maxPieces, pieceCount(signature));
+  }
+
+  /**
+   * @return the values of a table added with {@link #add(String, byte[])}, or null
+   */
+  byte[] values(String signature) {
+    final Table table = tables.get(signature);
+    return table == null ? null : table.values;
+  }
+
+  /**
+   * @return the most pieces, kings included, of any endgame the tablebase covers
+   */
+  public int maxPieces() {
+    return maxPieces;
+  }
+
+  /**
+   * @return the material balances the tablebase covers, e.g. KQvK
+   */
+  public Set<String> signatures() {
+    return Collections.unmodifiableSet(tables.keySet());
+  }
+
+  /**
+   * @param game the position to look up, from the point of view of the side to move
+   * @return the exact result, or null if the position isn't covered. Tables are built without
+   *     castling or en passant, so positions where either is still possible aren't covered.
+   */
+  public Result probe(ChessGame game) {
+    if (game.castlingRights() != Castling.NONE || game.enPassantSquare() < Bitboards.SQUARES) {
+      return null;
+    }
+    return probe(game.getBoard(), game.getTeamTurn());
+  }
+
+  /**
+   * @param board the position to look up
+   * @param sideToMove whose point of view to give the result from
+   * @return the exact result, or null if the position isn't covered or can't happen (the other
+   *     side is in check)
+   */
+  public Result probe(ChessBoard board, ChessGame.TeamColor sideToMove) {
+    final int value = value(board, sideToMove);
+    return value > INVALID ? RESULTS[value] : null;
+  }
+
+  /**
+   * Picks the fastest mate when winning, the longest defence when losing and any move that holds
+   * when drawn.
+   *
+   * @param game the position to play from, left unchanged
+   * @return the best move, or null if the position isn't covered
+   */
+  public ChessMove bestMove(ChessGame game) {
+    final ChessBoard board = game.getBoard();
+    final ChessGame.TeamColor opponent = MoveGenerator.opponent(game.getTeamTurn());
+
+    if (probe(game) == null) {
+      return null;
+    }
+
+    ChessMove best = null;
+    int bestRank = Integer.MIN_VALUE;
+
+    for (ChessMove move : game.legalMoves()) {
+      final long undo = board.makeMove(move);
+      final Result reply = probe(board, opponent);
+      board.unmakeMove(undo);
+
+      if (reply == null) {
+        continue;
+      }
+
+      final int rank =
+          switch (reply.outcome()) {
+            case LOSS -> MAX_VALUE - reply.pliesToMate();
+            case DRAW -> 0;
+            case WIN -> reply.pliesToMate() - MAX_VALUE;
+          };
+
+      if (rank > bestRank) {
+        best = move;
+        bestRank = rank;
+      }
+    }
+
+    return best;
+  }
+
+  /**
+   * @return the stored value for the position, {@link #INVALID} if it can't happen, or -1 if no
+   *     table covers it
+   */
+  int value(ChessBoard board, ChessGame.TeamColor sideToMove) {
+    final int pieces = Long.bitCount(board.occupancy());
+    if (pieces > maxPieces) {
+      return -1;
+    }
+    if (board.kingSquare(ChessGame.TeamColor.WHITE) == Bitboards.SQUARES
+        || board.kingSquare(ChessGame.TeamColor.BLACK) == Bitboards.SQUARES) {
+      return -1;
+    }
+    if (board.isKingAttacked(MoveGenerator.opponent(sideToMove))) {
+      return INVALID;
+    }
+    if (pieces == 2) {
+      return DRAW;
+    }
+
+    final String signature = signature(board, false);
+    Table table = tables.get(signature);
+    if (table != null) {
+      return table.value(this, index(board, sideToMove, signature, false));
+    }
+
+    final String mirrored = signature(board, true);
+    table = tables.get(mirrored);
+    if (table != null) {
+      return table.value(this, index(board, sideToMove, mirrored, true));
+    }
+
+    return -1;
+  }
+
+  /**
+   * Writes one table in the format {@link #open(Path, int)} reads.
+   *
+   * @param file where to write, replaced if it exists
+   * @param values one value per index, see {@link #index(ChessBoard, ChessGame.TeamColor, String,
+   *     boolean)}
+   */
+  static void write(Path file, byte[] values) throws IOException {
+    final int blockCount = (values.length + BLOCK_ENTRIES - 1) / BLOCK_ENTRIES;
+    final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    final long[] offsets = new long[blockCount + 1];
+    final long dataStart = HEADER_BYTES + (long) offsets.length * Long.BYTES;
+
+    final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+    final byte[] buffer = new byte[BLOCK_ENTRIES];
+    try {
+      for (int block = 0; block < blockCount; block++) {
+        offsets[block] = dataStart + compressed.size();
+
+        final int start = block * BLOCK_ENTRIES;
+        deflater.reset();
+        deflater.setInput(values, start, Math.min(BLOCK_ENTRIES, values.length - start));
+        deflater.finish();
+        while (!deflater.finished()) {
+          compressed.write(buffer, 0, deflater.deflate(buffer));
+        }
+      }
+    } finally {
+      deflater.end();
+    }
+    offsets[blockCount] = dataStart + compressed.size();
+
+    final ByteBuffer header =
+        ByteBuffer.allocate((int) dataStart).order(ByteOrder.BIG_ENDIAN);
+    header.putInt(MAGIC).putInt(values.length).putInt(BLOCK_ENTRIES).putInt(blockCount);
+    for (long offset : offsets) {
+      header.putLong(offset);
+    }
+
+    try (FileChannel channel =
+        FileChannel.open(
+            file,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE)) {
+      header.flip();
+      channel.write(header);
+      channel.write(ByteBuffer.wrap(compressed.toByteArray()));
+    }
+  }
+
+  /**
+   * @param mirrored true to describe the board with the colors swapped
+   * @return the board's material as a signature, e.g. KRvK
+   */
+  static String signature(ChessBoard board, boolean mirrored) {
+    final ChessGame.TeamColor first =
+        mirrored ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    final StringBuilder signature = new StringBuilder();
+
+    appendPieces(signature, board, first);
+    signature.append('v');
+    appendPieces(signature, board, MoveGenerator.opponent(first));
+
+    return signature.toString();
+  }
+
+  /**
+   * Where a position lives in its table: the side to move, then six bits per piece in signature
+   * order. Identical pieces are taken in square order.
+   *
+   * @param mirrored true if the table has the colors the other way round, so the board is flipped
+   *     top to bottom and the colors swapped before indexing
+   */
+  static int index(
+      ChessBoard board, ChessGame.TeamColor sideToMove, String signature, boolean mirrored) {
+    final ChessGame.TeamColor first =
+        mirrored ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+
+    int index = sideToMove == first ? 0 : 1;
+    ChessGame.TeamColor color = first;
+    int position = 0;
+
+    while (position < signature.length()) {
+      final char letter = signature.charAt(position);
+      if (letter == 'v') {
+        color = MoveGenerator.opponent(first);
+        position++;
+        continue;
+      }
+
+      // identical pieces sit next to each other in a signature; reversing the bytes of a
+      // bitboard flips it top to bottom
+      long pieces = board.pieces(color, pieceType(letter));
+      if (mirrored) {
+        pieces = Long.reverseBytes(pieces);
+      }
+
+      while (pieces != 0) {
+        index = (index << 6) | Long.numberOfTrailingZeros(pieces);
+        pieces &= pieces - 1;
+        position++;
+      }
+    }
+
+    return index;
+  }
+
+  static boolean isSignature(String signature) {
+    final int split = signature.indexOf('v');
+    return split > 0
+        && isSide(signature.substring(0, split))
+        && isSide(signature.substring(split + 1));
+  }
+
+  static int pieceCount(String signature) {
+    return signature.length() - 1;
+  }
+
+  static ChessPiece.PieceType pieceType(char letter) {
+    return SIGNATURE_ORDER[SIGNATURE_LETTERS.indexOf(letter)];
+  }
+
+  /** One king followed by other pieces in signature order */
+  private static boolean isSide(String side) {
+    if (side.isEmpty() || side.charAt(0) != 'K') {
+      return false;
+    }
+
+    int previous = 0;
+    for (int i = 1; i < side.length(); i++) {
+      final int order = SIGNATURE_LETTERS.indexOf(side.charAt(i));
+      if (order < 1 || order < previous) {
+        return false;
+      }
+      previous = order;
+    }
+    return true;
+  }
+
+  private static void appendPieces(
+      StringBuilder signature, ChessBoard board, ChessGame.TeamColor color) {
+    for (int i = 0; i < SIGNATURE_ORDER.length; i++) {
+      final int count = Long.bitCount(board.pieces(color, SIGNATURE_ORDER[i]));
+      for (int n = 0; n < count; n++) {
+        signature.append(SIGNATURE_LETTERS.charAt(i));
+      }
+    }
+  }
+
+  private byte[] block(Table table, int block) {
+    final long key = ((long) table.number << 32) | block;
+
+    blockLock.lock();
+    try {
+      final byte[] cached = blocks.get(key);
+      if (cached != null) {
+        return cached;
+      }
+    } finally {
+      blockLock.unlock();
+    }
+
+    // inflate outside the lock; two threads missing on the same block just both do the work
+    final byte[] inflated = table.inflate(block);
+
+    blockLock.lock();
+    try {
+      blocks.put(key, inflated);
+    } finally {
+      blockLock.unlock();
+    }
+    return inflated;
+  }
+
+  /** One material balance, either mapped from a file or built in memory */
+  private static final class Table {
+
+    private final byte[] values;
+    private final ByteBuffer file;
+    private final int number;
+    private final int entries;
+    private final int blockEntries;
+
+    Table(byte[] values) {
+      this.values = values;
+      this.file = null;
+      this.number = -1;
+      this.entries = values.length;
+      this.blockEntries = values.length;
+    }
+
+    private Table(ByteBuffer file, int number) {
+      this.values = null;
+      this.file = file;
+      this.number = number;
+      this.entries = file.getInt(Integer.BYTES);
+      this.blockEntries = file.getInt(2 * Integer.BYTES);
+    }
+
+    static Table map(Path path, int number, int pieces) throws IOException {
+      final ByteBuffer file;
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+        file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      }
+      file.order(ByteOrder.BIG_ENDIAN);
+
+      if (file.capacity() < HEADER_BYTES
+          || file.getInt(0) != MAGIC
+          || file.getInt(Integer.BYTES) != 2 << (6 * pieces)
+          || file.getInt(2 * Integer.BYTES) < 1) {
+        throw new IOException("Not a tablebase: " + path);
+      }
+
+      return new Table(file, number);
+    }
+
+    int value(Tablebase tablebase, int index) {
+      if (index >= entries) {
+        return INVALID;
+      }
+      if (values != null) {
+        return values[index] & 0xFF;
+      }
+
+      final byte[] block = tablebase.block(this, index / blockEntries);
+      return block[index % blockEntries] & 0xFF;
+    }
+
+    byte[] inflate(int block) {
+      final int offsetsStart = HEADER_BYTES;
+      final long start = file.getLong(offsetsStart + block * Long.BYTES);
+      final long end = file.getLong(offsetsStart + (block + 1) * Long.BYTES);
+      final byte[] inflated = new byte[Math.min(blockEntries, entries - block * blockEntries)];
+
+      if (start < 0 || end < start || end > file.capacity()) {
+        throw new IllegalStateException("Corrupt tablebase block offsets for block " + block);
+      }
+
+      final Inflater inflater = new Inflater();
+      try {
+        inflater.setInput(file.slice((int) start, (int) (end - start)));
+        int filled = 0;
+        while (filled < inflated.length && !inflater.finished()) {
+          final int read = inflater.inflate(inflated, filled, inflated.length - filled);
+          // nothing more will come out of a block that is cut short or wants a dictionary
+          if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+            throw new IllegalStateException("Truncated tablebase block " + block);
+          }
+          filled += read;
+        }
+        if (filled != inflated.length) {
+          throw new IllegalStateException("Short tablebase block " + block);
+        }
+        return inflated;
+      } catch (DataFormatException e) {
+        throw new IllegalStateException("Corrupt tablebase block " + block, e);
+      } finally {
+        inflater.end();
+      }
+    }
+  }
+}
@@ -0,0 +1,232 @@
+package chess;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Builds {@link Tablebase} files by working backwards from the mates.
+ *
+ * <p>Every placement of the pieces is set up once to find its legal moves, and where each move
+ * leads is remembered. After that the positions are resolved a ply at a time without touching a
+ * board again: a position is won in n plies if some move reaches a position lost in n - 1, and lost
+ * in n plies if every move reaches a position won in at most n - 1. Whatever is left when that
+ * stops changing is a draw. Captures and promotions lead into smaller endgames, which are built
+ * first.
+ *
+ * <p>Remembering every move keeps this simple but needs memory for each one, which limits it to
+ * three pieces. Run {@code java -cp shared.jar chess.TablebaseGenerator <directory> KQvK KRvK ...}
+ * to write tables.
+ */
+public final class TablebaseGenerator {
+
+  /** The most pieces, kings included, a table can be built for */
+  public static final int MAX_PIECES = Tablebase.MAX_PIECES;
+
+  private TablebaseGenerator() {}
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.out.println("usage: TablebaseGenerator <directory> <signature>...");
+      return;
+    }
+
+    write(Path.of(args[0]), Arrays.copyOfRange(args, 1, args.length));
+  }
+
+  /**
+   * Builds tables and writes them to a directory, along with any smaller ones they depend on.
+   *
+   * @param directory where to write the {@value Tablebase#EXTENSION} files, created if missing
+   * @param signatures the endgames to build, e.g. KQvK
+   * @throws IOException if a file can't be written
+   */
+  public static void write(Path directory, String... signatures) throws IOException {
+    Files.createDirectories(directory);
+
+    final Tablebase built = Tablebase.inMemory();
+    for (String signature : signatures) {
+      generate(signature, built);
+    }
+
+    for (String signature : built.signatures()) {
+      Tablebase.write(directory.resolve(signature + Tablebase.EXTENSION), built.values(signature));
+    }
+  }
+
+  /**
+   * Builds a table, first adding the tables it depends on to {@code built}, and adds it there too
+   *
+   * @return one value per index, see {@link Tablebase#index(ChessBoard, ChessGame.TeamColor,
+   *     String, boolean)}
+   */
+  static byte[] generate(String signature, Tablebase built) {
+    if (!Tablebase.isSignature(signature)) {
+      throw new IllegalArgumentException("Not an endgame signature: " + signature);
+    }
+
+    final int pieces = Tablebase.pieceCount(signature);
+    if (pieces > MAX_PIECES) {
+      throw new IllegalArgumentException("Can't build tables with more than " + MAX_PIECES
+          + " pieces: " + signature);
+    }
+
+    final byte[] existing = built.values(signature);
+    if (existing != null) {
+      return existing;
+    }
+
+    final int size = 2 << (6 * pieces);
+    final int[] values = new int[size];
+    final int[] firstMove = new int[size + 1];
+    int[] moves = new int[size];
+    int moveCount = 0;
+    int longestOutside = 0;
+
+    final ChessBoard board = new ChessBoard();
+    final MoveList legalMoves = new MoveList();
+
+    for (int index = 0; index < size; index++) {
+      firstMove[index] = moveCount;
+
+      final ChessGame.TeamColor sideToMove = setUp(board, signature, index);
+      if (sideToMove == null) {
+        continue;
+      }
+
+      legalMoves.clear();
+      MoveGenerator.generate(board, sideToMove, board.occupancy(sideToMove), legalMoves);
+
+      if (legalMoves.size() == 0) {
+        values[index] =
+            board.isKingAttacked(sideToMove) ? Tablebase.MATED : Tablebase.STALEMATE;
+        continue;
+      }
+
+      final ChessGame.TeamColor opponent = MoveGenerator.opponent(sideToMove);
+      for (int i = 0; i < legalMoves.size(); i++) {
+        final int move = legalMoves.get(i);
+        final long undo = board.makeMove(move);
+        int next;
+
+        if (Long.bitCount(board.occupancy()) == pieces && ChessMove.promotionPiece(move) == null) {
+          next = Tablebase.index(board, opponent, signature, false);
+        } else {
+          // a capture or promotion, already solved in a smaller table: store the value itself
+          final int value = outsideValue(board, opponent, built);
+          longestOutside = Math.max(longestOutside, value - Tablebase.MATED);
+          next = -value - 1;
+        }
+
+        board.unmakeMove(undo);
+
+        if (moveCount == moves.length) {
+          moves = Arrays.copyOf(moves, moves.length * 2);
+        }
+        moves[moveCount++] = next;
+      }
+    }
+    firstMove[size] = moveCount;
+
+    for (int plies = 1; ; plies++) {
+      if (Tablebase.MATED + plies > Tablebase.MAX_VALUE) {
+        throw new IllegalStateException("Mate takes too long to store in " + signature);
+      }
+
+      final boolean winning = (plies & 1) == 1;
+      boolean changed = false;
+
+      for (int index = 0; index < size; index++) {
+        if (values[index] != Tablebase.INVALID || firstMove[index] == firstMove[index + 1]) {
+          continue;
+        }
+
+        boolean resolved = !winning;
+        for (int i = firstMove[index]; i < firstMove[index + 1]; i++) {
+          final int next = moves[i] >= 0 ? values[moves[i]] : -moves[i] - 1;
+          final int nextPlies = next - Tablebase.MATED;
+
+          if (winning && nextPlies == plies - 1) {
+            resolved = true;
+            break;
+          }
+          if (!winning && (nextPlies < 0 || (nextPlies & 1) == 0)) {
+            resolved = false;
+            break;
+          }
+        }
+
+        if (resolved) {
+          values[index] = Tablebase.MATED + plies;
+          changed = true;
+        }
+      }
+
+      // nothing new this ply means nothing new later, unless a smaller table still has longer mates
+      if (!changed && plies > longestOutside) {
+        break;
+      }
+    }
+
+    final byte[] table = new byte[size];
+    for (int index = 0; index < size; index++) {
+      final boolean unresolved =
+          values[index] == Tablebase.INVALID && firstMove[index] != firstMove[index + 1];
+      table[index] = (byte) (unresolved ? Tablebase.DRAW : values[index]);
+    }
+
+    built.add(signature, table);
+    return table;
+  }
+
+  /**
+   * Puts the pieces for an index on an empty board
+   *
+   * @return the side to move, or null if the index isn't a position that can happen
+   */
+  private static ChessGame.TeamColor setUp(ChessBoard board, String signature, int index) {
+    board.emptyBoard();
+
+    final int pieces = Tablebase.pieceCount(signature);
+    ChessGame.TeamColor color = ChessGame.TeamColor.WHITE;
+    int piece = 0;
+
+    for (int i = 0; i < signature.length(); i++) {
+      final char letter = signature.charAt(i);
+      if (letter == 'v') {
+        color = ChessGame.TeamColor.BLACK;
+        continue;
+      }
+
+      final int square = (index >>> (6 * (pieces - 1 - piece))) & 0x3F;
+      final ChessPiece.PieceType type = Tablebase.pieceType(letter);
+      final int row = square >>> 3;
+      piece++;
+
+      if ((board.occupancy() & Bitboards.bit(square)) != 0
+          || (type == ChessPiece.PieceType.PAWN && (row == 0 || row == 7))) {
+        return null;
+      }
+      board.addPiece(ChessPosition.ofSquare(square), ChessPiece.of(color, type));
+    }
+
+    final ChessGame.TeamColor sideToMove =
+        (index >>> (6 * pieces)) == 0 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+
+    // the side that just moved can't have left its king in check
+    return board.isKingAttacked(MoveGenerator.opponent(sideToMove)) ? null : sideToMove;
+  }
+
+  private static int outsideValue(
+      ChessBoard board, ChessGame.TeamColor sideToMove, Tablebase built) {
+    int value = built.value(board, sideToMove);
+
+    if (value < 0) {
+      generate(Tablebase.signature(board, false), built);
+      value = built.value(board, sideToMove);
+    }
+
+    return value;
+  }
+}
@@ -0,0 +1,163 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size table of search results keyed by {@link ChessGame#positionKey()}, meant to be shared
+ * by every thread searching the same game.
+ *
+ * <p>Each entry packs the depth searched, the kind of bound, the score, the best move and the
+ * search generation into one long, stored next to the position key in a single {@code long[]}.
+ * Nothing is locked: the key is stored XORed with the entry, so if two threads write a slot at the
+ * same time and a reader sees one thread's key with the other's entry, the XOR no longer gives the
+ * position key back and the read is a miss rather than a wrong answer.
+ *
+ * <p>A store replaces a different position in the same slot unless that position was searched
+ * deeper during the current generation, see {@link #nextGeneration()}.
+ */
+public final class TranspositionTable {
+
+  /** The score is exact */
+  public static final int EXACT = 0;
+  /** The true score is at least the stored score (the search failed high) */
+  public static final int LOWER = 1;
+  /** The true score is at most the stored score (the search failed low) */
+  public static final int UPPER = 2;
+
+  /** What {@link #probe(long)} returns when the position is not in the table */
+  public static final long MISS = 0;
+
+  /** Bytes each position takes: the XORed key and the entry */
+  public static final int BYTES_PER_ENTRY = 2 * Long.BYTES;
+
+  // layout of an entry
+  private static final long MOVE_BITS = 0xFFFF;
+  private static final int SCORE_SHIFT = 16;
+  private static final int DEPTH_SHIFT = 32;
+  private static final long DEPTH_BITS = 0xFF;
+  private static final int BOUND_SHIFT = 40;
+  private static final long BOUND_BITS = 0x3;
+  private static final long STORED_FLAG = 1L << 42;
+  private static final int GENERATION_SHIFT = 43;
+  private static final int GENERATION_BITS = 0x3F;
+
+  /** Key XOR entry at even indexes, the entry right after it */
+  private final long[] slots;
+  private final int mask;
+  private volatile int generation;
+
+  /**
+   * @param capacity how many positions to hold, rounded down to a power of two
+   */
+  public TranspositionTable(int capacity) {
+    if (capacity < 1 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("Table can't hold " + capacity + " positions");
+    }
+
+    final int size = Integer.highestOneBit(capacity);
+    slots = new long[size * 2];
+    mask = size - 1;
+  }
+
+  /**
+   * @param megabytes memory budget for the table
+   * @return the largest table that fits in the budget
+   */
+  public static TranspositionTable ofMegabytes(int megabytes) {
+    final long capacity = (long) megabytes * 1024 * 1024 / BYTES_PER_ENTRY;
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Table needs at least 1 MB");
+    }
+    return new TranspositionTable((int) Math.min(capacity, 1 << 30));
+  }
+
+  /**
+   * @param key the position's key
+   * @return the stored entry, or {@link #MISS}
+   */
+  public long probe(long key) {
+    final int slot = slot(key);
+    final long entry = slots[slot + 1];
+
+    return (slots[slot] ^ entry) == key ? entry : MISS;
+  }
+
+  /**
+   * @param key the position's key
+   * @param depth how many plies were searched, 0-255
+   * @param bound {@link #EXACT}, {@link #LOWER} or {@link #UPPER}
+   * @param score the score found, which must fit in a short
+   * @param move the packed best move, or 0 if there isn't one
+   */
+  public void store(long key, int depth, int bound, int score, int move) {
+    final int slot = slot(key);
+    final long old = slots[slot + 1];
+    final int currentGeneration = generation;
+
+    if ((slots[slot] ^ old) != key
+        && old != MISS
+        && generation(old) == currentGeneration
+        && depth(old) > depth) {
+      return;
+    }
+
+    final long entry =
+        (move & MOVE_BITS)
+            | ((score & 0xFFFFL) << SCORE_SHIFT)
+            | ((long) Math.min(depth, (int) DEPTH_BITS) << DEPTH_SHIFT)
+            | ((long) bound << BOUND_SHIFT)
+            | STORED_FLAG
+            | ((long) currentGeneration << GENERATION_SHIFT);
+
+    slots[slot] = key ^ entry;
+    slots[slot + 1] = entry;
+  }
+
+  /**
+   * Marks everything stored so far as coming from an earlier search, so it gives way to new
+   * results even when it was searched deeper
+   */
+  public void nextGeneration() {
+    generation = (generation + 1) & GENERATION_BITS;
+  }
+
+  /**
+   * Empties the table. Not safe while searches are using it.
+   */
+  public void clear() {
+    Arrays.fill(slots, 0);
+    generation = 0;
+  }
+
+  /**
+   * @return how many positions the table can hold
+   */
+  public int capacity() {
+    return slots.length / 2;
+  }
+
+  public static int move(long entry) {
+    return (int) (entry & MOVE_BITS);
+  }
+
+  public static int score(long entry) {
+    return (short) (entry >>> SCORE_SHIFT);
+  }
+
+  public static int depth(long entry) {
+    return (int) ((entry >>> DEPTH_SHIFT) & DEPTH_BITS);
+  }
+
+  public static int bound(long entry) {
+    return (int) ((entry >>> BOUND_SHIFT) & BOUND_BITS);
+  }
+
+  private static int generation(long entry) {
+    return (int) (entry >>> GENERATION_SHIFT) & GENERATION_BITS;
+  }
+
+  private int slot(long key) {
+    // the low bits of the key pick the slot, so mix in the high bits too
+    return ((int) (key ^ (key >>> 32)) & mask) << 1;
+  }
+}
@@ -0,0 +1,56 @@
+package chess;
+
+/**
+ * Random 64-bit keys for Zobrist hashing. A position's key is the XOR of one key per piece on its
+ * square plus keys for the side to move, castling rights and en passant file, so a move only has
+ * to XOR out what changed instead of rehashing the whole board.
+ *
+ * <p>Keys come from a fixed seed so they are the same in every process, which lets keys be stored
+ * and compared across servers.
+ */
+final class Zobrist {
+
+  /** Indexed by {@link ChessPiece#index()} then square */
+  static final long[][] PIECE_SQUARE = new long[ChessPiece.PIECE_KINDS][Bitboards.SQUARES];
+
+  /** Mixed in when black is to move */
+  static final long BLACK_TO_MOVE;
+
+  /** Indexed by the 4-bit castling rights mask */
+  static final long[] CASTLING = new long[16];
+
+  /** Indexed by the 0-7 column of the en passant target square */
+  static final long[] EN_PASSANT_FILE = new long[8];
+
+  private static long seed = 0x2545F4914F6CDD1DL;
+
+  static {
+    for (long[] squares : PIECE_SQUARE) {
+      for (int square = 0; square < squares.length; square++) {
+        squares[square] = next();
+      }
+    }
+
+    BLACK_TO_MOVE = next();
+
+    // no castling rights hashes to 0 so positions without them keep the plain board key
+    for (int rights = 1; rights < CASTLING.length; rights++) {
+      CASTLING[rights] = next();
+    }
+
+    for (int file = 0; file < EN_PASSANT_FILE.length; file++) {
+      EN_PASSANT_FILE[file] = next();
+    }
+  }
+
+  private Zobrist() {}
+
+  /** splitmix64, good enough spread for hashing and stable across JVMs */
+  private static long next() {
+    seed += 0x9E3779B97F4A7C15L;
+    long z = seed;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
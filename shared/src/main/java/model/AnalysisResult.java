@@ -0,0 +1,18 @@
+package model;
+
+import chess.ChessMove;
+import java.util.List;
+
+/**
+ * What the engine made of a stored game's position.
+ *
+ * @param score centipawns from the point of view of the side to move
+ * @param mate true when the score is a forced mate rather than an estimate
+ */
+public record AnalysisResult(
+    ChessMove bestMove,
+    int score,
+    boolean mate,
+    int depth,
+    long nodes,
+    List<ChessMove> principalVariation) {}
@@ -0,0 +1,5 @@
+package model;
+
+import java.util.List;
+
+public record CreateGamesRequest(String authToken, List<String> gameNames) {}
@@ -0,0 +1,11 @@
+package model;
+
+import java.util.List;
+
+/**
+ * A page of the game list
+ *
+ * @param games the games on this page, in game ID order
+ * @param next the {@code after} value for the next page, or null if this is the last page
+ */
+public record GamePage<T>(List<T> games, Integer next) {}
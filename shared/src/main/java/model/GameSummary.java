@@ -0,0 +1,8 @@
+package model;
+
+/**
+ * A game as shown in the lobby: who is playing and what it is called, without the board. Listing
+ * summaries costs the same however far the games have got.
+ */
+public record GameSummary(
+    int gameID, String whiteUsername, String blackUsername, String gameName) {}
@@ -0,0 +1,10 @@
+package model;
+
+import chess.ChessMove;
+
+/**
+ * A suggested move for a stored game.
+ *
+ * @param source where the move came from: "tablebase", "book" or "engine"
+ */
+public record Hint(ChessMove move, String source) {}
@@ -2,4 +2,10 @@ package model;
 
 import java.util.ArrayList;
 
-public record ListGamesResult(ArrayList<GameData> games) {}
+/**
+ * A page of the game list
+ *
+ * @param games the games on the page
+ * @param next the game ID to list after for the next page, or null if this is the last page
+ */
+public record ListGamesResult(ArrayList<GameData> games, Integer next) {}
@@ -0,0 +1,85 @@
+package chess;
+
+import static chess.TestMoves.move;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.google.gson.Gson;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+public class ChessGameCodecTests {
+
+  @Test
+  void newGameIsSmall() {
+    byte[] encoded = ChessGameCodec.encode(new ChessGame());
+
+    assertEquals(41, encoded.length);
+    assertEquals(ChessGameCodec.VERSION, encoded[0]);
+    assertEquals(new ChessGame(), ChessGameCodec.decode(encoded));
+  }
+
+  @Test
+  void roundTripKeepsState() {
+    String fen = "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w Kq f6 0 3";
+    ChessGame game = Fen.toGame(fen);
+
+    ChessGame decoded = ChessGameCodec.decode(ChessGameCodec.encode(game));
+
+    assertEquals(game, decoded);
+    assertEquals(fen, Fen.fromGame(decoded));
+    assertEquals(game.positionKey(), decoded.positionKey());
+  }
+
+  @Test
+  void roundTripKeepsHistory() throws InvalidMoveException {
+    ChessGame game = new ChessGame();
+    game.makeMove(move("g1", "f3"));
+    game.makeMove(move("g8", "f6"));
+    game.makeMove(move("f3", "g1"));
+    game.makeMove(move("f6", "g8"));
+
+    ChessGame decoded = ChessGameCodec.decode(ChessGameCodec.encode(game));
+    decoded.makeMove(move("g1", "f3"));
+    decoded.makeMove(move("g8", "f6"));
+    decoded.makeMove(move("f3", "g1"));
+    decoded.makeMove(move("f6", "g8"));
+
+    assertTrue(decoded.isThreefoldRepetition());
+  }
+
+  @Test
+  void rejectsOtherData() {
+    byte[] encoded = ChessGameCodec.encode(new ChessGame());
+
+    assertThrows(IllegalArgumentException.class, () -> ChessGameCodec.decode(new byte[0]));
+    assertThrows(
+        IllegalArgumentException.class, () -> ChessGameCodec.decode("{\"turn\":0}".getBytes()));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> ChessGameCodec.decode(Arrays.copyOf(encoded, encoded.length - 1)));
+  }
+
+  @Test
+  void oldJsonGetsStateFromTheBoard() {
+    // the a1 rook has gone, so white can only castle king side
+    ChessBoard board = Fen.toGame("r3k2r/8/8/8/8/8/8/4K2R b - - 0 1").getBoard();
+    String json = "{\"turn\":\"BLACK\",\"board\":" + new Gson().toJson(board) + "}";
+
+    ChessGame game = ChessGameCodec.decodeJson(json);
+    assertEquals(new ChessGame(ChessGame.TeamColor.BLACK, board), game);
+    assertEquals(
+        Castling.WHITE_KING_SIDE | Castling.BLACK_KING_SIDE | Castling.BLACK_QUEEN_SIDE,
+        game.castlingRights());
+    assertEquals(Bitboards.SQUARES, game.enPassantSquare());
+    assertEquals(0, game.keyHistory.length);
+  }
+
+  @Test
+  void newerJsonKeepsItsState() {
+    ChessGame game = Fen.toGame("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w Kq f6 0 3");
+
+    ChessGame decoded = ChessGameCodec.decodeJson(new Gson().toJson(game));
+    assertEquals(game, decoded);
+    assertEquals(game.positionKey(), decoded.positionKey());
+  }
+}
@@ -0,0 +1,55 @@
+package chess;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class EvaluationTests {
+
+  private static final String MIDDLE_GAME =
+      "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w - - 0 1";
+
+  @Test
+  void startPositionIsEven() {
+    ChessGame game = new ChessGame();
+
+    assertEquals(0, Evaluation.evaluate(game.getBoard(), ChessGame.TeamColor.WHITE));
+    assertEquals(0, Evaluation.evaluate(game.getBoard(), ChessGame.TeamColor.BLACK));
+  }
+
+  @Test
+  void mirroredPositionsScoreTheSame() {
+    ChessGame white = Fen.toGame("4k3/8/8/8/8/8/PPP5/2KR4 w - - 0 1");
+    ChessGame black = Fen.toGame("2kr4/ppp5/8/8/8/8/8/4K3 b - - 0 1");
+
+    assertEquals(Evaluation.evaluate(white), Evaluation.evaluate(black));
+    assertTrue(Evaluation.evaluate(white) > 0);
+  }
+
+  @Test
+  void kingPrefersCentreInEndgame() {
+    ChessGame centre = Fen.toGame("4k3/8/8/8/3K4/8/8/8 w - - 0 1");
+    ChessGame corner = Fen.toGame("4k3/8/8/8/8/8/8/K7 w - - 0 1");
+
+    assertTrue(Evaluation.evaluate(centre) > Evaluation.evaluate(corner));
+  }
+
+  @Test
+  void incrementalScoresMatchFreshBoard() {
+    ChessGame game = Fen.toGame(MIDDLE_GAME);
+    ChessBoard board = game.getBoard();
+    int before = Evaluation.evaluate(game);
+
+    for (ChessMove move : game.legalMoves()) {
+      long undo = board.makeMove(move);
+      ChessBoard fresh = Fen.toGame(Fen.fromGame(game)).getBoard();
+
+      assertEquals(fresh.middlegameScore(), board.middlegameScore(), move.toString());
+      assertEquals(fresh.endgameScore(), board.endgameScore(), move.toString());
+      assertEquals(fresh.phase(), board.phase(), move.toString());
+      board.unmakeMove(undo);
+    }
+
+    assertEquals(before, Evaluation.evaluate(game));
+  }
+}
@@ -0,0 +1,200 @@
+package chess;
+
+import static chess.TestMoves.move;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.google.gson.Gson;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+public class GameStateTests {
+
+  private static void play(ChessGame game, String... moves) throws InvalidMoveException {
+    for (String move : moves) {
+      game.makeMove(move(move.substring(0, 2), move.substring(2)));
+    }
+  }
+
+  @Test
+  void threefoldRepetition() throws InvalidMoveException {
+    ChessGame game = new ChessGame();
+    play(game, "g1f3", "g8f6", "f3g1", "f6g8");
+    assertFalse(game.isThreefoldRepetition());
+
+    play(game, "g1f3", "g8f6", "f3g1", "f6g8");
+    assertTrue(game.isThreefoldRepetition());
+  }
+
+  @Test
+  void lostCastlingRightsAreADifferentPosition() throws InvalidMoveException {
+    ChessGame game = Fen.toGame("r3k3/8/8/8/8/8/8/4K3 b q - 0 1");
+    long withRights = game.positionKey();
+
+    // the rook goes out and back, so the pieces are where they started but castling is gone
+    play(game, "a8a7", "e1e2", "a7a8", "e2e1");
+    assertNotEquals(withRights, game.positionKey());
+
+    play(game, "a8a7", "e1e2", "a7a8", "e2e1", "a8a7", "e1e2", "a7a8", "e2e1");
+    assertTrue(game.isThreefoldRepetition());
+  }
+
+  @Test
+  void concurrentReadsAgree() throws Exception {
+    ChessGame game = Fen.toGame("r3k2r/pppq1ppp/2n2n2/3pp3/1b1PP3/2N2N2/PPPQ1PPP/R3K2R w KQkq - 0 1");
+    Collection<ChessMove> expected = game.legalMoves();
+    GameStatus expectedStatus = game.status();
+
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Boolean>> readers = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        readers.add(
+            pool.submit(
+                () -> {
+                  for (int j = 0; j < 2000; j++) {
+                    if (!expected.equals(game.legalMoves())
+                        || !expectedStatus.equals(game.status())
+                        || game.willBeInCheck(ChessGame.TeamColor.WHITE, move("c3", "b1"))) {
+                      return false;
+                    }
+                  }
+                  return true;
+                }));
+      }
+      for (Future<Boolean> reader : readers) {
+        assertTrue(reader.get());
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  void willBeInCheckMatchesMakingTheMove() {
+    String[] positions = {
+      "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+      "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+      "8/8/8/KPp4r/8/8/8/4k3 w - c6 0 1",
+      "n1n5/PPPk4/8/8/8/8/4Kppp/5N1N b - - 0 1",
+    };
+
+    for (String fen : positions) {
+      ChessBoard board = Fen.toGame(fen).board;
+      for (int from = 0; from < 64; from++) {
+        ChessPiece piece = board.getPiece(Bitboards.position(from));
+        if (piece == null) {
+          continue;
+        }
+        for (int to = 0; to < 64; to++) {
+          ChessPiece target = board.getPiece(Bitboards.position(to));
+          if (to == from || (target != null && target.getTeamColor() == piece.getTeamColor())) {
+            continue;
+          }
+          boolean promotes =
+              piece.getPieceType() == ChessPiece.PieceType.PAWN && (to < 8 || to >= 56);
+          for (ChessPiece.PieceType promotion :
+              promotes
+                  ? new ChessPiece.PieceType[] {
+                    ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.KNIGHT
+                  }
+                  : new ChessPiece.PieceType[] {null}) {
+            ChessBoard after = board.copyBoard();
+            after.makeMove(from, to, promotion);
+            for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+              assertEquals(
+                  after.isKingAttacked(color),
+                  board.isKingAttackedAfter(from, to, promotion, color),
+                  fen + " " + from + "-" + to + " " + promotion + " " + color);
+            }
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  void copyKeepsState() throws InvalidMoveException {
+    ChessGame game = Fen.toGame("r3k2r/8/8/8/3p4/8/4P3/R3K2R w Kq - 0 1");
+    play(game, "e2e4");
+
+    ChessGame copy = game.copy();
+    assertEquals(game.positionKey(), copy.positionKey());
+    assertEquals(game, copy);
+    assertTrue(copy.legalMoves().contains(move("d4", "e3")));
+    assertTrue(copy.legalMoves().contains(move("e8", "c8")));
+    assertFalse(copy.legalMoves().contains(move("e8", "g8")));
+
+    play(copy, "d4e3");
+    assertNotEquals(game, copy);
+
+    ChessGame shuffling = new ChessGame();
+    play(shuffling, "g1f3", "g8f6", "f3g1", "f6g8", "g1f3", "g8f6", "f3g1");
+    ChessGame shufflingCopy = shuffling.copy();
+    assertEquals(7, shufflingCopy.getHalfmoveClock());
+    assertEquals(4, shufflingCopy.getFullmoveNumber());
+
+    play(shufflingCopy, "f6g8");
+    assertTrue(shufflingCopy.isThreefoldRepetition());
+    assertFalse(shuffling.isThreefoldRepetition());
+  }
+
+  @Test
+  void pawnMoveResetsHistory() throws InvalidMoveException {
+    ChessGame game = new ChessGame();
+    play(game, "g1f3", "g8f6", "f3g1", "f6g8", "g1f3", "g8f6", "f3g1");
+    assertEquals(7, game.getHalfmoveClock());
+
+    play(game, "e7e5");
+    assertEquals(0, game.getHalfmoveClock());
+
+    play(game, "g1f3", "f6g8", "f3g1", "g8f6");
+    assertEquals(4, game.getHalfmoveClock());
+    assertFalse(game.isThreefoldRepetition());
+
+    play(game, "g1f3", "f6g8", "f3g1", "g8f6");
+    assertTrue(game.isThreefoldRepetition());
+  }
+
+  @Test
+  void fiftyMoveRule() throws InvalidMoveException {
+    ChessGame game = Fen.toGame("8/8/8/3k4/8/8/8/R3K3 w - - 98 80");
+    assertFalse(game.isFiftyMoveRule());
+
+    play(game, "a1a2", "d5d4");
+    assertTrue(game.isFiftyMoveRule());
+    assertEquals(81, game.getFullmoveNumber());
+  }
+
+  @Test
+  void enPassantOnlyWhenSomeoneCanTake() throws InvalidMoveException {
+    ChessGame game = Fen.toGame("4k3/8/8/8/5p2/8/1P2P3/4K3 w - - 0 1");
+    long before = new ChessGame(ChessGame.TeamColor.BLACK, game.getBoard().copyBoard())
+        .positionKey();
+
+    play(game, "b2b4");
+    assertTrue(Fen.fromGame(game).contains(" - "));
+
+    play(game, "e8e7", "e2e4");
+    assertTrue(Fen.fromGame(game).contains(" e3 "));
+    assertNotEquals(before, game.positionKey());
+  }
+
+  @Test
+  void stateSurvivesJson() throws InvalidMoveException {
+    ChessGame game = new ChessGame();
+    play(game, "e2e4", "g8f6", "e1e2", "f6g8", "e2e1");
+
+    Gson gson = new Gson();
+    ChessGame copy = gson.fromJson(gson.toJson(game), ChessGame.class);
+
+    assertEquals(game, copy);
+    assertEquals(Fen.fromGame(game), Fen.fromGame(copy));
+    play(copy, "g8f6", "e1e2", "f6g8", "e2e1", "g8f6", "e1e2", "f6g8");
+    assertTrue(copy.isThreefoldRepetition());
+  }
+}
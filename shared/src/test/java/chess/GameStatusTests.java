@@ -0,0 +1,72 @@
+package chess;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class GameStatusTests {
+
+  @Test
+  void startPosition() {
+    GameStatus status = new ChessGame().status();
+
+    assertEquals(ChessGame.TeamColor.WHITE, status.team());
+    assertFalse(status.inCheck());
+    assertEquals(20, status.legalMoves());
+    assertFalse(status.insufficientMaterial());
+    assertFalse(status.isGameOver());
+  }
+
+  @Test
+  void matchesSeparateChecks() {
+    String[] fens = {
+      "R1k5/8/2K5/8/8/8/8/8 b - - 0 1",
+      "k1K5/7R/8/8/8/8/8/8 b - - 0 1",
+      "rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w - - 1 3",
+      "4k3/8/8/8/8/8/8/3QK3 b - - 0 1",
+    };
+
+    for (String fen : fens) {
+      ChessGame game = Fen.toGame(fen);
+      ChessGame.TeamColor team = game.getTeamTurn();
+      GameStatus status = game.status();
+
+      assertEquals(game.isInCheck(team), status.inCheck(), fen);
+      assertEquals(game.isInCheckmate(team), status.isCheckmate(), fen);
+      assertEquals(game.isInStalemate(team), status.isStalemate(), fen);
+      assertEquals(game.legalMoves().size(), status.legalMoves(), fen);
+    }
+  }
+
+  @Test
+  void insufficientMaterial() {
+    assertTrue(Fen.toGame("4k3/8/8/8/8/8/8/4K3 w").hasInsufficientMaterial());
+    assertTrue(Fen.toGame("4k3/8/8/8/8/8/8/3NK3 w").hasInsufficientMaterial());
+    // both bishops on dark squares
+    assertTrue(Fen.toGame("2b1k3/8/8/8/8/8/8/3BK3 w").hasInsufficientMaterial());
+    assertTrue(Fen.toGame("2b1k3/8/8/8/8/8/8/3BK3 w").status().isGameOver());
+
+    assertFalse(Fen.toGame("3bk3/8/8/8/8/8/8/3BK3 w").hasInsufficientMaterial());
+    assertFalse(Fen.toGame("4k3/8/8/8/8/8/8/2NNK3 w").hasInsufficientMaterial());
+    assertFalse(Fen.toGame("4k3/8/8/8/8/8/4P3/4K3 w").hasInsufficientMaterial());
+    assertFalse(Fen.toGame("4k3/8/8/8/8/8/8/3RK3 w").hasInsufficientMaterial());
+  }
+
+  @Test
+  void batchKeepsOrder() {
+    List<ChessGame> games = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      games.add(i % 2 == 0 ? new ChessGame() : Fen.toGame("R1k5/8/2K5/8/8/8/8/8 b - - 0 1"));
+    }
+
+    List<GameStatus> sequential = GameStatus.of(games, false);
+    List<GameStatus> parallel = GameStatus.of(games, true);
+
+    assertEquals(sequential, parallel);
+    for (int i = 0; i < games.size(); i++) {
+      assertEquals(i % 2 == 1, parallel.get(i).isCheckmate());
+    }
+  }
+}
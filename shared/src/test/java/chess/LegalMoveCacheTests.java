@@ -0,0 +1,94 @@
+package chess;
+
+import static chess.LegalMoveCache.EvictionPolicy.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class LegalMoveCacheTests {
+
+  private static final List<ChessMove> MOVES =
+      List.of(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+
+  @AfterEach
+  void removeSharedCache() {
+    ChessGame.setMoveCache(null);
+  }
+
+  @Test
+  void leastRecentlyUsedKeepsTouchedEntries() {
+    LegalMoveCache cache = new LegalMoveCache(2, LEAST_RECENTLY_USED, 1);
+    cache.put(1, 0, MOVES);
+    cache.put(2, 0, MOVES);
+    cache.get(1, 0);
+    cache.put(3, 0, MOVES);
+
+    assertNotNull(cache.get(1, 0));
+    assertNull(cache.get(2, 0));
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  void firstInFirstOutIgnoresLookups() {
+    LegalMoveCache cache = new LegalMoveCache(2, FIRST_IN_FIRST_OUT, 1);
+    cache.put(1, 0, MOVES);
+    cache.put(2, 0, MOVES);
+    cache.get(1, 0);
+    cache.put(3, 0, MOVES);
+
+    assertNull(cache.get(1, 0));
+    assertNotNull(cache.get(2, 0));
+  }
+
+  @Test
+  void neverHoldsMoreThanMaxEntries() {
+    LegalMoveCache cache = new LegalMoveCache(3, LEAST_RECENTLY_USED, 16);
+    for (int key = 0; key < 100; key++) {
+      cache.put(key, 0, MOVES);
+    }
+
+    assertTrue(cache.size() <= 3);
+  }
+
+  @Test
+  void squaresAreSeparateEntries() {
+    LegalMoveCache cache = new LegalMoveCache(64, LEAST_RECENTLY_USED);
+    cache.put(1, 12, MOVES);
+
+    assertEquals(MOVES, cache.get(1, 12));
+    assertNull(cache.get(1, 13));
+    assertEquals(1, cache.hits());
+    assertEquals(1, cache.misses());
+  }
+
+  @Test
+  void cachedValidMovesMatchGenerated() throws InvalidMoveException {
+    ChessGame uncached = new ChessGame();
+    ChessGame cached = new ChessGame();
+    LegalMoveCache cache = new LegalMoveCache(1024, LEAST_RECENTLY_USED);
+
+    for (int pass = 0; pass < 2; pass++) {
+      ChessGame.setMoveCache(null);
+      var expected = uncached.validMoves(new ChessPosition(1, 7));
+
+      ChessGame.setMoveCache(cache);
+      assertEquals(
+          new HashSet<>(expected), new HashSet<>(cached.validMoves(new ChessPosition(1, 7))));
+    }
+    assertEquals(1, cache.hits());
+
+    // a cache hit must not hand out a list that callers can corrupt
+    cached.validMoves(new ChessPosition(1, 7)).clear();
+    ChessGame.setMoveCache(null);
+    var expected = new HashSet<>(uncached.validMoves(new ChessPosition(1, 7)));
+    ChessGame.setMoveCache(cache);
+    assertEquals(expected, new HashSet<>(cached.validMoves(new ChessPosition(1, 7))));
+    assertEquals(3, cache.hits());
+
+    cached.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+    assertNull(cached.validMoves(new ChessPosition(1, 7)));
+  }
+}
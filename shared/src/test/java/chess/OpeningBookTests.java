@@ -0,0 +1,101 @@
+package chess;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class OpeningBookTests {
+
+  private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+    return ChessMove.of(
+        ChessPosition.of(startRow, startCol), ChessPosition.of(endRow, endCol), null);
+  }
+
+  @Test
+  void findsMovesHeaviestFirst(@TempDir Path directory) throws Exception {
+    ChessGame start = Fen.toGame(Fen.START_POSITION);
+    ChessGame afterE4 = Fen.toGame(Fen.START_POSITION);
+    afterE4.makeMove(move(2, 5, 4, 5));
+
+    List<OpeningBook.Entry> entries = new ArrayList<>();
+    // lots of unrelated positions around the ones we look up
+    for (long key = 1; key < 1000; key++) {
+      entries.add(new OpeningBook.Entry(key * 0x9E3779B97F4A7C15L, move(2, 1, 3, 1), 1));
+    }
+    entries.add(OpeningBook.Entry.of(start, move(2, 4, 4, 4), 30));
+    entries.add(OpeningBook.Entry.of(start, move(2, 5, 4, 5), 50));
+    entries.add(OpeningBook.Entry.of(afterE4, move(7, 3, 5, 3), 10));
+
+    Path file = directory.resolve("book.bin");
+    OpeningBook.write(file, entries);
+    OpeningBook book = OpeningBook.open(file);
+
+    assertEquals(entries.size(), book.size());
+    assertEquals(entries.size() * OpeningBook.ENTRY_BYTES, Files.size(file));
+
+    List<OpeningBook.Entry> found = book.entries(start);
+    assertEquals(2, found.size());
+    assertEquals(move(2, 5, 4, 5), found.get(0).move());
+    assertEquals(50, found.get(0).weight());
+    assertEquals(move(2, 4, 4, 4), found.get(1).move());
+
+    assertEquals(move(2, 5, 4, 5), book.bestMove(start));
+    assertEquals(move(7, 3, 5, 3), book.bestMove(afterE4));
+  }
+
+  @Test
+  void missingPositionsAndIllegalMoves(@TempDir Path directory) throws Exception {
+    ChessGame start = Fen.toGame(Fen.START_POSITION);
+    ChessGame other = Fen.toGame("4k3/8/8/8/8/8/8/4K3 w - - 0 1");
+
+    Path file = directory.resolve("book.bin");
+    // a move that can't be played from the start, as if another position shared its key
+    OpeningBook.write(
+        file, List.of(OpeningBook.Entry.of(start, move(1, 1, 5, 1), 100)));
+    OpeningBook book = OpeningBook.open(file);
+
+    assertNull(book.bestMove(start));
+    assertNull(book.bestMove(other));
+    assertNull(OpeningBook.EMPTY.bestMove(start));
+  }
+
+  @Test
+  void readsPromotions(@TempDir Path directory) throws Exception {
+    ChessGame game = Fen.toGame("4k3/1P6/8/8/8/8/8/4K3 w - - 0 1");
+    ChessMove underpromotion =
+        ChessMove.of(
+            ChessPosition.of(7, 2), ChessPosition.of(8, 2), ChessPiece.PieceType.KNIGHT);
+
+    Path file = directory.resolve("book.bin");
+    OpeningBook.write(
+        file, List.of(OpeningBook.Entry.of(game, underpromotion, 1)));
+
+    assertEquals(underpromotion, OpeningBook.open(file).bestMove(game));
+  }
+
+  @Test
+  void readsPolyglotCastling(@TempDir Path directory) throws Exception {
+    ChessGame game = Fen.toGame("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+
+    Path file = directory.resolve("book.bin");
+    // Polyglot books store castling as the king taking its own rook
+    OpeningBook.write(
+        file, List.of(new OpeningBook.Entry(PolyglotKey.of(game), move(1, 5, 1, 8), 1)));
+
+    assertEquals(move(1, 5, 1, 7), OpeningBook.open(file).bestMove(game));
+  }
+
+  @Test
+  void rejectsTruncatedFiles(@TempDir Path directory) throws Exception {
+    Path file = directory.resolve("book.bin");
+    Files.write(file, new byte[OpeningBook.ENTRY_BYTES + 3]);
+
+    assertThrows(IOException.class, () -> OpeningBook.open(file));
+  }
+}
@@ -0,0 +1,44 @@
+package chess;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class ParallelSearchTests {
+
+  private static final String MIDDLE_GAME =
+      "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w - - 0 1";
+
+  @Test
+  void deterministicModeRepeatsItself() {
+    try (ParallelSearch search = ParallelSearch.deterministic(1 << 14)) {
+      SearchResult first = search.search(Fen.toGame(MIDDLE_GAME), SearchLimits.depth(4));
+      SearchResult second = search.search(Fen.toGame(MIDDLE_GAME), SearchLimits.depth(4));
+
+      assertEquals(first, second);
+    }
+  }
+
+  @Test
+  void helpersFindMate() {
+    ChessGame game = Fen.toGame("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1");
+
+    try (ParallelSearch search = new ParallelSearch(4, new TranspositionTable(1 << 14))) {
+      SearchResult result = search.search(game, SearchLimits.depth(4));
+
+      assertEquals(4, search.threads());
+      assertEquals(new ChessPosition(8, 1), result.bestMove().getEndPosition());
+      assertEquals(Search.MATE - 1, result.score());
+    }
+  }
+
+  @Test
+  void helpersStopWithMainSearch() {
+    try (ParallelSearch search = new ParallelSearch(4, new TranspositionTable(1 << 16))) {
+      SearchResult result = search.search(Fen.toGame(MIDDLE_GAME), SearchLimits.millis(200));
+
+      assertNotNull(result.bestMove());
+      assertTrue(result.depth() >= 1);
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package chess;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class PawnStructureTests {
+
+  private static long squares(String... names) {
+    long bits = 0;
+    for (String name : names) {
+      bits |= Bitboards.bit(Bitboards.square(name.charAt(1) - '0', name.charAt(0) - 'a' + 1));
+    }
+    return bits;
+  }
+
+  @Test
+  void classifiesPawns() {
+    ChessGame game = Fen.toGame("4k3/8/8/4p3/2P5/3P3P/P6P/4K3 w - - 0 1");
+    PawnStructure pawns = PawnStructure.analyze(game.getBoard());
+    ChessGame.TeamColor white = ChessGame.TeamColor.WHITE;
+    ChessGame.TeamColor black = ChessGame.TeamColor.BLACK;
+
+    assertEquals(squares("h2"), pawns.doubled(white));
+    assertEquals(squares("a2", "h2", "h3"), pawns.isolated(white));
+    assertEquals(squares("d3"), pawns.backward(white));
+    assertEquals(squares("a2", "c4", "h3"), pawns.passed(white));
+    assertEquals(3, pawns.islands(white));
+
+    assertEquals(squares("e5"), pawns.isolated(black));
+    assertEquals(0, pawns.passed(black));
+    assertEquals(1, pawns.islands(black));
+  }
+
+  @Test
+  void pawnKeyIgnoresPieceMoves() throws InvalidMoveException {
+    ChessGame game = new ChessGame();
+    long pawnKey = game.getBoard().pawnKey();
+
+    game.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+    assertEquals(pawnKey, game.getBoard().pawnKey());
+
+    long undo =
+        game.getBoard()
+            .makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+    assertNotEquals(pawnKey, game.getBoard().pawnKey());
+
+    game.getBoard().unmakeMove(undo);
+    assertEquals(pawnKey, game.getBoard().pawnKey());
+  }
+
+  @Test
+  void cacheReturnsSameAnalysis() {
+    ChessGame game = new ChessGame();
+    PawnTable table = new PawnTable(64);
+
+    PawnStructure first = table.get(game.getBoard());
+    assertSame(first, table.get(game.getBoard().copyBoard()));
+
+    game.getBoard().removePiece(new ChessPosition(2, 4));
+    assertNotSame(first, table.get(game.getBoard()));
+    assertEquals(
+        PawnStructure.analyze(game.getBoard()).score(), table.get(game.getBoard()).score());
+  }
+}
@@ -0,0 +1,71 @@
+package chess;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public class PerftTests {
+
+  private static void assertNodes(Perft.ReferencePosition position, int maxDepth) {
+    for (int depth = 1; depth <= maxDepth; depth++) {
+      ChessGame game = Fen.toGame(position.fen());
+      assertEquals(
+          position.expectedNodes(depth),
+          Perft.perft(game, depth),
+          position + " perft(" + depth + ")");
+    }
+  }
+
+  @Test
+  void startPosition() {
+    assertNodes(Perft.ReferencePosition.START, 4);
+  }
+
+  @Test
+  void kiwipete() {
+    assertNodes(Perft.ReferencePosition.KIWIPETE, 3);
+  }
+
+  // en passant captures first show up at depth 3, and one at depth 5 would expose the king
+  @Test
+  void position3() {
+    assertNodes(Perft.ReferencePosition.POSITION_3, 5);
+  }
+
+  @Test
+  void divideAddsUpToPerft() {
+    ChessGame game = new ChessGame();
+    Map<ChessMove, Long> divide = Perft.divide(game, 3);
+
+    assertEquals(20, divide.size());
+    assertEquals(8902, divide.values().stream().mapToLong(Long::longValue).sum());
+  }
+
+  @Test
+  void perftLeavesGameUnchanged() {
+    ChessGame game = new ChessGame();
+    Perft.perft(game, 3);
+
+    assertEquals(new ChessGame(), game);
+  }
+
+  @Test
+  void fenRoundTrip() {
+    String fen = Perft.ReferencePosition.POSITION_3.fen();
+
+    assertEquals(fen, Fen.fromGame(Fen.toGame(fen)));
+  }
+
+  @Test
+  void fenKeepsGameState() {
+    String fen = "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w Kq f6 0 3";
+
+    assertEquals(fen, Fen.fromGame(Fen.toGame(fen)));
+  }
+
+  @Test
+  void fenRejectsBadRows() {
+    assertThrows(IllegalArgumentException.class, () -> Fen.toGame("8/8/8 w - - 0 1"));
+  }
+}
@@ -0,0 +1,45 @@
+package chess;
+
+import static chess.TestMoves.move;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/** Checks against the keys published with the Polyglot book format */
+public class PolyglotKeyTests {
+
+  private static long keyAfter(String... moves) throws InvalidMoveException {
+    ChessGame game = new ChessGame();
+    for (String played : moves) {
+      game.makeMove(move(played.substring(0, 2), played.substring(2)));
+    }
+    return PolyglotKey.of(game);
+  }
+
+  @Test
+  void startPosition() {
+    assertEquals(0x463b96181691fc9cL, PolyglotKey.of(new ChessGame()));
+    assertEquals(0x463b96181691fc9cL, PolyglotKey.of(Fen.toGame(Fen.START_POSITION)));
+  }
+
+  @Test
+  void enPassantOnlyWhenCapturable() throws InvalidMoveException {
+    // nothing can take on e3 or d6
+    assertEquals(0x823c9b50fd114196L, keyAfter("e2e4"));
+    assertEquals(0x0756b94461c50fb0L, keyAfter("e2e4", "d7d5"));
+    assertEquals(0x662fafb965db29d4L, keyAfter("e2e4", "d7d5", "e4e5"));
+    // e5 can take on f6
+    assertEquals(0x22a48b5a8e47ff78L, keyAfter("e2e4", "d7d5", "e4e5", "f7f5"));
+  }
+
+  @Test
+  void castlingRights() throws InvalidMoveException {
+    assertEquals(0x652a607ca3f242c1L, keyAfter("e2e4", "d7d5", "e4e5", "f7f5", "e1e2"));
+    assertEquals(
+        0x00fdd303c946bdd9L, keyAfter("e2e4", "d7d5", "e4e5", "f7f5", "e1e2", "e8f7"));
+    assertEquals(0x3c8123ea7b067637L, keyAfter("a2a4", "b7b5", "h2h4", "b5b4", "c2c4"));
+    assertEquals(
+        0x5c3f9b829b279560L,
+        keyAfter("a2a4", "b7b5", "h2h4", "b5b4", "c2c4", "b4c3", "a1a3"));
+  }
+}
@@ -0,0 +1,58 @@
+package chess;
+
+import static chess.TestMoves.move;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+public class PositionKeyTests {
+
+  @Test
+  void transpositionsShareKey() throws InvalidMoveException {
+    ChessGame first = new ChessGame();
+    first.makeMove(move("g1", "f3"));
+    first.makeMove(move("g8", "f6"));
+    first.makeMove(move("b1", "c3"));
+
+    ChessGame second = new ChessGame();
+    second.makeMove(move("b1", "c3"));
+    second.makeMove(move("g8", "f6"));
+    second.makeMove(move("g1", "f3"));
+
+    assertEquals(first.positionKey(), second.positionKey());
+    assertEquals(first.hashCode(), second.hashCode());
+  }
+
+  @Test
+  void sideToMoveChangesKey() {
+    ChessGame white = new ChessGame();
+    ChessGame black = new ChessGame(ChessGame.TeamColor.BLACK, white.getBoard().copyBoard());
+
+    assertNotEquals(white.positionKey(), black.positionKey());
+  }
+
+  @Test
+  void unmakeRestoresKey() {
+    ChessGame game =
+        Fen.toGame("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w - - 0 1");
+    long key = game.positionKey();
+
+    for (ChessMove move : game.legalMoves()) {
+      long undo = game.getBoard().makeMove(move);
+      assertNotEquals(key, game.positionKey(), move.toString());
+      game.getBoard().unmakeMove(undo);
+      assertEquals(key, game.positionKey(), move.toString());
+    }
+  }
+
+  @Test
+  void keySurvivesJson() {
+    Gson gson = new Gson();
+    ChessGame game = Fen.toGame("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 0 1");
+
+    ChessGame copy = gson.fromJson(gson.toJson(game), ChessGame.class);
+
+    assertEquals(game.positionKey(), copy.positionKey());
+  }
+}
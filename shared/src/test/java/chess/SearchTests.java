@@ -0,0 +1,63 @@
+package chess;
+
+import static chess.TestMoves.move;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class SearchTests {
+
+  @Test
+  void findsMateInOne() {
+    ChessGame game = Fen.toGame("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1");
+    SearchResult result = new Search().search(game, SearchLimits.depth(4));
+
+    assertEquals(move("a1", "a8"), result.bestMove());
+    assertEquals(Search.MATE - 1, result.score());
+    assertTrue(result.isMate());
+  }
+
+  @Test
+  void takesHangingQueen() {
+    ChessGame game = Fen.toGame("4k3/8/8/3q4/8/8/8/3RK3 w - - 0 1");
+    SearchResult result = new Search().search(game, SearchLimits.depth(3));
+
+    assertEquals(move("d1", "d5"), result.bestMove());
+    assertTrue(result.score() > 0);
+  }
+
+  @Test
+  void principalVariationStartsWithBestMove() {
+    SearchResult result = new Search().search(new ChessGame(), SearchLimits.depth(4));
+
+    assertEquals(4, result.depth());
+    assertFalse(result.principalVariation().isEmpty());
+    assertEquals(result.bestMove(), result.principalVariation().get(0));
+  }
+
+  @Test
+  void nodeLimitStopsSearch() {
+    SearchResult result = new Search().search(new ChessGame(), SearchLimits.nodes(5_000));
+
+    assertNotNull(result.bestMove());
+    assertTrue(result.depth() < Search.MAX_PLY);
+    assertTrue(result.nodes() < 10_000, "searched " + result.nodes() + " nodes");
+  }
+
+  @Test
+  void noMoveWhenCheckmated() {
+    ChessGame game = Fen.toGame("R5k1/5ppp/8/8/8/8/5PPP/6K1 b - - 0 1");
+    SearchResult result = new Search().search(game, SearchLimits.depth(3));
+
+    assertNull(result.bestMove());
+    assertTrue(result.principalVariation().isEmpty());
+  }
+
+  @Test
+  void searchLeavesGameUnchanged() {
+    ChessGame game = new ChessGame();
+    new Search().search(game, SearchLimits.depth(3));
+
+    assertEquals(new ChessGame(), game);
+  }
+}
@@ -0,0 +1,137 @@
+package chess;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TablebaseTests {
+
+  @TempDir
+  static Path directory;
+
+  private static Tablebase tablebase;
+
+  @BeforeAll
+  static void build() throws Exception {
+    TablebaseGenerator.write(directory, "KRvK");
+    tablebase = Tablebase.open(directory, 4);
+  }
+
+  @AfterEach
+  void removeTablebase() {
+    ChessGame.setTablebase(null);
+  }
+
+  @Test
+  void writesOneFilePerEndgame() {
+    assertTrue(Files.exists(directory.resolve("KRvK" + Tablebase.EXTENSION)));
+    assertEquals(3, tablebase.maxPieces());
+    assertTrue(tablebase.signatures().contains("KRvK"));
+  }
+
+  @Test
+  void knownResults() {
+    Tablebase.Result mateInOne = tablebase.probe(Fen.toGame("k7/8/1K6/8/8/8/8/7R w - - 0 1"));
+    assertEquals(Tablebase.Outcome.WIN, mateInOne.outcome());
+    assertEquals(1, mateInOne.pliesToMate());
+
+    Tablebase.Result mated = tablebase.probe(Fen.toGame("R1k5/8/2K5/8/8/8/8/8 b - - 0 1"));
+    assertTrue(mated.isCheckmate());
+
+    Tablebase.Result stalemate = tablebase.probe(Fen.toGame("k1K5/7R/8/8/8/8/8/8 b - - 0 1"));
+    assertEquals(Tablebase.Outcome.DRAW, stalemate.outcome());
+    assertTrue(stalemate.stalemate());
+
+    // the rook is defended, so the white king can't take it
+    Tablebase.Result blackRook = tablebase.probe(Fen.toGame("8/8/8/8/8/8/1r6/K1k5 w - - 0 1"));
+    assertTrue(blackRook.stalemate());
+
+    // black to move takes the undefended rook
+    Tablebase.Result drawn = tablebase.probe(Fen.toGame("8/8/8/8/8/8/1R6/k3K3 b - - 0 1"));
+    assertEquals(Tablebase.Outcome.DRAW, drawn.outcome());
+    assertFalse(drawn.stalemate());
+  }
+
+  @Test
+  void mirroredColors() {
+    Tablebase.Result white = tablebase.probe(Fen.toGame("8/8/8/3k4/8/8/8/K6R b - - 0 1"));
+    Tablebase.Result black = tablebase.probe(Fen.toGame("k6r/8/8/8/3K4/8/8/8 w - - 0 1"));
+
+    assertEquals(Tablebase.Outcome.LOSS, white.outcome());
+    assertEquals(white, black);
+  }
+
+  @Test
+  void uncoveredPositions() {
+    assertNull(tablebase.probe(new ChessGame()));
+    assertNull(tablebase.probe(Fen.toGame("4k3/8/8/8/8/8/8/3QK3 w - - 0 1")));
+    // the side not to move is in check
+    assertNull(tablebase.probe(Fen.toGame("4k3/8/8/8/8/8/8/4RK2 w - - 0 1")));
+  }
+
+  @Test
+  void bestMovesMate() {
+    ChessGame game = Fen.toGame("8/8/8/3k4/8/8/8/K6R b - - 0 1");
+    int plies = tablebase.probe(game).pliesToMate();
+
+    for (int ply = 0; ply < plies; ply++) {
+      ChessMove move = tablebase.bestMove(game);
+      ChessGame.TeamColor mover = game.getTeamTurn();
+      game.getBoard().makeMove(move);
+      game.setTeamTurn(MoveGenerator.opponent(mover));
+
+      assertEquals(plies - ply - 1, tablebase.probe(game).pliesToMate());
+    }
+
+    assertTrue(game.isInCheckmate(game.getTeamTurn()));
+  }
+
+  @Test
+  void gameOverUsesTablebase() {
+    ChessGame mated = Fen.toGame("R1k5/8/2K5/8/8/8/8/8 b - - 0 1");
+    ChessGame stalemated = Fen.toGame("k1K5/7R/8/8/8/8/8/8 b - - 0 1");
+    ChessGame playing = Fen.toGame("8/8/8/3k4/8/8/8/K6R b - - 0 1");
+
+    ChessGame.setTablebase(tablebase);
+
+    assertTrue(mated.isInCheckmate(ChessGame.TeamColor.BLACK));
+    assertFalse(mated.isInStalemate(ChessGame.TeamColor.BLACK));
+    assertTrue(stalemated.isInStalemate(ChessGame.TeamColor.BLACK));
+    assertFalse(stalemated.isInCheckmate(ChessGame.TeamColor.BLACK));
+    assertFalse(playing.isInCheckmate(ChessGame.TeamColor.BLACK));
+    assertFalse(playing.isInStalemate(ChessGame.TeamColor.WHITE));
+  }
+
+  @Test
+  void tooManyPieces() {
+    assertThrows(
+        IllegalArgumentException.class, () -> TablebaseGenerator.write(directory, "KQvKR"));
+    assertThrows(
+        IllegalArgumentException.class, () -> TablebaseGenerator.write(directory, "QKvK"));
+  }
+
+  @Test
+  void truncatedBlocksFailInsteadOfHanging(@TempDir Path corrupt) throws Exception {
+    byte[] bytes = Files.readAllBytes(directory.resolve("KRvK" + Tablebase.EXTENSION));
+    ByteBuffer file = ByteBuffer.wrap(bytes);
+    int blocks = file.getInt(3 * Integer.BYTES);
+    long firstBlock = file.getLong(4 * Integer.BYTES);
+
+    // every block now ends a few bytes into the first one's data
+    for (int block = 1; block <= blocks; block++) {
+      file.putLong(4 * Integer.BYTES + block * Long.BYTES, firstBlock + 8);
+    }
+    Files.write(corrupt.resolve("KRvK" + Tablebase.EXTENSION), bytes);
+
+    Tablebase truncated = Tablebase.open(corrupt, 4);
+    assertThrows(
+        IllegalStateException.class,
+        () -> truncated.probe(Fen.toGame("k7/8/1K6/8/8/8/8/7R w - - 0 1")));
+  }
+}
@@ -0,0 +1,20 @@
+package chess;
+
+/** Builds moves from square names for the tests */
+final class TestMoves {
+
+  private TestMoves() {}
+
+  /**
+   * @param from starting square, such as "e2"
+   * @param to ending square, such as "e4"
+   * @return the move, without promotion
+   */
+  static ChessMove move(String from, String to) {
+    return new ChessMove(square(from), square(to), null);
+  }
+
+  private static ChessPosition square(String name) {
+    return new ChessPosition(name.charAt(1) - '0', name.charAt(0) - 'a' + 1);
+  }
+}
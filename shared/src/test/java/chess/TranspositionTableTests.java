@@ -0,0 +1,81 @@
+package chess;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+public class TranspositionTableTests {
+
+  @Test
+  void keepsDeeperEntries() {
+    TranspositionTable table = new TranspositionTable(1);
+    table.store(1, 6, TranspositionTable.LOWER, -250, 0x1234);
+    table.store(2, 3, TranspositionTable.EXACT, 10, 0);
+
+    long entry = table.probe(1);
+    assertEquals(TranspositionTable.MISS, table.probe(2));
+    assertEquals(6, TranspositionTable.depth(entry));
+    assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(entry));
+    assertEquals(-250, TranspositionTable.score(entry));
+    assertEquals(0x1234, TranspositionTable.move(entry));
+
+    table.clear();
+    assertEquals(TranspositionTable.MISS, table.probe(1));
+  }
+
+  @Test
+  void newGenerationReplacesDeeperEntries() {
+    TranspositionTable table = new TranspositionTable(1);
+    table.store(1, 6, TranspositionTable.EXACT, 0, 0);
+    table.nextGeneration();
+    table.store(2, 1, TranspositionTable.EXACT, 0, 0);
+
+    assertEquals(TranspositionTable.MISS, table.probe(1));
+    assertNotEquals(TranspositionTable.MISS, table.probe(2));
+  }
+
+  @Test
+  void sizedInMegabytes() {
+    TranspositionTable table = TranspositionTable.ofMegabytes(16);
+
+    assertEquals(16 * 1024 * 1024, table.capacity() * TranspositionTable.BYTES_PER_ENTRY);
+    assertThrows(IllegalArgumentException.class, () -> TranspositionTable.ofMegabytes(0));
+  }
+
+  // every thread writes entries whose score is derived from the key, so any torn read that got
+  // through the XOR check would show up as a mismatched score
+  @Test
+  void concurrentWritesNeverMixEntries() throws InterruptedException {
+    TranspositionTable table = new TranspositionTable(16);
+    AtomicBoolean mixed = new AtomicBoolean();
+    List<Thread> threads = new ArrayList<>();
+
+    for (int t = 0; t < 4; t++) {
+      final long seed = t;
+      threads.add(
+          new Thread(
+              () -> {
+                for (long i = 0; i < 200_000; i++) {
+                  long key = (i * 4 + seed) * 0x9E3779B97F4A7C15L;
+                  table.store(key, 1, TranspositionTable.EXACT, (short) key, 0);
+
+                  long probed = table.probe(key);
+                  if (probed != TranspositionTable.MISS
+                      && TranspositionTable.score(probed) != (short) key) {
+                    mixed.set(true);
+                  }
+                }
+              }));
+    }
+
+    threads.forEach(Thread::start);
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertFalse(mixed.get());
+  }
+}